@@ -0,0 +1,632 @@
+package cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Size-bounded cache using the W-TinyLFU policy. New entries enter a small LRU
+ * admission window (1% of capacity). Entries pushed out of the window compete with
+ * the least recently used entry of the main space and are only admitted if the
+ * {@link FrequencySketch} has seen them more often, so a burst of one-off keys
+ * cannot flush the hot set. The main space is a segmented LRU: a probation entry
+ * that is read again moves to the protected segment (80% of the main space).
+ *
+ * Reads never block: the entry comes from a ConcurrentHashMap and the access is
+ * recorded in a striped, lossy read buffer that is replayed against the policy
+ * under a tryLock when a stripe fills up. Writes apply to the map and the policy
+ * under the eviction lock. Every operation is O(1) amortized. Capacity is a
+ * maximum total weight; with the default weigher each entry weighs 1, making it
+ * a maximum entry count. Expired entries are dropped when they are next read or
+ * when they reach the end of the LRU order, so they count toward size until then.
+ */
+public class BoundedCacheService implements CacheService {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int RETIRED = 3;
+
+    private final ConcurrentHashMap<String, Node> data;
+    private final ToIntBiFunction<String, Object> weigher;
+    private final long defaultTtl;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final FrequencySketch sketch;
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedSegment = new AccessQueue();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer[] readBuffers;
+    private final CacheStatsCounter statsCounter = new CacheStatsCounter();
+    private final CacheKeyIndex keyIndex = new CacheKeyIndex();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private long windowWeight;
+    private long protectedWeight;
+    private volatile long weightedSize;
+
+    public BoundedCacheService(long maximumSize) {
+        this(maximumSize, 300, TimeUnit.SECONDS); // Default 5 minutes TTL
+    }
+
+    public BoundedCacheService(long maximumSize, long defaultTtl, TimeUnit timeUnit) {
+        this(maximumSize, (key, value) -> 1, defaultTtl, timeUnit);
+    }
+
+    public BoundedCacheService(long maximumWeight, ToIntBiFunction<String, Object> weigher,
+                            long defaultTtl, TimeUnit timeUnit) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive: " + maximumWeight);
+        }
+        this.data = new ConcurrentHashMap<>();
+        this.weigher = weigher;
+        this.defaultTtl = timeUnit.toMillis(defaultTtl);
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 8 / 10;
+        this.sketch = new FrequencySketch(maximumWeight);
+
+        int stripes = Integer.highestOneBit(Math.min(16, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, defaultTtl, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String key, Object value, long timeout, TimeUnit timeUnit) {
+        put(key, value, timeout, timeUnit, new String[0]);
+    }
+
+    @Override
+    public void put(String key, Object value, long timeout, TimeUnit timeUnit, String... tags) {
+        long expirationTime = System.currentTimeMillis() + timeUnit.toMillis(timeout);
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight for key " + key);
+        }
+
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            sketch.increment(key);
+            Node node = data.get(key);
+            if (node == null) {
+                node = new Node(key, value, expirationTime, weight);
+                keyIndex.add(key, node, tags);
+                data.put(key, node);
+                node.queue = WINDOW;
+                window.addLast(node);
+                windowWeight += weight;
+                weightedSize += weight;
+            } else {
+                keyIndex.add(key, node, tags);
+                node.value = value;
+                node.expirationTime = expirationTime;
+                reweigh(node, weight);
+                onAccess(node);
+            }
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(String key, Object expectedValue, Object newValue, long timeout, TimeUnit timeUnit,
+                        String... tags) {
+        long expirationTime = System.currentTimeMillis() + timeUnit.toMillis(timeout);
+        int weight = weigher.applyAsInt(key, newValue);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight for key " + key);
+        }
+
+        evictionLock.lock();
+        try {
+            Node node = data.get(key);
+            if (node == null || node.value != expectedValue) {
+                return false;
+            }
+            keyIndex.add(key, node, tags);
+            node.value = newValue;
+            node.expirationTime = expirationTime;
+            reweigh(node, weight);
+            evictEntries();
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Object> get(String key) {
+        return Optional.ofNullable(getValue(key));
+    }
+
+    // Hit path of the lookups; returns null on a miss so loading gets don't allocate an Optional
+    private Object getValue(String key) {
+        Node node = data.get(key);
+        if (node == null) {
+            statsCounter.recordMiss(key);
+            return null;
+        }
+        if (node.isExpired(System.currentTimeMillis())) {
+            removeNode(node, true);
+            statsCounter.recordMiss(key);
+            return null;
+        }
+        statsCounter.recordHit(key);
+        recordRead(node);
+        return node.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(String key, Class<T> type) {
+        Optional<Object> value = get(key);
+        if (value.isPresent() && type.isInstance(value.get())) {
+            return Optional.of((T) value.get());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public <T> T get(String key, Function<String, ? extends T> loader) {
+        return get(key, loader, defaultTtl, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Function<String, ? extends T> loader, long timeout, TimeUnit timeUnit,
+                    String... tags) {
+        Object cached = getValue(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        return singleFlight.load(key, () -> {
+            Object loadedMeanwhile = peek(key);
+            if (loadedMeanwhile != null) {
+                return (T) loadedMeanwhile;
+            }
+            long loadStart = System.nanoTime();
+            T value;
+            try {
+                value = loader.apply(key);
+            } catch (RuntimeException | Error e) {
+                statsCounter.recordLoadFailure(key, System.nanoTime() - loadStart);
+                throw e;
+            }
+            recordLoad(key, System.nanoTime() - loadStart, value != null);
+            if (value != null) {
+                put(key, value, timeout, timeUnit, tags);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public boolean exists(String key) {
+        Node node = data.get(key);
+        if (node != null && node.isExpired(System.currentTimeMillis())) {
+            removeNode(node, true);
+            return false;
+        }
+        return node != null;
+    }
+
+    @Override
+    public void delete(String key) {
+        Node node = data.get(key);
+        if (node != null) {
+            removeNode(node, false);
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (Node node : data.values()) {
+                node.queue = RETIRED;
+            }
+            data.clear();
+            keyIndex.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            windowWeight = 0;
+            protectedWeight = 0;
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return data.size();
+    }
+
+    @Override
+    public void expire(String key, long timeout, TimeUnit timeUnit) {
+        Node node = data.get(key);
+        long now = System.currentTimeMillis();
+        if (node != null && !node.isExpired(now)) {
+            node.expirationTime = now + timeUnit.toMillis(timeout);
+        }
+    }
+
+    @Override
+    public long getTimeToLive(String key) {
+        Node node = data.get(key);
+        long now = System.currentTimeMillis();
+        if (node == null || node.isExpired(now)) {
+            return -1;
+        }
+        return node.expirationTime - now;
+    }
+
+    @Override
+    public long invalidateTag(String tag) {
+        return invalidate(keyIndex.keysWithTag(tag));
+    }
+
+    @Override
+    public long invalidatePrefix(String prefix) {
+        return invalidate(keyIndex.keysWithPrefix(prefix));
+    }
+
+    @Override
+    public List<String> keysWithPrefix(String prefix) {
+        return keyIndex.keysWithPrefix(prefix);
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public long getEvictionCount() {
+        return statsCounter.snapshot().getOverall().getEvictionCount();
+    }
+
+    @Override
+    public void recordLoad(String key, long loadNanos, boolean success) {
+        if (success) {
+            statsCounter.recordLoadSuccess(key, loadNanos);
+        } else {
+            statsCounter.recordLoadFailure(key, loadNanos);
+        }
+    }
+
+    @Override
+    public CacheStatsCounter.Snapshot getStatsSnapshot() {
+        return statsCounter.snapshot();
+    }
+
+    // Applies buffered reads so recency and frequency are up to date, e.g. before inspecting the policy
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new ConcurrentHashMap<>();
+        stats.put("size", data.size());
+        stats.put("maxSize", maximumWeight);
+        stats.put("weightedSize", weightedSize);
+        CacheStatsCounter.NamespaceStats overall = statsCounter.snapshot().getOverall();
+        stats.put("hitCount", overall.getHitCount());
+        stats.put("missCount", overall.getMissCount());
+        stats.put("evictionCount", overall.getEvictionCount());
+        stats.put("expirationCount", overall.getExpirationCount());
+        return stats;
+    }
+
+    @Override
+    public Object peek(String key) {
+        Node node = data.get(key);
+        return node == null || node.isExpired(System.currentTimeMillis()) ? null : node.value;
+    }
+
+    private long invalidate(List<String> keys) {
+        long removed = 0;
+        evictionLock.lock();
+        try {
+            for (String key : keys) {
+                Node node = data.remove(key);
+                if (node != null) {
+                    retire(node);
+                    removed++;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        return removed;
+    }
+
+    private void recordRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+                onAccess(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void removeNode(Node node, boolean expired) {
+        evictionLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                retire(node);
+                if (expired) {
+                    statsCounter.recordExpiration(node.key);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // Caller holds the eviction lock
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(this);
+        }
+    }
+
+    // Caller holds the eviction lock
+    private void onAccess(Node node) {
+        if (node.queue == RETIRED) {
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.queue == WINDOW) {
+            window.moveToBack(node);
+        } else if (node.queue == PROBATION) {
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedSegment.addLast(node);
+            protectedWeight += node.weight;
+            demoteProtectedOverflow();
+        } else {
+            protectedSegment.moveToBack(node);
+        }
+    }
+
+    // Caller holds the eviction lock
+    private void demoteProtectedOverflow() {
+        while (protectedWeight > protectedMaximum && protectedSegment.first != null) {
+            Node demoted = protectedSegment.pollFirst();
+            protectedWeight -= demoted.weight;
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    // Caller holds the eviction lock
+    private void reweigh(Node node, int weight) {
+        int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queue == WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight += delta;
+        }
+    }
+
+    // Caller holds the eviction lock. Entries leaving the window become admission
+    // candidates at the back of probation; each candidate then competes with the
+    // probation LRU victim and the less frequently used of the two is evicted.
+    private void evictEntries() {
+        int candidates = 0;
+        while (windowWeight > windowMaximum && window.first != null) {
+            Node node = window.pollFirst();
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            candidates++;
+        }
+
+        long now = System.currentTimeMillis();
+        while (weightedSize > maximumWeight) {
+            Node victim = probation.first;
+            if (victim == null) {
+                victim = protectedSegment.first != null ? protectedSegment.first : window.first;
+                if (victim == null) {
+                    break;
+                }
+                evict(victim);
+                continue;
+            }
+            Node candidate = candidates > 0 ? probation.last : null;
+            if (candidate == null || candidate == victim) {
+                if (candidate != null) {
+                    candidates--;
+                }
+                evict(victim);
+            } else if (candidate.isExpired(now) || (!victim.isExpired(now) && !admit(candidate, victim))) {
+                candidates--;
+                evict(candidate);
+            } else {
+                evict(victim);
+            }
+        }
+    }
+
+    private boolean admit(Node candidate, Node victim) {
+        return sketch.frequency(candidate.key) > sketch.frequency(victim.key);
+    }
+
+    // Caller holds the eviction lock
+    private void evict(Node node) {
+        data.remove(node.key, node);
+        retire(node);
+        if (node.isExpired(System.currentTimeMillis())) {
+            statsCounter.recordExpiration(node.key);
+        } else {
+            statsCounter.recordEviction(node.key);
+        }
+    }
+
+    // Caller holds the eviction lock
+    private void retire(Node node) {
+        keyIndex.remove(node.key, node);
+        if (node.queue == WINDOW) {
+            window.remove(node);
+            windowWeight -= node.weight;
+        } else if (node.queue == PROBATION) {
+            probation.remove(node);
+        } else if (node.queue == PROTECTED) {
+            protectedSegment.remove(node);
+            protectedWeight -= node.weight;
+        } else {
+            return;
+        }
+        weightedSize -= node.weight;
+        node.queue = RETIRED;
+    }
+
+    private static class Node {
+        private final String key;
+        private volatile Object value;
+        private volatile long expirationTime;
+        private int weight;
+        private int queue;
+        private Node prev;
+        private Node next;
+
+        Node(String key, Object value, long expirationTime, int weight) {
+            this.key = key;
+            this.value = value;
+            this.expirationTime = expirationTime;
+            this.weight = weight;
+        }
+
+        boolean isExpired(long now) {
+            return now > expirationTime;
+        }
+    }
+
+    // Intrusive doubly-linked LRU list; least recently used at the front
+    private static class AccessQueue {
+        private Node first;
+        private Node last;
+
+        void addLast(Node node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        Node pollFirst() {
+            Node node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToBack(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+        }
+    }
+
+    // Bounded ring of recorded reads for one stripe. Producers claim a slot with a
+    // CAS and drop the sample when the ring is full or the CAS loses, since the
+    // policy only needs an approximate access history.
+    private static class ReadBuffer {
+        private static final int SIZE = 16;
+        private static final int MASK = SIZE - 1;
+
+        private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicLong readCounter = new AtomicLong();
+
+        // Returns false if the buffer is full and should be drained
+        boolean offer(Node node) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+            if (tail - head >= SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & MASK), node);
+            }
+            return true;
+        }
+
+        // Caller holds the eviction lock
+        void drain(BoundedCacheService cache) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & MASK);
+                Node node = slots.get(index);
+                if (node == null) {
+                    break; // Slot claimed but not yet published
+                }
+                slots.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            readCounter.lazySet(head);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Reverse indexes from tags and key prefixes to cached keys, so bulk invalidation
+ * touches only the matching entries instead of scanning the keyspace. Keys are kept
+ * in a sorted map, making a prefix lookup O(log n + matches), and each tag maps to
+ * the set of keys currently carrying it.
+ *
+ * Each registration remembers the cache entry it was made for, and {@link #remove}
+ * only drops the registration of that same entry, so removing a replaced entry
+ * never unregisters the value that replaced it. Caches register an entry before
+ * publishing it, so its removal always finds the registration.
+ */
+public class CacheKeyIndex {
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentSkipListMap<String, Registration> registrations = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public CacheKeyIndex() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public void add(String key, Object entry, String... tags) {
+        synchronized (lockFor(key)) {
+            Registration previous = registrations.put(key, new Registration(entry, tags));
+            if (previous != null) {
+                untag(key, previous.tags);
+            }
+            for (String tag : tags) {
+                keysByTag.compute(tag, (k, keys) -> {
+                    Set<String> tagged = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                    tagged.add(key);
+                    return tagged;
+                });
+            }
+        }
+    }
+
+    public void remove(String key, Object entry) {
+        synchronized (lockFor(key)) {
+            Registration current = registrations.get(key);
+            if (current != null && current.entry == entry) {
+                registrations.remove(key);
+                untag(key, current.tags);
+            }
+        }
+    }
+
+    public void clear() {
+        registrations.clear();
+        keysByTag.clear();
+    }
+
+    public List<String> keysWithTag(String tag) {
+        Set<String> keys = keysByTag.get(tag);
+        return keys == null ? Collections.emptyList() : new ArrayList<>(keys);
+    }
+
+    public List<String> keysWithPrefix(String prefix) {
+        return new ArrayList<>(registrations.subMap(prefix, true, prefix + Character.MAX_VALUE, true).keySet());
+    }
+
+    private void untag(String key, String[] tags) {
+        for (String tag : tags) {
+            keysByTag.computeIfPresent(tag, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private Object lockFor(String key) {
+        return locks[(key.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    private static class Registration {
+        private final Object entry;
+        private final String[] tags;
+
+        Registration(Object entry, String[] tags) {
+            this.entry = entry;
+            this.tags = tags;
+        }
+    }
+}
@@ -1,17 +1,40 @@
 package cache;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public interface CacheService {
     void put(String key, Object value);
     void put(String key, Object value, long timeout, TimeUnit timeUnit);
+    void put(String key, Object value, long timeout, TimeUnit timeUnit, String... tags);
+    // Stores newValue only if the key currently maps to expectedValue (same instance)
+    boolean replace(String key, Object expectedValue, Object newValue, long timeout, TimeUnit timeUnit,
+                    String... tags);
     Optional<Object> get(String key);
     <T> Optional<T> get(String key, Class<T> type);
+
+    // Returns the cached value, or runs loader once for all concurrent callers that miss on
+    // the same key and caches its result. A loader exception reaches every waiting caller;
+    // a null result is returned but not cached.
+    <T> T get(String key, Function<String, ? extends T> loader);
+    <T> T get(String key, Function<String, ? extends T> loader, long timeout, TimeUnit timeUnit, String... tags);
+    // Current value or null, without recording a hit or miss or counting as an access
+    Object peek(String key);
     boolean exists(String key);
     void delete(String key);
     void clear();
     long size();
     void expire(String key, long timeout, TimeUnit timeUnit);
     long getTimeToLive(String key);
+
+    // Bulk invalidation through reverse indexes; each returns the number of entries removed
+    long invalidateTag(String tag);
+    long invalidatePrefix(String prefix);
+    List<String> keysWithPrefix(String prefix);
+
+    // Records a value loaded by the caller after a miss, so load counts and latency show up in the stats
+    void recordLoad(String key, long loadNanos, boolean success);
+    CacheStatsCounter.Snapshot getStatsSnapshot();
 }
\ No newline at end of file
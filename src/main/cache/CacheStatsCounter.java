@@ -0,0 +1,195 @@
+package cache;
+
+import concurrency.LatencyHistogram;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss, load, eviction and expiration counters for a cache, kept per key
+ * namespace and overall. A key's namespace is its prefix up to and including the
+ * first ':' ("room:", "rooms_by_type:"), or the whole key if it has none
+ * ("available_rooms"). Counters are LongAdders, so recording never contends, and
+ * taking a snapshot costs O(namespaces) no matter how many entries are cached.
+ * Namespaces are matched by prefix against a small copy-on-write array, so the
+ * hot path does not allocate; past {@link #MAX_NAMESPACES} everything else is
+ * counted under {@link #OTHER_NAMESPACE}.
+ */
+public class CacheStatsCounter {
+    public static final String OTHER_NAMESPACE = "other";
+    public static final int MAX_NAMESPACES = 64;
+
+    private final Counters overall = new Counters("");
+    private final Counters other = new Counters(OTHER_NAMESPACE);
+    private volatile Counters[] namespaces = new Counters[0];
+
+    public void recordHit(String key) {
+        overall.hits.increment();
+        countersFor(key).hits.increment();
+    }
+
+    public void recordMiss(String key) {
+        overall.misses.increment();
+        countersFor(key).misses.increment();
+    }
+
+    public void recordLoadSuccess(String key, long loadNanos) {
+        Counters namespace = countersFor(key);
+        overall.loadSuccesses.increment();
+        overall.loadTime.record(loadNanos);
+        namespace.loadSuccesses.increment();
+        namespace.loadTime.record(loadNanos);
+    }
+
+    public void recordLoadFailure(String key, long loadNanos) {
+        Counters namespace = countersFor(key);
+        overall.loadFailures.increment();
+        overall.loadTime.record(loadNanos);
+        namespace.loadFailures.increment();
+        namespace.loadTime.record(loadNanos);
+    }
+
+    public void recordEviction(String key) {
+        overall.evictions.increment();
+        countersFor(key).evictions.increment();
+    }
+
+    public void recordExpiration(String key) {
+        overall.expirations.increment();
+        countersFor(key).expirations.increment();
+    }
+
+    public Snapshot snapshot() {
+        Map<String, NamespaceStats> byNamespace = new TreeMap<>();
+        for (Counters counters : namespaces) {
+            byNamespace.put(counters.namespace, counters.snapshot());
+        }
+        NamespaceStats otherStats = other.snapshot();
+        if (otherStats.getRequestCount() + otherStats.getEvictionCount() + otherStats.getExpirationCount() > 0) {
+            byNamespace.put(OTHER_NAMESPACE, otherStats);
+        }
+        return new Snapshot(overall.snapshot(), byNamespace);
+    }
+
+    public static String namespaceOf(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(0, colon + 1);
+    }
+
+    private Counters countersFor(String key) {
+        for (Counters counters : namespaces) {
+            if (matches(key, counters.namespace)) {
+                return counters;
+            }
+        }
+        return register(namespaceOf(key));
+    }
+
+    private static boolean matches(String key, String prefix) {
+        if (!prefix.isEmpty() && prefix.charAt(prefix.length() - 1) == ':') {
+            return key.startsWith(prefix);
+        }
+        return key.equals(prefix);
+    }
+
+    private synchronized Counters register(String namespace) {
+        for (Counters counters : namespaces) {
+            if (counters.namespace.equals(namespace)) {
+                return counters;
+            }
+        }
+        if (namespaces.length >= MAX_NAMESPACES) {
+            return other;
+        }
+        Counters[] grown = Arrays.copyOf(namespaces, namespaces.length + 1);
+        grown[namespaces.length] = new Counters(namespace);
+        namespaces = grown;
+        return grown[grown.length - 1];
+    }
+
+    private static class Counters {
+        private final String namespace;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder loadSuccesses = new LongAdder();
+        private final LongAdder loadFailures = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+        private final LatencyHistogram loadTime = new LatencyHistogram();
+
+        Counters(String namespace) {
+            this.namespace = namespace;
+        }
+
+        NamespaceStats snapshot() {
+            return new NamespaceStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                    evictions.sum(), expirations.sum(), loadTime.snapshot());
+        }
+    }
+
+    public static class Snapshot {
+        private final NamespaceStats overall;
+        private final Map<String, NamespaceStats> byNamespace;
+
+        public Snapshot(NamespaceStats overall, Map<String, NamespaceStats> byNamespace) {
+            this.overall = overall;
+            this.byNamespace = byNamespace;
+        }
+
+        public NamespaceStats getOverall() { return overall; }
+        public Map<String, NamespaceStats> getByNamespace() { return byNamespace; }
+
+        public NamespaceStats forNamespace(String namespace) {
+            NamespaceStats stats = byNamespace.get(namespace);
+            return stats != null ? stats : NamespaceStats.empty();
+        }
+    }
+
+    public static class NamespaceStats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        private final long expirationCount;
+        private final LatencyHistogram.Snapshot loadTime;
+
+        public NamespaceStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                            long evictionCount, long expirationCount, LatencyHistogram.Snapshot loadTime) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+            this.loadTime = loadTime;
+        }
+
+        public static NamespaceStats empty() {
+            return new NamespaceStats(0, 0, 0, 0, 0, 0, new LatencyHistogram().snapshot());
+        }
+
+        public long getHitCount() { return hitCount; }
+        public long getMissCount() { return missCount; }
+        public long getRequestCount() { return hitCount + missCount; }
+        public long getLoadSuccessCount() { return loadSuccessCount; }
+        public long getLoadFailureCount() { return loadFailureCount; }
+        public long getLoadCount() { return loadSuccessCount + loadFailureCount; }
+        public long getEvictionCount() { return evictionCount; }
+        public long getExpirationCount() { return expirationCount; }
+        public LatencyHistogram.Snapshot getLoadTime() { return loadTime; }
+
+        public double getHitRate() {
+            long requests = getRequestCount();
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.1f%% loads=%d failures=%d loadP99=%.2fms "
+                    + "evictions=%d expirations=%d", hitCount, missCount, getHitRate() * 100, getLoadCount(),
+                    loadFailureCount, loadTime.getPercentileMillis(99), evictionCount, expirationCount);
+        }
+    }
+}
@@ -1,105 +1,111 @@
 package cache;
 
 import model.Room;
+import repository.EntityChangeListener;
 import repository.RoomRepository;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 public class CacheableRoomService {
     private final RoomRepository roomRepository;
     private final CacheService cacheService;
+    private final RefreshAheadCache refreshAhead;
+    private final LongKeyedCache<Room> roomCache;
+    private final Map<String, TypeKeys> typeKeys = new ConcurrentHashMap<>();
+    private final Function<String, List<Room>> availableRoomsLoader;
+    // Bumped by every room write, so a miss-path load can tell that its result may predate an invalidation
+    private final AtomicLong writeGeneration = new AtomicLong();
     
     private static final String ROOM_KEY_PREFIX = "room:";
     private static final String AVAILABLE_ROOMS_KEY = "available_rooms";
     private static final String ROOMS_BY_TYPE_PREFIX = "rooms_by_type:";
-    private static final long CACHE_TTL_MINUTES = 15;
+    private static final String ROOM_TYPE_TAG = "room_type:";
+    // Writes to the repository invalidate precisely, so the TTLs only bound how long an unused entry stays
+    private static final long CACHE_TTL_MINUTES = 60;
+    private static final long AVAILABLE_ROOMS_TTL_MINUTES = 15;
+    private static final double AVAILABLE_ROOMS_REFRESH_FRACTION = 0.8;
+    private static final int ROOM_CACHE_MAXIMUM_SIZE = 10_000;
+    private static final int MAX_TYPE_SPELLINGS = 256;
 
     public CacheableRoomService(RoomRepository roomRepository, CacheService cacheService) {
         this.roomRepository = roomRepository;
         this.cacheService = cacheService;
+        this.refreshAhead = new RefreshAheadCache(cacheService);
+        this.roomCache = new LongKeyedCache<>(ROOM_KEY_PREFIX, ROOM_CACHE_MAXIMUM_SIZE);
+        this.availableRoomsLoader = key -> roomRepository.findAvailableRooms();
+        refreshAhead.setPolicy(AVAILABLE_ROOMS_KEY,
+                            RefreshAheadCache.RefreshPolicy.atFraction(AVAILABLE_ROOMS_REFRESH_FRACTION));
+        // Booking services and data loading write to the repository directly, so the cache follows the
+        // repository's change events rather than only the writes made through this service
+        roomRepository.addChangeListener(new RoomChangeListener());
     }
 
     public Optional<Room> findByRoomNumber(int roomNumber) {
-        String cacheKey = ROOM_KEY_PREFIX + roomNumber;
-        
-        // Try cache first
-        Optional<Room> cachedRoom = cacheService.get(cacheKey, Room.class);
-        if (cachedRoom.isPresent()) {
+        return Optional.ofNullable(getRoom(roomNumber));
+    }
+
+    // Like findByRoomNumber but returns null for an unknown room; a cache hit allocates nothing
+    public Room getRoom(int roomNumber) {
+        Room cachedRoom = roomCache.get(roomNumber);
+        if (cachedRoom != null) {
             return cachedRoom;
         }
         
         // If not in cache, get from repository
+        long generation = writeGeneration.get();
+        long loadStart = System.nanoTime();
         Optional<Room> room = roomRepository.findByRoomNumber(roomNumber);
+        roomCache.recordLoad(System.nanoTime() - loadStart, room.isPresent());
         if (room.isPresent()) {
-            cacheService.put(cacheKey, room.get(), CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+            roomCache.put(roomNumber, room.get(), CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+            if (writeGeneration.get() != generation) {
+                // A write landed while loading; its invalidation may have run before this put
+                roomCache.remove(roomNumber);
+            }
         }
         
-        return room;
+        return room.orElse(null);
     }
 
-    @SuppressWarnings("unchecked")
     public List<Room> findAvailableRooms() {
-        // Try cache first
-        @SuppressWarnings("unchecked")
-        Optional<Object> cachedObj = cacheService.get(AVAILABLE_ROOMS_KEY);
-        if (cachedObj.isPresent() && cachedObj.get() instanceof List) {
-            return (List<Room>) cachedObj.get();
-        }
-        
-        // If not in cache, get from repository
-        List<Room> availableRooms = roomRepository.findAvailableRooms();
-        cacheService.put(AVAILABLE_ROOMS_KEY, availableRooms, 5, TimeUnit.MINUTES); // Shorter TTL for availability
-        
-        return availableRooms;
+        // Concurrent misses share one repository scan; the list is reloaded in the background
+        // once it is 80% through its (shorter) TTL so readers don't wait at expiry
+        long generation = writeGeneration.get();
+        List<Room> rooms = refreshAhead.get(AVAILABLE_ROOMS_KEY, availableRoomsLoader, AVAILABLE_ROOMS_TTL_MINUTES,
+                                            TimeUnit.MINUTES);
+        dropIfWrittenSince(AVAILABLE_ROOMS_KEY, generation);
+        return rooms;
     }
 
-    @SuppressWarnings("unchecked")
     public List<Room> findByRoomType(String roomType) {
-        String cacheKey = ROOMS_BY_TYPE_PREFIX + roomType.toLowerCase();
-        
-        // Try cache first
-        @SuppressWarnings("unchecked")
-        Optional<Object> cachedRoomsObj = cacheService.get(cacheKey);
-        if (cachedRoomsObj.isPresent() && cachedRoomsObj.get() instanceof List) {
-            return (List<Room>) cachedRoomsObj.get();
-        }
-        
-        // If not in cache, get from repository
-        List<Room> rooms = roomRepository.findByRoomType(roomType);
-        cacheService.put(cacheKey, rooms, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
-        
+        TypeKeys keys = typeKeysFor(roomType);
+        long generation = writeGeneration.get();
+        List<Room> rooms = cacheService.get(keys.cacheKey, keys.loader, CACHE_TTL_MINUTES, TimeUnit.MINUTES, keys.tags);
+        dropIfWrittenSince(keys.cacheKey, generation);
         return rooms;
     }
 
+    // A list loaded on a miss is stored by the cache after the loader returns, which can be after a
+    // concurrent write already invalidated the key; drop it again so the stale list is not served.
+    // On a hit this costs one volatile read, and at worst turns the next read into a miss.
+    private void dropIfWrittenSince(String key, long generation) {
+        if (writeGeneration.get() != generation) {
+            cacheService.delete(key);
+        }
+    }
+
     public Room save(Room room) {
-        Room savedRoom = roomRepository.save(room);
-        
-        // Update cache
-        String roomKey = ROOM_KEY_PREFIX + room.getRoomNumber();
-        cacheService.put(roomKey, savedRoom, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
-        
-        // Invalidate related caches
-        invalidateRelatedCaches(room);
-        
-        return savedRoom;
+        // The change listener updates the cached room and invalidates the lists it affects
+        return roomRepository.save(room);
     }
 
     public boolean deleteById(Long id) {
-        Optional<Room> roomOpt = roomRepository.findById(id);
-        boolean deleted = roomRepository.deleteById(id);
-        
-        if (deleted && roomOpt.isPresent()) {
-            Room room = roomOpt.get();
-            // Remove from cache
-            String roomKey = ROOM_KEY_PREFIX + room.getRoomNumber();
-            cacheService.delete(roomKey);
-            
-            // Invalidate related caches
-            invalidateRelatedCaches(room);
-        }
-        
-        return deleted;
+        return roomRepository.deleteById(id);
     }
 
     private void invalidateRelatedCaches(Room room) {
@@ -107,35 +113,101 @@ public class CacheableRoomService {
         cacheService.delete(AVAILABLE_ROOMS_KEY);
         
         // Invalidate room type cache
-        String roomTypeKey = ROOMS_BY_TYPE_PREFIX + room.getRoomType().toLowerCase();
-        cacheService.delete(roomTypeKey);
+        cacheService.delete(typeKeysFor(room.getRoomType()).cacheKey);
+    }
+
+    // True if the cached available list disagrees with the room's availability after a write
+    private boolean availableRoomsOutdated(Room room) {
+        Object cached = cacheService.peek(AVAILABLE_ROOMS_KEY);
+        if (!(cached instanceof List)) {
+            return false;
+        }
+        boolean listed = false;
+        for (Object availableRoom : (List<?>) cached) {
+            if (availableRoom == room) {
+                listed = true;
+                break;
+            }
+        }
+        return listed != room.isAvailable();
     }
 
     public void invalidateAllRoomCaches() {
-        // Get all keys and remove room-related ones
         cacheService.delete(AVAILABLE_ROOMS_KEY);
-        
-        // In a real implementation, we'd iterate through all keys
-        // For simplicity, we'll clear common room type caches
-        String[] commonTypes = {"single", "double", "suite", "deluxe", "presidential"};
-        for (String type : commonTypes) {
-            cacheService.delete(ROOMS_BY_TYPE_PREFIX + type);
+        cacheService.invalidatePrefix(ROOMS_BY_TYPE_PREFIX);
+    }
+
+    // Drops the type list and every cached room of the given type, e.g. after a rate change for that type
+    public long invalidateRoomType(String roomType) {
+        cacheService.delete(AVAILABLE_ROOMS_KEY);
+        long removedRooms = roomCache.removeIf(room -> room.getRoomType().equalsIgnoreCase(roomType));
+        return removedRooms + cacheService.invalidateTag(typeKeysFor(roomType).tags[0]);
+    }
+
+    // Keys for a type as callers spell it ("Suite", "SUITE"), built once per spelling so type
+    // lookups don't lower-case and concatenate on every call
+    private TypeKeys typeKeysFor(String roomType) {
+        TypeKeys keys = typeKeys.get(roomType);
+        if (keys != null) {
+            return keys;
+        }
+        keys = new TypeKeys(roomType.toLowerCase(), roomRepository);
+        if (typeKeys.size() < MAX_TYPE_SPELLINGS) {
+            typeKeys.putIfAbsent(roomType, keys);
+        }
+        return keys;
+    }
+
+    public LongKeyedCache<Room> getRoomCache() {
+        return roomCache;
+    }
+
+    private class RoomChangeListener implements EntityChangeListener<Room, Long> {
+        @Override
+        public void onSaved(Long id, Room room, boolean created) {
+            writeGeneration.incrementAndGet();
+            boolean sameInstance = roomCache.peek(room.getRoomNumber()) == room;
+            roomCache.put(room.getRoomNumber(), room, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+
+            if (created || !sameInstance) {
+                // The cached lists may be missing the room or still hold the instance it replaced
+                invalidateRelatedCaches(room);
+            } else if (availableRoomsOutdated(room)) {
+                // Room types never change, so an update can only move a room in or out of the available list
+                cacheService.delete(AVAILABLE_ROOMS_KEY);
+            }
+        }
+
+        @Override
+        public void onDeleted(Long id, Room room) {
+            writeGeneration.incrementAndGet();
+            roomCache.remove(room.getRoomNumber());
+            invalidateRelatedCaches(room);
         }
     }
 
+    public RefreshAheadCache getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void shutdown() {
+        refreshAhead.shutdown();
+    }
+
     public CacheStats getCacheStats() {
         return new CacheStats(
-            cacheService.size(),
+            cacheService.size() + roomCache.size(),
             cacheService.exists(AVAILABLE_ROOMS_KEY),
-            getTypeCacheStatus()
+            getTypeCacheStatus(),
+            cacheService.getStatsSnapshot(),
+            roomCache.getStats()
         );
     }
 
     private int getTypeCacheStatus() {
-        String[] commonTypes = {"single", "double", "suite", "deluxe", "presidential"};
         int cachedTypes = 0;
-        for (String type : commonTypes) {
-            if (cacheService.exists(ROOMS_BY_TYPE_PREFIX + type)) {
+        for (String key : cacheService.keysWithPrefix(ROOMS_BY_TYPE_PREFIX)) {
+            if (cacheService.exists(key)) {
                 cachedTypes++;
             }
         }
@@ -146,15 +218,40 @@ public class CacheableRoomService {
         private final long totalCacheSize;
         private final boolean availableRoomsCached;
         private final int roomTypesCached;
+        private final CacheStatsCounter.Snapshot statistics;
+        private final CacheStatsCounter.NamespaceStats roomStats;
 
-        public CacheStats(long totalCacheSize, boolean availableRoomsCached, int roomTypesCached) {
+        public CacheStats(long totalCacheSize, boolean availableRoomsCached, int roomTypesCached,
+                        CacheStatsCounter.Snapshot statistics, CacheStatsCounter.NamespaceStats roomStats) {
             this.totalCacheSize = totalCacheSize;
             this.availableRoomsCached = availableRoomsCached;
             this.roomTypesCached = roomTypesCached;
+            this.statistics = statistics;
+            this.roomStats = roomStats;
         }
 
         public long getTotalCacheSize() { return totalCacheSize; }
         public boolean isAvailableRoomsCached() { return availableRoomsCached; }
         public int getRoomTypesCached() { return roomTypesCached; }
+        public CacheStatsCounter.Snapshot getStatistics() { return statistics; }
+        public CacheStatsCounter.NamespaceStats getRoomStats() { return roomStats; }
+        public CacheStatsCounter.NamespaceStats getAvailableRoomsStats() {
+            return statistics.forNamespace(AVAILABLE_ROOMS_KEY);
+        }
+        public CacheStatsCounter.NamespaceStats getRoomsByTypeStats() {
+            return statistics.forNamespace(ROOMS_BY_TYPE_PREFIX);
+        }
+    }
+
+    private static class TypeKeys {
+        private final String cacheKey;
+        private final String[] tags;
+        private final Function<String, List<Room>> loader;
+
+        TypeKeys(String type, RoomRepository roomRepository) {
+            this.cacheKey = ROOMS_BY_TYPE_PREFIX + type;
+            this.tags = new String[] {ROOM_TYPE_TAG + type};
+            this.loader = key -> roomRepository.findByRoomType(type);
+        }
     }
 }
\ No newline at end of file
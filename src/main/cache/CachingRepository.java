@@ -0,0 +1,301 @@
+package cache;
+
+import repository.EntityChangeListener;
+import repository.Repository;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through caching for any Repository interface. {@link #wrap} returns a proxy
+ * of the repository's own interface that serves the configured read methods from
+ * a CacheService and passes everything else straight to the repository, so no
+ * repository API has to be duplicated by hand.
+ *
+ * Three kinds of read can be cached:
+ * - findById, keyed and tagged by the id;
+ * - unique finders such as findByEmail, which return at most one entity. These are
+ *   keyed by the argument and tagged with the id of the entity they found;
+ * - other finders and count, whose results may change with any write and share
+ *   one query tag per repository.
+ *
+ * Invalidation follows the repository's change events rather than the writes made
+ * through the proxy, so direct writes are seen too. A change to entity X drops X's
+ * id tag, the unique-finder keys for X's current attribute values (which may be
+ * cached as empty) and the query tag. A load that overlaps a write drops its own
+ * result, so a slow read cannot put stale data back after the invalidation.
+ *
+ * Keys are "name:method:args", so each repository's hits, misses and load times
+ * show up in the cache statistics under its own "name:" namespace.
+ */
+public class CachingRepository<T, ID> {
+    private final String name;
+    private final Function<T, ID> idOf;
+    private final CacheService cacheService;
+    private final Map<String, CachedMethod<T>> cachedMethods;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile Object delegate;
+
+    private CachingRepository(Builder<T, ID> builder, CacheService cacheService) {
+        this.name = builder.name;
+        this.idOf = builder.idOf;
+        this.cacheService = cacheService;
+        this.cachedMethods = new HashMap<>(builder.cachedMethods);
+    }
+
+    public static <T, ID> Builder<T, ID> builder(String name, Function<T, ID> idOf) {
+        return new Builder<>(name, idOf);
+    }
+
+    // Subscribes to the repository's change events and returns the caching proxy; call once per instance
+    public synchronized <R extends Repository<T, ID>> R wrap(Class<R> repositoryType, R repository) {
+        if (delegate != null) {
+            throw new IllegalStateException("Caching repository " + name + " already wraps a repository");
+        }
+        for (String methodName : cachedMethods.keySet()) {
+            if (Arrays.stream(repositoryType.getMethods()).noneMatch(m -> m.getName().equals(methodName))) {
+                throw new IllegalArgumentException(repositoryType.getSimpleName() + " has no method " + methodName);
+            }
+        }
+        repository.addChangeListener(new InvalidatingListener());
+        delegate = repository;
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(),
+                new Class<?>[] {repositoryType}, new CachingHandler()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stats getStats() {
+        CacheStatsCounter.NamespaceStats cacheStats = cacheService.getStatsSnapshot().forNamespace(name + ":");
+        return new Stats(name, cacheStats, invalidations.sum());
+    }
+
+    private Object invokeCached(Method method, Object[] args, CachedMethod<T> cached) throws Throwable {
+        String key = keyFor(method.getName(), args);
+        Object value = cacheService.get(key).orElse(null);
+        if (value == null) {
+            try {
+                value = singleFlight.load(key, () -> load(key, method, args, cached));
+            } catch (DelegateException e) {
+                throw e.getCause();
+            }
+        }
+        // Callers own the lists they get back, so they must not share the cached one
+        return value instanceof List ? new ArrayList<>((List<?>) value) : value;
+    }
+
+    private Object load(String key, Method method, Object[] args, CachedMethod<T> cached) {
+        Object loadedMeanwhile = cacheService.peek(key);
+        if (loadedMeanwhile != null) {
+            return loadedMeanwhile;
+        }
+
+        long generation = writeGeneration.get();
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            cacheService.recordLoad(key, System.nanoTime() - start, false);
+            throw new DelegateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        cacheService.recordLoad(key, System.nanoTime() - start, value != null);
+        if (value == null) {
+            return null;
+        }
+
+        cacheService.put(key, value, cached.timeout, cached.timeUnit, tagsFor(cached, args, value));
+        if (writeGeneration.get() != generation) {
+            // A write landed while loading; its invalidation may have run before this put
+            cacheService.delete(key);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String[] tagsFor(CachedMethod<T> cached, Object[] args, Object value) {
+        switch (cached.kind) {
+            case BY_ID:
+                return new String[] {idTag(args[0])};
+            case UNIQUE:
+                Object entity = value instanceof Optional ? ((Optional<?>) value).orElse(null) : value;
+                return entity == null ? new String[0] : new String[] {idTag(idOf.apply((T) entity))};
+            default:
+                return new String[] {queryTag()};
+        }
+    }
+
+    private void invalidate(ID id, T entity) {
+        writeGeneration.incrementAndGet();
+        cacheService.invalidateTag(idTag(id));
+        for (Map.Entry<String, CachedMethod<T>> entry : cachedMethods.entrySet()) {
+            CachedMethod<T> cached = entry.getValue();
+            if (cached.kind == Kind.UNIQUE) {
+                // Also drops a "not found" cached before the entity had this value
+                cacheService.delete(keyFor(entry.getKey(), new Object[] {cached.attribute.apply(entity)}));
+            }
+        }
+        cacheService.invalidateTag(queryTag());
+        invalidations.increment();
+    }
+
+    private String keyFor(String methodName, Object[] args) {
+        StringBuilder key = new StringBuilder(name).append(':').append(methodName);
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                key.append(i == 0 ? ':' : ',').append(args[i]);
+            }
+        }
+        return key.toString();
+    }
+
+    private String idTag(Object id) {
+        return name + ":id:" + id;
+    }
+
+    private String queryTag() {
+        return name + ":query";
+    }
+
+    private class CachingHandler implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "Caching" + delegate;
+                }
+            }
+
+            CachedMethod<T> cached = cachedMethods.get(method.getName());
+            if (cached != null) {
+                return invokeCached(method, args, cached);
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private class InvalidatingListener implements EntityChangeListener<T, ID> {
+        @Override
+        public void onSaved(ID id, T entity, boolean created) {
+            invalidate(id, entity);
+        }
+
+        @Override
+        public void onDeleted(ID id, T entity) {
+            invalidate(id, entity);
+        }
+    }
+
+    // Carries a repository exception through SingleFlight so every waiting caller gets the original
+    private static class DelegateException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DelegateException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private enum Kind { BY_ID, UNIQUE, QUERY }
+
+    private static class CachedMethod<T> {
+        private final Kind kind;
+        private final Function<T, ?> attribute;
+        private final long timeout;
+        private final TimeUnit timeUnit;
+
+        CachedMethod(Kind kind, Function<T, ?> attribute, long timeout, TimeUnit timeUnit) {
+            this.kind = kind;
+            this.attribute = attribute;
+            this.timeout = timeout;
+            this.timeUnit = timeUnit;
+        }
+    }
+
+    public static class Builder<T, ID> {
+        private final String name;
+        private final Function<T, ID> idOf;
+        private final Map<String, CachedMethod<T>> cachedMethods = new HashMap<>();
+
+        private Builder(String name, Function<T, ID> idOf) {
+            if (name.isEmpty() || name.indexOf(':') >= 0) {
+                throw new IllegalArgumentException("Repository cache name must be non-empty without ':': " + name);
+            }
+            this.name = name;
+            this.idOf = idOf;
+        }
+
+        public Builder<T, ID> cacheFindById(long timeout, TimeUnit timeUnit) {
+            cachedMethods.put("findById", new CachedMethod<>(Kind.BY_ID, null, timeout, timeUnit));
+            return this;
+        }
+
+        // A single-argument finder returning at most one entity, where attribute gives the entity's
+        // value for that argument, e.g. ("findByEmail", User::getEmail)
+        public Builder<T, ID> cacheUniqueFinder(String methodName, Function<T, ?> attribute,
+                                               long timeout, TimeUnit timeUnit) {
+            cachedMethods.put(methodName, new CachedMethod<>(Kind.UNIQUE, attribute, timeout, timeUnit));
+            return this;
+        }
+
+        // Any other read; its results are dropped on every write to the repository
+        public Builder<T, ID> cacheFinder(String methodName, long timeout, TimeUnit timeUnit) {
+            cachedMethods.put(methodName, new CachedMethod<>(Kind.QUERY, null, timeout, timeUnit));
+            return this;
+        }
+
+        public Builder<T, ID> cacheCount(long timeout, TimeUnit timeUnit) {
+            return cacheFinder("count", timeout, timeUnit);
+        }
+
+        public CachingRepository<T, ID> build(CacheService cacheService) {
+            return new CachingRepository<>(this, cacheService);
+        }
+    }
+
+    public static class Stats {
+        private final String repositoryName;
+        private final CacheStatsCounter.NamespaceStats cacheStats;
+        private final long invalidationCount;
+
+        public Stats(String repositoryName, CacheStatsCounter.NamespaceStats cacheStats, long invalidationCount) {
+            this.repositoryName = repositoryName;
+            this.cacheStats = cacheStats;
+            this.invalidationCount = invalidationCount;
+        }
+
+        public String getRepositoryName() { return repositoryName; }
+        public CacheStatsCounter.NamespaceStats getCacheStats() { return cacheStats; }
+        public long getInvalidationCount() { return invalidationCount; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s invalidations=%d", repositoryName, cacheStats, invalidationCount);
+        }
+    }
+}
@@ -2,15 +2,36 @@ package cache;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
+/**
+ * Unbounded cache with per-entry TTLs. Deadlines are kept in a {@link TimerWheel}
+ * that is advanced every second, so expired entries are dropped within about a
+ * second and each tick only touches the entries that are due. Reads compare the
+ * deadline against a coarse clock refreshed every few milliseconds and only read
+ * the system clock when the deadline is close, so a TTL is still honored exactly.
+ */
 public class InMemoryCacheService implements CacheService {
+    private static final long CLOCK_TICK_MS = 5;
+    private static final long CLOCK_SLACK_MS = 1000;
+    private static final long EXPIRATION_TICK_MS = 1000;
+
     private final ConcurrentHashMap<String, CacheEntry> cache;
     private final ScheduledExecutorService scheduler;
     private final long defaultTtl;
+    private final CacheStatsCounter statsCounter;
+    private final TimerWheel<CacheEntry> timerWheel;
+    private final ReentrantLock wheelLock;
+    private final CacheKeyIndex keyIndex;
+    private final SingleFlight singleFlight;
+    private volatile long coarseNow;
 
     public InMemoryCacheService() {
         this(300, TimeUnit.SECONDS); // Default 5 minutes TTL
@@ -20,8 +41,14 @@ public class InMemoryCacheService implements CacheService {
         this.cache = new ConcurrentHashMap<>();
         this.scheduler = Executors.newScheduledThreadPool(2);
         this.defaultTtl = timeUnit.toMillis(defaultTtl);
+        this.statsCounter = new CacheStatsCounter();
+        this.coarseNow = System.currentTimeMillis();
+        this.timerWheel = new TimerWheel<>(coarseNow);
+        this.wheelLock = new ReentrantLock();
+        this.keyIndex = new CacheKeyIndex();
+        this.singleFlight = new SingleFlight();
         
-        // Start cleanup task
+        // Start clock and expiration tasks
         startCleanupTask();
     }
 
@@ -32,18 +59,54 @@ public class InMemoryCacheService implements CacheService {
 
     @Override
     public void put(String key, Object value, long timeout, TimeUnit timeUnit) {
+        put(key, value, timeout, timeUnit, new String[0]);
+    }
+
+    @Override
+    public void put(String key, Object value, long timeout, TimeUnit timeUnit, String... tags) {
+        long expirationTime = System.currentTimeMillis() + timeUnit.toMillis(timeout);
+        CacheEntry entry = new CacheEntry(key, value, expirationTime);
+        keyIndex.add(key, entry, tags);
+        CacheEntry previous = cache.put(key, entry);
+        reschedule(previous, entry);
+    }
+
+    @Override
+    public boolean replace(String key, Object expectedValue, Object newValue, long timeout, TimeUnit timeUnit,
+                        String... tags) {
+        CacheEntry current = cache.get(key);
+        if (current == null || current.getValue() != expectedValue) {
+            return false;
+        }
         long expirationTime = System.currentTimeMillis() + timeUnit.toMillis(timeout);
-        cache.put(key, new CacheEntry(value, expirationTime));
+        CacheEntry entry = new CacheEntry(key, newValue, expirationTime);
+        if (!cache.replace(key, current, entry)) {
+            return false;
+        }
+        keyIndex.add(key, entry, tags);
+        reschedule(current, entry);
+        return true;
     }
 
     @Override
     public Optional<Object> get(String key) {
+        return Optional.ofNullable(getValue(key));
+    }
+
+    // Hit path of the lookups; returns null on a miss so loading gets don't allocate an Optional
+    private Object getValue(String key) {
         CacheEntry entry = cache.get(key);
-        if (entry == null || entry.isExpired()) {
-            cache.remove(key);
-            return Optional.empty();
+        if (entry == null) {
+            statsCounter.recordMiss(key);
+            return null;
+        }
+        if (isExpired(entry)) {
+            removeExpired(entry);
+            statsCounter.recordMiss(key);
+            return null;
         }
-        return Optional.of(entry.getValue());
+        statsCounter.recordHit(key);
+        return entry.getValue();
     }
 
     @Override
@@ -56,11 +119,45 @@ public class InMemoryCacheService implements CacheService {
         return Optional.empty();
     }
 
+    @Override
+    public <T> T get(String key, Function<String, ? extends T> loader) {
+        return get(key, loader, defaultTtl, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Function<String, ? extends T> loader, long timeout, TimeUnit timeUnit,
+                    String... tags) {
+        Object cached = getValue(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        return singleFlight.load(key, () -> {
+            Object loadedMeanwhile = peek(key);
+            if (loadedMeanwhile != null) {
+                return (T) loadedMeanwhile;
+            }
+            long loadStart = System.nanoTime();
+            T value;
+            try {
+                value = loader.apply(key);
+            } catch (RuntimeException | Error e) {
+                statsCounter.recordLoadFailure(key, System.nanoTime() - loadStart);
+                throw e;
+            }
+            recordLoad(key, System.nanoTime() - loadStart, value != null);
+            if (value != null) {
+                put(key, value, timeout, timeUnit, tags);
+            }
+            return value;
+        });
+    }
+
     @Override
     public boolean exists(String key) {
         CacheEntry entry = cache.get(key);
-        if (entry != null && entry.isExpired()) {
-            cache.remove(key);
+        if (entry != null && isExpired(entry)) {
+            removeExpired(entry);
             return false;
         }
         return entry != null;
@@ -68,45 +165,169 @@ public class InMemoryCacheService implements CacheService {
 
     @Override
     public void delete(String key) {
-        cache.remove(key);
+        CacheEntry removed = cache.remove(key);
+        if (removed != null) {
+            reschedule(removed, null);
+        }
+    }
+
+    @Override
+    public long invalidateTag(String tag) {
+        return invalidate(keyIndex.keysWithTag(tag));
+    }
+
+    @Override
+    public long invalidatePrefix(String prefix) {
+        return invalidate(keyIndex.keysWithPrefix(prefix));
+    }
+
+    @Override
+    public List<String> keysWithPrefix(String prefix) {
+        return keyIndex.keysWithPrefix(prefix);
+    }
+
+    @Override
+    public Object peek(String key) {
+        CacheEntry entry = cache.get(key);
+        return entry == null || isExpired(entry) ? null : entry.getValue();
+    }
+
+    private long invalidate(List<String> keys) {
+        long removed = 0;
+        for (String key : keys) {
+            CacheEntry entry = cache.remove(key);
+            if (entry != null) {
+                reschedule(entry, null);
+                removed++;
+            }
+        }
+        return removed;
     }
 
     @Override
     public void clear() {
-        cache.clear();
+        wheelLock.lock();
+        try {
+            cache.clear();
+            keyIndex.clear();
+            timerWheel.clear();
+        } finally {
+            wheelLock.unlock();
+        }
     }
 
+    // Entries that expired within the last expiration tick are still counted
     @Override
     public long size() {
-        // Clean expired entries first
-        cleanupExpiredEntries();
         return cache.size();
     }
 
     @Override
     public void expire(String key, long timeout, TimeUnit timeUnit) {
         CacheEntry entry = cache.get(key);
-        if (entry != null && !entry.isExpired()) {
+        if (entry != null && !isExpired(entry)) {
             long newExpirationTime = System.currentTimeMillis() + timeUnit.toMillis(timeout);
-            cache.put(key, new CacheEntry(entry.getValue(), newExpirationTime));
+            wheelLock.lock();
+            try {
+                if (!entry.retired) {
+                    timerWheel.deschedule(entry);
+                    entry.expirationTime = newExpirationTime;
+                    timerWheel.schedule(entry);
+                }
+            } finally {
+                wheelLock.unlock();
+            }
         }
     }
 
     @Override
     public long getTimeToLive(String key) {
         CacheEntry entry = cache.get(key);
-        if (entry == null || entry.isExpired()) {
+        long now = System.currentTimeMillis();
+        if (entry == null || now > entry.getExpirationTime()) {
             return -1;
         }
-        return entry.getExpirationTime() - System.currentTimeMillis();
+        return entry.getExpirationTime() - now;
+    }
+
+    @Override
+    public void recordLoad(String key, long loadNanos, boolean success) {
+        if (success) {
+            statsCounter.recordLoadSuccess(key, loadNanos);
+        } else {
+            statsCounter.recordLoadFailure(key, loadNanos);
+        }
+    }
+
+    @Override
+    public CacheStatsCounter.Snapshot getStatsSnapshot() {
+        return statsCounter.snapshot();
+    }
+
+    // Coarse clock first; the system clock is only consulted within CLOCK_SLACK_MS of the deadline
+    private boolean isExpired(CacheEntry entry) {
+        if (entry.getExpirationTime() - coarseNow > CLOCK_SLACK_MS) {
+            return false;
+        }
+        return System.currentTimeMillis() > entry.getExpirationTime();
+    }
+
+    private void removeExpired(CacheEntry entry) {
+        if (cache.remove(entry.getKey(), entry)) {
+            reschedule(entry, null);
+            statsCounter.recordExpiration(entry.getKey());
+        }
+    }
+
+    // Takes the replaced entry out of the wheel and schedules its successor. An entry
+    // retired by a concurrent delete before it was scheduled stays out of the wheel.
+    private void reschedule(CacheEntry previous, CacheEntry next) {
+        wheelLock.lock();
+        try {
+            if (previous != null) {
+                previous.retired = true;
+                timerWheel.deschedule(previous);
+                keyIndex.remove(previous.getKey(), previous);
+            }
+            if (next != null && !next.retired) {
+                timerWheel.schedule(next);
+            }
+        } finally {
+            wheelLock.unlock();
+        }
     }
 
     private void startCleanupTask() {
-        scheduler.scheduleAtFixedRate(this::cleanupExpiredEntries, 60, 60, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(() -> coarseNow = System.currentTimeMillis(),
+                CLOCK_TICK_MS, CLOCK_TICK_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::expireEntries,
+                EXPIRATION_TICK_MS, EXPIRATION_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Advances the timer wheel and removes the entries it reports as due
+    void expireEntries() {
+        List<CacheEntry> expired = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            timerWheel.advance(System.currentTimeMillis(), expired::add);
+        } finally {
+            wheelLock.unlock();
+        }
+        for (CacheEntry entry : expired) {
+            if (cache.remove(entry.getKey(), entry)) {
+                reschedule(entry, null);
+                statsCounter.recordExpiration(entry.getKey());
+            }
+        }
     }
 
-    private void cleanupExpiredEntries() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    int getScheduledCount() {
+        wheelLock.lock();
+        try {
+            return timerWheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
     }
 
     public void shutdown() {
@@ -119,37 +340,43 @@ public class InMemoryCacheService implements CacheService {
             scheduler.shutdownNow();
             Thread.currentThread().interrupt();
         }
-        cache.clear();
+        clear();
     }
 
     public Map<String, Object> getStats() {
         Map<String, Object> stats = new ConcurrentHashMap<>();
         stats.put("size", cache.size());
         stats.put("maxSize", Integer.MAX_VALUE);
-        stats.put("hitCount", 0); // Would need to implement hit/miss tracking
-        stats.put("missCount", 0);
+        CacheStatsCounter.NamespaceStats overall = statsCounter.snapshot().getOverall();
+        stats.put("hitCount", overall.getHitCount());
+        stats.put("missCount", overall.getMissCount());
+        stats.put("expirationCount", overall.getExpirationCount());
         return stats;
     }
 
-    private static class CacheEntry {
+    private static class CacheEntry extends TimerWheel.Node {
+        private final String key;
         private final Object value;
-        private final long expirationTime;
+        private volatile long expirationTime; // only changed under wheelLock while descheduled
+        private boolean retired; // guarded by wheelLock
 
-        public CacheEntry(Object value, long expirationTime) {
+        public CacheEntry(String key, Object value, long expirationTime) {
+            this.key = key;
             this.value = value;
             this.expirationTime = expirationTime;
         }
 
+        public String getKey() {
+            return key;
+        }
+
         public Object getValue() {
             return value;
         }
 
+        @Override
         public long getExpirationTime() {
             return expirationTime;
         }
-
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expirationTime;
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,322 @@
+package cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+/**
+ * Cache keyed by a primitive long (int keys widen to it without boxing), for hot
+ * lookups of entities by number or id. Entries live in parallel arrays with open
+ * addressing and linear probing, so a lookup hashes the key itself and does no
+ * String building, boxing or Optional wrapping. Reads are optimistic StampedLock
+ * reads that fall back to a read lock only when they overlap a write, so a hit
+ * allocates nothing and never blocks another reader.
+ *
+ * Each entry has its own expiry; an expired entry reads as absent and is dropped
+ * by {@link #cleanUp}, or earlier if a full cache picks it as a victim. Once the
+ * cache holds maximumSize entries, a put removes the entry closest to expiry among
+ * a few slots near the new key, which is an expired entry whenever the sample has
+ * one; so a put into a full cache costs a handful of probes, never a table scan.
+ */
+public class LongKeyedCache<V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EVICTION_SAMPLE = 8;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final String namespace;
+    private final int maximumSize;
+    private final StampedLock lock = new StampedLock();
+    private final CacheStatsCounter stats = new CacheStatsCounter();
+    private Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+
+    // namespace names the entries in the stats, e.g. "room:"
+    public LongKeyedCache(String namespace, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.namespace = namespace;
+        this.maximumSize = maximumSize;
+    }
+
+    // Returns the cached value, or null if absent or expired
+    public V get(long key) {
+        V value = peek(key);
+        if (value != null) {
+            stats.recordHit(namespace);
+        } else {
+            stats.recordMiss(namespace);
+        }
+        return value;
+    }
+
+    // Current value or null, without recording a hit or miss
+    public V peek(long key) {
+        long stamp = lock.tryOptimisticRead();
+        V value = find(table, key, System.currentTimeMillis());
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, key, System.currentTimeMillis());
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(long key) {
+        long stamp = lock.readLock();
+        try {
+            return find(table, key, System.currentTimeMillis()) != null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // A timeout of zero or less keeps the entry until it is removed or evicted
+    public void put(long key, V value, long timeout, TimeUnit timeUnit) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cached value must not be null");
+        }
+        long now = System.currentTimeMillis();
+        long expiration = timeout <= 0 ? NEVER : now + timeUnit.toMillis(timeout);
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(table, key);
+            if (slot >= 0) {
+                table.values[slot] = value;
+                table.expirations[slot] = expiration;
+                return;
+            }
+            if (size >= maximumSize) {
+                makeRoom(key, now);
+            }
+            if ((size + 1) * 2 > table.keys.length) {
+                resize(table.keys.length * 2);
+            }
+            insert(table, key, value, expiration);
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(table, key);
+            if (slot < 0) {
+                return false;
+            }
+            deleteSlot(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Removes every entry whose value matches, e.g. all cached rooms of one type
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<? super V> filter) {
+        long stamp = lock.writeLock();
+        try {
+            int removed = 0;
+            int slot = 0;
+            while (slot < table.values.length) {
+                Object value = table.values[slot];
+                if (value != null && filter.test((V) value)) {
+                    // Backward shift may move a later entry into this slot, so look at it again
+                    deleteSlot(slot);
+                    removed++;
+                } else {
+                    slot++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(INITIAL_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Drops expired entries and returns how many there were
+    public int cleanUp() {
+        long stamp = lock.writeLock();
+        try {
+            return purgeExpired(System.currentTimeMillis());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Number of stored entries, including expired ones not yet cleaned up
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Records a value loaded by the caller after a miss, so load counts and latency show up in the stats
+    public void recordLoad(long loadNanos, boolean success) {
+        if (success) {
+            stats.recordLoadSuccess(namespace, loadNanos);
+        } else {
+            stats.recordLoadFailure(namespace, loadNanos);
+        }
+    }
+
+    public CacheStatsCounter.NamespaceStats getStats() {
+        return stats.snapshot().forNamespace(CacheStatsCounter.namespaceOf(namespace));
+    }
+
+    @SuppressWarnings("unchecked")
+    private V find(Table current, long key, long now) {
+        long[] keys = current.keys;
+        Object[] values = current.values;
+        int mask = keys.length - 1;
+        int slot = indexFor(key, mask);
+        // Bounded so an optimistic read that races a write cannot spin; validate() discards its result
+        for (int probes = 0; probes < keys.length; probes++) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return current.expirations[slot] > now ? (V) value : null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int slotOf(Table current, long key) {
+        int mask = current.keys.length - 1;
+        int slot = indexFor(key, mask);
+        while (current.values[slot] != null) {
+            if (current.keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static void insert(Table current, long key, Object value, long expiration) {
+        int mask = current.keys.length - 1;
+        int slot = indexFor(key, mask);
+        while (current.values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        current.keys[slot] = key;
+        current.expirations[slot] = expiration;
+        current.values[slot] = value;
+    }
+
+    // Backward-shift deletion: pulls later entries of the probe run into the gap, so lookups
+    // never need tombstones and probe runs stay as short as the load allows
+    private void deleteSlot(int slot) {
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        long[] expirations = table.expirations;
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = indexFor(keys[next], mask);
+            // The entry can move into the gap unless its home slot lies cyclically in (gap, next]
+            boolean homeAfterGap = gap <= next ? (home > gap && home <= next) : (home > gap || home <= next);
+            if (!homeAfterGap) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                expirations[gap] = expirations[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+    }
+
+    private void makeRoom(long key, long now) {
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+        int victim = -1;
+        int slot = indexFor(key, mask);
+        for (int seen = 0, probes = 0; seen < EVICTION_SAMPLE && probes < keys.length; probes++) {
+            if (values[slot] != null) {
+                if (victim < 0 || table.expirations[slot] < table.expirations[victim]) {
+                    victim = slot;
+                }
+                seen++;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (victim >= 0) {
+            boolean expired = table.expirations[victim] <= now;
+            deleteSlot(victim);
+            if (expired) {
+                stats.recordExpiration(namespace);
+            } else {
+                stats.recordEviction(namespace);
+            }
+        }
+    }
+
+    private int purgeExpired(long now) {
+        int purged = 0;
+        int slot = 0;
+        while (slot < table.values.length) {
+            if (table.values[slot] != null && table.expirations[slot] <= now) {
+                deleteSlot(slot);
+                stats.recordExpiration(namespace);
+                purged++;
+            } else {
+                slot++;
+            }
+        }
+        return purged;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table grown = new Table(capacity);
+        for (int slot = 0; slot < old.keys.length; slot++) {
+            if (old.values[slot] != null) {
+                insert(grown, old.keys[slot], old.values[slot], old.expirations[slot]);
+            }
+        }
+        table = grown;
+    }
+
+    private static int indexFor(long key, int mask) {
+        // Fibonacci hashing spreads sequential room numbers and ids across the table
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final long[] expirations;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            expirations = new long[capacity];
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package cache;
+
+import concurrency.LatencyHistogram;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Refresh-ahead on top of a CacheService's loading get. When a read finds an entry
+ * that has used up its policy's fraction of the TTL, the entry is reloaded on a small
+ * bounded executor while readers keep getting the current value, so a hot entry is
+ * replaced before it expires and readers never pay the reload. At most one refresh
+ * per key runs at a time; when the executor queue is full the refresh is skipped and
+ * the entry simply expires as usual. A refreshed value is only stored if the entry
+ * still holds the value the refresh started from, so an invalidation that lands
+ * while the reload runs is not undone by stale data.
+ *
+ * Policies are registered per exact key or per namespace ("rooms_by_type:"); keys
+ * without a policy are only loaded on a miss.
+ */
+public class RefreshAheadCache {
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final CacheService cacheService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, RefreshPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<String, RefreshCounters> countersByPolicy = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public RefreshAheadCache(CacheService cacheService) {
+        this(cacheService, DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public RefreshAheadCache(CacheService cacheService, int threads, int queueCapacity) {
+        this.cacheService = cacheService;
+        AtomicInteger counter = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "cache-refresh-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Registers a policy for an exact key, or for every key of a namespace ending in ':'
+    public void setPolicy(String keyOrNamespace, RefreshPolicy policy) {
+        policies.put(keyOrNamespace, policy);
+        countersByPolicy.computeIfAbsent(keyOrNamespace, k -> new RefreshCounters());
+    }
+
+    public void removePolicy(String keyOrNamespace) {
+        policies.remove(keyOrNamespace);
+    }
+
+    public <T> T get(String key, Function<String, ? extends T> loader, long timeout, TimeUnit timeUnit,
+                    String... tags) {
+        T value = cacheService.get(key, loader, timeout, timeUnit, tags);
+        if (value != null) {
+            String policyKey = policyKeyFor(key);
+            if (policyKey != null) {
+                maybeRefresh(key, value, policyKey, loader, timeout, timeUnit, tags);
+            }
+        }
+        return value;
+    }
+
+    public Map<String, RefreshStats> getStats() {
+        Map<String, RefreshStats> stats = new TreeMap<>();
+        for (Map.Entry<String, RefreshCounters> entry : countersByPolicy.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return stats;
+    }
+
+    public RefreshStats getStats(String keyOrNamespace) {
+        RefreshCounters counters = countersByPolicy.get(keyOrNamespace);
+        return counters != null ? counters.snapshot() : new RefreshCounters().snapshot();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String policyKeyFor(String key) {
+        if (policies.containsKey(key)) {
+            return key;
+        }
+        String namespace = CacheStatsCounter.namespaceOf(key);
+        return policies.containsKey(namespace) ? namespace : null;
+    }
+
+    private <T> void maybeRefresh(String key, T current, String policyKey, Function<String, ? extends T> loader,
+                                long timeout, TimeUnit timeUnit, String[] tags) {
+        RefreshPolicy policy = policies.get(policyKey);
+        long ttlMillis = timeUnit.toMillis(timeout);
+        long remaining = cacheService.getTimeToLive(key);
+        if (policy == null || remaining < 0 || ttlMillis - remaining < policy.getRefreshFraction() * ttlMillis) {
+            return;
+        }
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        RefreshCounters counters = countersByPolicy.computeIfAbsent(policyKey, k -> new RefreshCounters());
+        try {
+            executor.execute(() -> refresh(key, current, loader, timeout, timeUnit, tags, counters));
+            counters.scheduled.increment();
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            counters.rejected.increment();
+        }
+    }
+
+    private <T> void refresh(String key, T current, Function<String, ? extends T> loader, long timeout,
+                            TimeUnit timeUnit, String[] tags, RefreshCounters counters) {
+        long start = System.nanoTime();
+        try {
+            T fresh = loader.apply(key);
+            long elapsed = System.nanoTime() - start;
+            cacheService.recordLoad(key, elapsed, fresh != null);
+            counters.refreshTime.record(elapsed);
+            if (fresh != null && cacheService.replace(key, current, fresh, timeout, timeUnit, tags)) {
+                counters.succeeded.increment();
+            } else {
+                counters.discarded.increment();
+            }
+        } catch (RuntimeException e) {
+            cacheService.recordLoad(key, System.nanoTime() - start, false);
+            counters.failed.increment();
+            System.err.println("Refresh of cache key " + key + " failed: " + e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    public static class RefreshPolicy {
+        private final double refreshFraction;
+
+        private RefreshPolicy(double refreshFraction) {
+            this.refreshFraction = refreshFraction;
+        }
+
+        // Refresh once a read sees the entry past this fraction of its TTL, e.g. 0.8
+        public static RefreshPolicy atFraction(double refreshFraction) {
+            if (refreshFraction <= 0 || refreshFraction >= 1) {
+                throw new IllegalArgumentException("Refresh fraction must be between 0 and 1: " + refreshFraction);
+            }
+            return new RefreshPolicy(refreshFraction);
+        }
+
+        public double getRefreshFraction() {
+            return refreshFraction;
+        }
+    }
+
+    private static class RefreshCounters {
+        private final LongAdder scheduled = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder discarded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LatencyHistogram refreshTime = new LatencyHistogram();
+
+        RefreshStats snapshot() {
+            return new RefreshStats(scheduled.sum(), succeeded.sum(), discarded.sum(), failed.sum(),
+                    rejected.sum(), refreshTime.snapshot());
+        }
+    }
+
+    public static class RefreshStats {
+        private final long scheduledCount;
+        private final long succeededCount;
+        private final long discardedCount;
+        private final long failedCount;
+        private final long rejectedCount;
+        private final LatencyHistogram.Snapshot refreshTime;
+
+        public RefreshStats(long scheduledCount, long succeededCount, long discardedCount, long failedCount,
+                            long rejectedCount, LatencyHistogram.Snapshot refreshTime) {
+            this.scheduledCount = scheduledCount;
+            this.succeededCount = succeededCount;
+            this.discardedCount = discardedCount;
+            this.failedCount = failedCount;
+            this.rejectedCount = rejectedCount;
+            this.refreshTime = refreshTime;
+        }
+
+        public long getScheduledCount() { return scheduledCount; }
+        public long getSucceededCount() { return succeededCount; }
+        public long getDiscardedCount() { return discardedCount; }
+        public long getFailedCount() { return failedCount; }
+        public long getRejectedCount() { return rejectedCount; }
+        public LatencyHistogram.Snapshot getRefreshTime() { return refreshTime; }
+
+        @Override
+        public String toString() {
+            return String.format("scheduled=%d succeeded=%d discarded=%d failed=%d rejected=%d p99=%.2fms",
+                    scheduledCount, succeededCount, discardedCount, failedCount, rejectedCount,
+                    refreshTime.getPercentileMillis(99));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader
+ * and every caller that arrives while it is running waits for and shares its
+ * result. A failed load is rethrown to all of them and nothing is remembered, so
+ * the next caller tries again. A loader that asks for its own key again fails
+ * fast instead of deadlocking.
+ */
+public class SingleFlight {
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> loader) {
+        Flight mine = new Flight(Thread.currentThread());
+        Flight existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            if (existing.owner == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive load of cache key " + key);
+            }
+            return (T) await(existing.result);
+        }
+
+        try {
+            T value = loader.get();
+            mine.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class Flight {
+        private final Thread owner;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
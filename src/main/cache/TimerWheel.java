@@ -0,0 +1,157 @@
+package cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel of expiration deadlines in epoch milliseconds.
+ * Level 0 has 64 buckets of ~1s, level 1 64 buckets of ~65s, level 2 32 buckets
+ * of ~70min, level 3 4 buckets of ~37h, and a final bucket holds anything further
+ * out. Scheduling and descheduling are O(1) list operations. Advancing the clock
+ * only visits the buckets whose time has passed: due nodes are handed to the
+ * caller and the rest cascade into a finer level, so the cost of a tick depends
+ * on what is due rather than on how many nodes are scheduled.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public class TimerWheel<N extends TimerWheel.Node> {
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final int[] SHIFTS = {10, 16, 22, 27, 29};
+    private static final long[] SPANS = {1L << 10, 1L << 16, 1L << 22, 1L << 27, 1L << 29, 1L << 29};
+
+    private final Sentinel[][] wheel;
+    private long nowMillis;
+    private int size;
+
+    public TimerWheel(long nowMillis) {
+        this.nowMillis = nowMillis;
+        this.wheel = new Sentinel[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new Sentinel[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = new Sentinel();
+            }
+        }
+    }
+
+    public void schedule(N node) {
+        deschedule(node);
+        link(findBucket(node.getExpirationTime()), node);
+        size++;
+    }
+
+    public void deschedule(N scheduled) {
+        Node node = scheduled;
+        if (node.next != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+    }
+
+    // Moves the wheel to the given time and passes every node whose deadline is
+    // before it to onExpired, already descheduled
+    @SuppressWarnings("unchecked")
+    public void advance(long currentMillis, Consumer<N> onExpired) {
+        long previous = nowMillis;
+        nowMillis = currentMillis;
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long delta = (currentMillis >>> SHIFTS[level]) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            Sentinel[] buckets = wheel[level];
+            int mask = buckets.length - 1;
+            int steps = (int) Math.min(delta + 1, buckets.length);
+            int start = (int) (previousTicks & mask);
+            for (int i = start; i < start + steps; i++) {
+                Sentinel sentinel = buckets[i & mask];
+                Node node = sentinel.next;
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                while (node != sentinel) {
+                    Node next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    size--;
+                    if (node.getExpirationTime() < currentMillis) {
+                        onExpired.accept((N) node);
+                    } else {
+                        schedule((N) node);
+                    }
+                    node = next;
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (Sentinel[] buckets : wheel) {
+            for (Sentinel sentinel : buckets) {
+                Node node = sentinel.next;
+                while (node != sentinel) {
+                    Node next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    node = next;
+                }
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getNowMillis() {
+        return nowMillis;
+    }
+
+    private Sentinel findBucket(long expirationTime) {
+        // A deadline already passed goes in the current bucket, which the next advance visits first
+        long time = Math.max(expirationTime, nowMillis);
+        long duration = time - nowMillis;
+        int last = wheel.length - 1;
+        for (int level = 0; level < last; level++) {
+            if (duration < SPANS[level + 1]) {
+                long ticks = time >>> SHIFTS[level];
+                return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    private void link(Sentinel sentinel, Node node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    public abstract static class Node {
+        Node prev;
+        Node next;
+
+        public abstract long getExpirationTime();
+
+        public boolean isScheduled() {
+            return next != null;
+        }
+    }
+
+    private static final class Sentinel extends Node {
+        Sentinel() {
+            prev = this;
+            next = this;
+        }
+
+        @Override
+        public long getExpirationTime() {
+            return Long.MAX_VALUE;
+        }
+    }
+}
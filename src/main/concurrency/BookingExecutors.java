@@ -0,0 +1,89 @@
+package concurrency;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used by ConcurrentBookingService for a given ExecutionMode.
+ * Virtual threads are looked up reflectively so the code still compiles and runs
+ * on JDK 17; on older runtimes the virtual mode falls back to platform threads.
+ */
+public final class BookingExecutors {
+    private static final int PLATFORM_POOL_SIZE = 10;
+    private static final int DOWNSTREAM_POOL_SIZE = 32;
+    private static final int DOWNSTREAM_QUEUE_CAPACITY = 256;
+    private static final long DOWNSTREAM_KEEP_ALIVE_SECONDS = 60;
+
+    private BookingExecutors() {
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return findVirtualThreadFactory() != null;
+    }
+
+    // Executor that runs the top-level booking operations
+    public static ExecutorService newRequestExecutor(ExecutionMode mode) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                return virtual;
+            }
+        }
+        return Executors.newFixedThreadPool(PLATFORM_POOL_SIZE, namedThreads("booking-worker"));
+    }
+
+    // Executor for payment, notification and refund sub-tasks. It is separate from the
+    // request executor so a booking waiting on its payment can never starve that payment
+    // of a thread. Per-downstream concurrency is capped by the bulkheads; the platform pool
+    // and its queue are bounded too, so a burst fails fast rather than growing without limit.
+    public static ExecutorService newDownstreamExecutor(ExecutionMode mode) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                return virtual;
+            }
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DOWNSTREAM_POOL_SIZE, DOWNSTREAM_POOL_SIZE,
+                DOWNSTREAM_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(DOWNSTREAM_QUEUE_CAPACITY), namedThreads("booking-downstream"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        Method factory = findVirtualThreadFactory();
+        if (factory == null) {
+            System.err.println("Virtual threads are not supported on this JVM, using platform threads");
+            return null;
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("Could not create virtual thread executor: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Method findVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
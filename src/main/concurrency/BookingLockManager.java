@@ -1,35 +1,106 @@
 package concurrency;
 
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeSet;
 
+/**
+ * Per-room locks implemented as leases. A lease is owned by the acquiring thread, expires
+ * leaseDurationMs after it was granted, and carries a fencing token drawn from a single
+ * increasing counter. A background reaper expires leases whose holder died or stalled, so
+ * the room becomes bookable again; writes made under the lease pass the token to the
+ * repository, which rejects tokens older than one it has already seen for that room.
+ */
 public class BookingLockManager {
+    private static final long DEFAULT_LEASE_DURATION_MS = 30000;
+    private static final long DEFAULT_REAPER_INTERVAL_MS = 1000;
+    private static final long IDLE_LOCK_RETENTION_MINUTES = 5;
+
     private final ConcurrentHashMap<Integer, RoomLock> roomLocks;
     private final long lockTimeoutMs;
+    private final long leaseDurationMs;
+    private final LockContentionMetrics metrics = new LockContentionMetrics();
+    private final AtomicLong fencingTokens = new AtomicLong();
+    private final LongAdder expiredLeases = new LongAdder();
+    private final ScheduledExecutorService reaper;
 
     public BookingLockManager() {
         this(30000); // Default 30 second timeout
     }
 
     public BookingLockManager(long lockTimeoutMs) {
+        this(lockTimeoutMs, DEFAULT_LEASE_DURATION_MS, DEFAULT_REAPER_INTERVAL_MS);
+    }
+
+    public BookingLockManager(long lockTimeoutMs, long leaseDurationMs, long reaperIntervalMs) {
         this.roomLocks = new ConcurrentHashMap<>();
         this.lockTimeoutMs = lockTimeoutMs;
+        this.leaseDurationMs = leaseDurationMs;
+        this.reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-lease-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reaper.scheduleAtFixedRate(this::cleanupExpiredLocks, reaperIntervalMs, reaperIntervalMs, TimeUnit.MILLISECONDS);
     }
 
     public boolean acquireRoomLock(int roomNumber, String operationType) {
-        RoomLock roomLock = roomLocks.computeIfAbsent(roomNumber, k -> new RoomLock());
-        
+        return acquireRoomLock(roomNumber, operationType, lockTimeoutMs);
+    }
+
+    // Takes the lock only if it is free (or already held by the caller) right now, without waiting
+    public boolean tryAcquireRoomLock(int roomNumber, String operationType) {
+        return acquireRoomLock(roomNumber, operationType, 0);
+    }
+
+    // Like acquireRoomLock(roomNumber, operationType) but waits up to timeoutMs instead of the default
+    public boolean acquireRoomLock(int roomNumber, String operationType, long timeoutMs) {
+        long waitStart = System.nanoTime();
+        long deadline = waitStart + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Thread current = Thread.currentThread();
+
         try {
-            boolean acquired = roomLock.getLock().tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS);
-            if (acquired) {
-                roomLock.setLastOperation(operationType);
-                roomLock.setLockTime(LocalDateTime.now());
-                return true;
+            while (true) {
+                RoomLock roomLock = roomLocks.computeIfAbsent(roomNumber, k -> new RoomLock());
+                synchronized (roomLock) {
+                    if (roomLock.retired) {
+                        continue; // Removed by the reaper after lookup; take the fresh entry
+                    }
+                    while (true) {
+                        long now = System.nanoTime();
+                        if (roomLock.owner != null && now - roomLock.expiresAtNanos >= 0) {
+                            expireLease(roomNumber, roomLock, now);
+                        }
+                        if (roomLock.owner == current) {
+                            roomLock.holdCount++;
+                            metrics.recordAcquired(roomNumber, operationType, now - waitStart);
+                            return true;
+                        }
+                        if (roomLock.owner == null) {
+                            grantLease(roomLock, current, operationType, now);
+                            metrics.recordAcquired(roomNumber, operationType, now - waitStart);
+                            return true;
+                        }
+                        long remaining = deadline - now;
+                        if (remaining <= 0) {
+                            metrics.recordTimeout(roomNumber, operationType, now - waitStart);
+                            return false;
+                        }
+                        // Wake up no later than the current lease expiry so a dead holder is noticed
+                        TimeUnit.NANOSECONDS.timedWait(roomLock, Math.min(remaining, roomLock.expiresAtNanos - now));
+                    }
+                }
             }
-            return false;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return false;
@@ -38,14 +109,58 @@ public class BookingLockManager {
 
     public void releaseRoomLock(int roomNumber) {
         RoomLock roomLock = roomLocks.get(roomNumber);
-        if (roomLock != null && roomLock.getLock().isHeldByCurrentThread()) {
-            roomLock.getLock().unlock();
+        if (roomLock == null) {
+            return;
+        }
+        synchronized (roomLock) {
+            // A holder whose lease was reaped and re-granted no longer owns it and must not release it
+            if (roomLock.owner != Thread.currentThread()) {
+                return;
+            }
+            if (--roomLock.holdCount == 0) {
+                metrics.recordReleased(roomNumber, roomLock.lastOperation, System.nanoTime() - roomLock.acquiredAtNanos);
+                roomLock.owner = null;
+                roomLock.notifyAll();
+            }
+        }
+    }
+
+    // Fencing token of the lease the calling thread holds on the room, empty if it holds none
+    // (never acquired, released, or reaped after expiry)
+    public OptionalLong getFencingToken(int roomNumber) {
+        RoomLock roomLock = roomLocks.get(roomNumber);
+        if (roomLock == null) {
+            return OptionalLong.empty();
+        }
+        synchronized (roomLock) {
+            return roomLock.owner == Thread.currentThread() ? OptionalLong.of(roomLock.fencingToken) : OptionalLong.empty();
+        }
+    }
+
+    // Acquires all room locks in ascending room order so two multi-room operations can
+    // never wait on each other in a cycle; on any timeout the locks already taken are released
+    public boolean acquireRoomLocks(Collection<Integer> roomNumbers, String operationType) {
+        List<Integer> acquired = new ArrayList<>();
+        for (int roomNumber : new TreeSet<>(roomNumbers)) {
+            if (!acquireRoomLock(roomNumber, operationType)) {
+                releaseRoomLocks(acquired);
+                return false;
+            }
+            acquired.add(roomNumber);
+        }
+        return true;
+    }
+
+    public void releaseRoomLocks(Collection<Integer> roomNumbers) {
+        List<Integer> ordered = new ArrayList<>(new TreeSet<>(roomNumbers));
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            releaseRoomLock(ordered.get(i));
         }
     }
 
     public boolean isRoomLocked(int roomNumber) {
         RoomLock roomLock = roomLocks.get(roomNumber);
-        return roomLock != null && roomLock.getLock().isLocked();
+        return roomLock != null && roomLock.isLeased(System.nanoTime());
     }
 
     public String getRoomLockInfo(int roomNumber) {
@@ -54,46 +169,104 @@ public class BookingLockManager {
             return "Room " + roomNumber + " is not locked";
         }
         
-        return String.format("Room %d - Locked: %s, Operation: %s, Lock Time: %s", 
-                           roomNumber, 
-                           roomLock.getLock().isLocked(),
-                           roomLock.getLastOperation(),
-                           roomLock.getLockTime());
+        synchronized (roomLock) {
+            return String.format("Room %d - Locked: %s, Operation: %s, Lock Time: %s, Fencing Token: %d", 
+                               roomNumber, 
+                               roomLock.isLeased(System.nanoTime()),
+                               roomLock.lastOperation,
+                               roomLock.lockTime,
+                               roomLock.fencingToken);
+        }
     }
 
     public Map<Integer, String> getAllLockedRooms() {
         Map<Integer, String> lockedRooms = new ConcurrentHashMap<>();
+        long now = System.nanoTime();
         for (Map.Entry<Integer, RoomLock> entry : roomLocks.entrySet()) {
-            if (entry.getValue().getLock().isLocked()) {
-                lockedRooms.put(entry.getKey(), entry.getValue().getLastOperation());
+            RoomLock roomLock = entry.getValue();
+            synchronized (roomLock) {
+                if (roomLock.isLeased(now)) {
+                    lockedRooms.put(entry.getKey(), roomLock.lastOperation);
+                }
             }
         }
         return lockedRooms;
     }
 
+    public LockContentionMetrics.Snapshot getMetricsSnapshot() {
+        return metrics.snapshot();
+    }
+
+    public LockContentionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getLockTimeoutMs() {
+        return lockTimeoutMs;
+    }
+
+    public long getLeaseDurationMs() {
+        return leaseDurationMs;
+    }
+
+    public long getExpiredLeaseCount() {
+        return expiredLeases.sum();
+    }
+
+    // Run by the reaper: expires overdue leases and drops entries for rooms idle for a while
     public void cleanupExpiredLocks() {
-        LocalDateTime expireTime = LocalDateTime.now().minusMinutes(5);
-        roomLocks.entrySet().removeIf(entry -> {
+        long now = System.nanoTime();
+        LocalDateTime idleSince = LocalDateTime.now().minusMinutes(IDLE_LOCK_RETENTION_MINUTES);
+        for (Map.Entry<Integer, RoomLock> entry : roomLocks.entrySet()) {
             RoomLock roomLock = entry.getValue();
-            return !roomLock.getLock().isLocked() && 
-                   roomLock.getLockTime() != null && 
-                   roomLock.getLockTime().isBefore(expireTime);
-        });
+            synchronized (roomLock) {
+                if (roomLock.owner != null && now - roomLock.expiresAtNanos >= 0) {
+                    expireLease(entry.getKey(), roomLock, now);
+                }
+                if (roomLock.owner == null && roomLock.lockTime != null && roomLock.lockTime.isBefore(idleSince)) {
+                    roomLock.retired = true;
+                    roomLocks.remove(entry.getKey(), roomLock);
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        reaper.shutdownNow();
+    }
+
+    private void grantLease(RoomLock roomLock, Thread owner, String operationType, long now) {
+        roomLock.owner = owner;
+        roomLock.holdCount = 1;
+        roomLock.fencingToken = fencingTokens.incrementAndGet();
+        roomLock.expiresAtNanos = now + TimeUnit.MILLISECONDS.toNanos(leaseDurationMs);
+        roomLock.acquiredAtNanos = now;
+        roomLock.lastOperation = operationType;
+        roomLock.lockTime = LocalDateTime.now();
     }
 
+    private void expireLease(int roomNumber, RoomLock roomLock, long now) {
+        metrics.recordLeaseExpired(roomNumber, roomLock.lastOperation, now - roomLock.acquiredAtNanos);
+        // Reported through the lease-expiry metrics per room and operation, not the console
+        expiredLeases.increment();
+        roomLock.owner = null;
+        roomLock.holdCount = 0;
+        roomLock.notifyAll();
+    }
+
+    // Mutable lease state, guarded by the RoomLock's own monitor
     private static class RoomLock {
-        private final ReentrantLock lock;
+        private Thread owner;
+        private int holdCount;
+        private long fencingToken;
+        private long expiresAtNanos;
+        private long acquiredAtNanos;
         private String lastOperation;
         private LocalDateTime lockTime;
+        private boolean retired;
 
-        public RoomLock() {
-            this.lock = new ReentrantLock();
+        synchronized boolean isLeased(long now) {
+            return owner != null && now - expiresAtNanos < 0;
         }
-
-        public ReentrantLock getLock() { return lock; }
-        public String getLastOperation() { return lastOperation; }
-        public void setLastOperation(String lastOperation) { this.lastOperation = lastOperation; }
-        public LocalDateTime getLockTime() { return lockTime; }
-        public void setLockTime(LocalDateTime lockTime) { this.lockTime = lockTime; }
     }
-}
\ No newline at end of file
+}
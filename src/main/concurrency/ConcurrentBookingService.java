@@ -1,16 +1,25 @@
 package concurrency;
 
 import model.*;
+import patterns.observer.BookingEventBus;
+import patterns.observer.BookingObserver;
 import repository.BookingRepository;
+import repository.OptimisticLockException;
+import repository.OptimisticRetry;
 import repository.RoomRepository;
+import repository.StaleFencingTokenException;
 import services.NotificationService;
 import services.PaymentService;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class ConcurrentBookingService {
     private final BookingRepository bookingRepository;
@@ -18,18 +27,84 @@ public class ConcurrentBookingService {
     private final NotificationService notificationService;
     private final PaymentService paymentService;
     private final BookingLockManager lockManager;
+    private final ReservationHoldManager holdManager;
+    private final ExecutionMode executionMode;
+    private final long holdTtlMs;
     private final ExecutorService executorService;
+    private final ExecutorService downstreamExecutor;
+    private final DownstreamBulkhead paymentBulkhead;
+    private final DownstreamBulkhead notificationBulkhead;
+    private final DownstreamBulkhead refundBulkhead;
+    private final BookingEventBus eventBus = new BookingEventBus();
+    private final LongAdder failedRefunds = new LongAdder();
+
+    private static final long PAYMENT_TIMEOUT_SECONDS = 30;
+    private static final long HOLD_TTL_MS = 45000; // Outlives the payment timeout so a live payment keeps its hold
+    private static final long HOLD_SWEEP_INTERVAL_MS = 5000;
+    private static final int MAX_CONCURRENT_PAYMENTS = 50;
+    private static final int MAX_CONCURRENT_NOTIFICATIONS = 20;
+    private static final int MAX_CONCURRENT_REFUNDS = 10;
+    private static final long BULKHEAD_ACQUIRE_TIMEOUT_MS = 10000;
 
     public ConcurrentBookingService(BookingRepository bookingRepository,
                                   RoomRepository roomRepository,
                                   NotificationService notificationService,
                                   PaymentService paymentService) {
+        this(bookingRepository, roomRepository, notificationService, paymentService, ExecutionMode.PLATFORM_POOL);
+    }
+
+    public ConcurrentBookingService(BookingRepository bookingRepository,
+                                  RoomRepository roomRepository,
+                                  NotificationService notificationService,
+                                  PaymentService paymentService,
+                                  ExecutionMode executionMode) {
+        this(bookingRepository, roomRepository, notificationService, paymentService, executionMode,
+             HOLD_TTL_MS, HOLD_SWEEP_INTERVAL_MS);
+    }
+
+    // Hold timing is configurable so tests can expire and sweep holds without waiting minutes
+    ConcurrentBookingService(BookingRepository bookingRepository,
+                             RoomRepository roomRepository,
+                             NotificationService notificationService,
+                             PaymentService paymentService,
+                             ExecutionMode executionMode,
+                             long holdTtlMs,
+                             long holdSweepIntervalMs) {
         this.bookingRepository = bookingRepository;
         this.roomRepository = roomRepository;
         this.notificationService = notificationService;
         this.paymentService = paymentService;
         this.lockManager = new BookingLockManager();
-        this.executorService = Executors.newFixedThreadPool(10);
+        this.holdManager = new ReservationHoldManager(holdTtlMs, holdSweepIntervalMs, this::reclaimExpiredHold);
+        this.executionMode = executionMode;
+        this.holdTtlMs = holdTtlMs;
+        this.executorService = BookingExecutors.newRequestExecutor(executionMode);
+        this.downstreamExecutor = BookingExecutors.newDownstreamExecutor(executionMode);
+        this.paymentBulkhead = new DownstreamBulkhead("payment", MAX_CONCURRENT_PAYMENTS, BULKHEAD_ACQUIRE_TIMEOUT_MS);
+        this.notificationBulkhead = new DownstreamBulkhead("notification", MAX_CONCURRENT_NOTIFICATIONS, BULKHEAD_ACQUIRE_TIMEOUT_MS);
+        this.refundBulkhead = new DownstreamBulkhead("refund", MAX_CONCURRENT_REFUNDS, BULKHEAD_ACQUIRE_TIMEOUT_MS);
+    }
+
+    // Observers run on the event bus's consumer threads, never on the booking path
+    public void addObserver(BookingObserver observer) {
+        eventBus.subscribe(observer);
+    }
+
+    // For observers that keep state and must see every event
+    public void addLosslessObserver(BookingObserver observer) {
+        eventBus.subscribeUnbounded(observer);
+    }
+
+    public void removeObserver(BookingObserver observer) {
+        eventBus.unsubscribe(observer);
+    }
+
+    public BookingEventBus getEventBus() {
+        return eventBus;
+    }
+
+    private void notifyObservers(Booking booking, String eventType) {
+        eventBus.publish(booking, eventType);
     }
 
     public CompletableFuture<BookingResult> createBookingAsync(Long userId, int roomNumber, 
@@ -41,8 +116,36 @@ public class ConcurrentBookingService {
 
     public BookingResult createBooking(Long userId, int roomNumber, 
                                      LocalDate checkIn, LocalDate checkOut) {
-        // Acquire lock for the room
-        if (!lockManager.acquireRoomLock(roomNumber, "BOOKING_CREATE")) {
+        // Phase 1: place a hold under the room lock, then release the lock before payment
+        BookingResult held = holdRoom(userId, roomNumber, checkIn, checkOut, holdTtlMs);
+        if (!held.isSuccessful()) {
+            return held;
+        }
+        Booking savedBooking = held.getBooking();
+        return payAndConfirm(savedBooking, holdManager.getHold(savedBooking.getId()).orElse(null));
+    }
+
+    // Holds the room for a user without charging, e.g. for a waitlist offer; the pending booking is
+    // reclaimed when holdTtlMs passes unless confirmHeldBooking is called first
+    public BookingResult placeOfferHold(Long userId, int roomNumber, LocalDate checkIn, LocalDate checkOut, long holdTtlMs) {
+        return holdRoom(userId, roomNumber, checkIn, checkOut, holdTtlMs);
+    }
+
+    // Charges and confirms a booking previously held with placeOfferHold
+    public BookingResult confirmHeldBooking(Long bookingId, Long userId) {
+        Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
+        if (bookingOpt.isEmpty() || !bookingOpt.get().getUserId().equals(userId)) {
+            return BookingResult.failure("Booking not found.");
+        }
+        Optional<ReservationHold> hold = holdManager.getHold(bookingId);
+        if (hold.isEmpty() || bookingOpt.get().getBookingStatus() != BookingStatus.PENDING) {
+            return BookingResult.failure("The hold on this room has expired.");
+        }
+        return payAndConfirm(bookingOpt.get(), hold.get());
+    }
+
+    private BookingResult holdRoom(Long userId, int roomNumber, LocalDate checkIn, LocalDate checkOut, long holdTtlMs) {
+        if (!lockManager.acquireRoomLock(roomNumber, "BOOKING_HOLD")) {
             return BookingResult.failure("Room is currently being booked by another user. Please try again.");
         }
 
@@ -61,59 +164,239 @@ public class ConcurrentBookingService {
             Room room = roomOpt.get();
             double totalPrice = calculateTotalPrice(room, checkIn, checkOut);
 
-            // Create booking
+            // A pending booking occupies the room-nights, so it acts as the inventory hold
             Booking booking = new Booking(userId, roomNumber, checkIn, checkOut, totalPrice);
-            booking.setBookingStatus(BookingStatus.PENDING);
-
-            // Save booking
-            Booking savedBooking = bookingRepository.save(booking);
-
-            // Process payment asynchronously
-            CompletableFuture<PaymentResult> paymentFuture = CompletableFuture.supplyAsync(() -> {
-                return paymentService.processPayment(userId, totalPrice, 
-                    "Booking for Room " + roomNumber);
-            }, executorService);
-
-            try {
-                PaymentResult paymentResult = paymentFuture.get(30, TimeUnit.SECONDS);
-                
-                if (paymentResult.isSuccessful()) {
-                    // Update booking with payment info
-                    savedBooking.setPaymentStatus(PaymentStatus.COMPLETED);
-                    savedBooking.setPaymentId(paymentResult.getPaymentId());
-                    savedBooking.setBookingStatus(BookingStatus.CONFIRMED);
-                    bookingRepository.save(savedBooking);
-
-                    // Update room availability
-                    room.setAvailable(false);
-                    roomRepository.save(room);
-
-                    // Send confirmation notification asynchronously
-                    CompletableFuture.runAsync(() -> {
-                        notificationService.sendBookingConfirmation(savedBooking);
-                    }, executorService);
-
-                    return BookingResult.success(savedBooking, "Booking confirmed successfully.");
-                } else {
-                    // Payment failed, cleanup booking
-                    savedBooking.setPaymentStatus(PaymentStatus.FAILED);
-                    savedBooking.setBookingStatus(BookingStatus.CANCELLED);
-                    bookingRepository.save(savedBooking);
-                    
-                    return BookingResult.failure("Payment failed: " + paymentResult.getMessage());
-                }
-            } catch (Exception e) {
-                // Payment timeout or error
-                savedBooking.setPaymentStatus(PaymentStatus.FAILED);
-                savedBooking.setBookingStatus(BookingStatus.CANCELLED);
-                bookingRepository.save(savedBooking);
-                
-                return BookingResult.failure("Payment processing failed. Please try again.");
+            Booking savedBooking = fencedSave(booking, b -> b.setBookingStatus(BookingStatus.PENDING));
+            holdManager.placeHold(savedBooking, holdTtlMs);
+            notifyObservers(savedBooking, "BOOKING_HELD");
+            return BookingResult.success(savedBooking, "Room held.");
+        } catch (StaleFencingTokenException e) {
+            return BookingResult.failure("Room lock expired while booking. Please try again.");
+        } finally {
+            lockManager.releaseRoomLock(roomNumber);
+        }
+    }
+
+    private BookingResult payAndConfirm(Booking savedBooking, ReservationHold hold) {
+        Long userId = savedBooking.getUserId();
+        int roomNumber = savedBooking.getRoomNumber();
+        if (hold == null) {
+            cancelUnderRoomLock(null, savedBooking);
+            return BookingResult.failure("Reservation hold expired before payment started.");
+        }
+
+        // Phase 2: run payment without holding the room lock
+        PaymentResult paymentResult = chargePayment(userId, savedBooking.getTotalPrice(), 
+            "Booking for Room " + roomNumber);
+        if (paymentResult == null) {
+            cancelUnderRoomLock(hold, savedBooking);
+            return BookingResult.failure("Payment processing failed. Please try again.");
+        }
+
+        if (!paymentResult.isSuccessful()) {
+            // Payment failed, release the hold
+            cancelUnderRoomLock(hold, savedBooking);
+            return BookingResult.failure("Payment failed: " + paymentResult.getMessage());
+        }
+
+        // Phase 3: confirm the hold under the room lock. The paid hold keeps the room ours until it
+        // expires, so a busy room is waited out up to the hold's deadline rather than the lock timeout
+        long holdRemainingMs = hold.getExpiresAtMillis() - System.currentTimeMillis();
+        if (!lockManager.acquireRoomLock(roomNumber, "BOOKING_CONFIRM",
+                                         Math.max(holdRemainingMs, lockManager.getLockTimeoutMs()))) {
+            cancelUnderRoomLock(hold, savedBooking);
+            refundAsync(paymentResult.getPaymentId(), savedBooking.getTotalPrice());
+            return BookingResult.failure("Room is currently being booked by another user. Please try again.");
+        }
+
+        try {
+            if (!holdManager.confirmHold(hold) || savedBooking.getBookingStatus() != BookingStatus.PENDING) {
+                // Hold expired or was cancelled while payment was running
+                cancelPendingBooking(savedBooking);
+                refundAsync(paymentResult.getPaymentId(), savedBooking.getTotalPrice());
+                return BookingResult.failure("Reservation hold expired before payment completed. Your payment will be refunded.");
             }
 
+            // Update booking with payment info
+            fencedSave(savedBooking, b -> confirmPaidBooking(b, paymentResult.getPaymentId()));
+            notifyObservers(savedBooking, "BOOKING_CREATED");
+
+            // Update room availability
+            updateRoomAvailability(roomNumber, false);
+        } catch (StaleFencingTokenException e) {
+            // Our lease was reaped while confirming; another holder may own the room now
+            cancelPendingBooking(savedBooking);
+            refundAsync(paymentResult.getPaymentId(), savedBooking.getTotalPrice());
+            return BookingResult.failure("Room lock expired before the booking was confirmed. Your payment will be refunded.");
         } finally {
             lockManager.releaseRoomLock(roomNumber);
         }
+
+        // Send confirmation notification asynchronously
+        notifyAsync(() -> notificationService.sendBookingConfirmation(savedBooking));
+
+        return BookingResult.success(savedBooking, "Booking confirmed successfully.");
+    }
+
+    public CompletableFuture<GroupBookingResult> createGroupBookingAsync(Long userId, List<RoomStayRequest> stays) {
+        return CompletableFuture.supplyAsync(() -> {
+            return createGroupBooking(userId, stays);
+        }, executorService);
+    }
+
+    // Books every requested room or none: all room locks are taken in room order, every stay is
+    // checked, one aggregated payment is charged, and then all holds are confirmed together
+    public GroupBookingResult createGroupBooking(Long userId, List<RoomStayRequest> stays) {
+        if (stays == null || stays.isEmpty()) {
+            return GroupBookingResult.failure("No rooms requested.");
+        }
+        Set<Integer> roomNumbers = new TreeSet<>();
+        for (RoomStayRequest stay : stays) {
+            if (!stay.getCheckOut().isAfter(stay.getCheckIn())) {
+                return GroupBookingResult.failure("Invalid dates for Room " + stay.getRoomNumber() + ".");
+            }
+            roomNumbers.add(stay.getRoomNumber());
+        }
+
+        // Phase 1: validate and hold every stay under all room locks
+        if (!lockManager.acquireRoomLocks(roomNumbers, "GROUP_BOOKING_HOLD")) {
+            return GroupBookingResult.failure("Some rooms are currently being booked by another user. Please try again.");
+        }
+
+        Map<Integer, Room> rooms = new HashMap<>();
+        List<Booking> pendingBookings = new ArrayList<>();
+        List<ReservationHold> holds = new ArrayList<>();
+        double totalPrice = 0;
+        try {
+            for (int roomNumber : roomNumbers) {
+                Optional<Room> roomOpt = roomRepository.findByRoomNumber(roomNumber);
+                if (roomOpt.isEmpty()) {
+                    return GroupBookingResult.failure("Room " + roomNumber + " not found.");
+                }
+                rooms.put(roomNumber, roomOpt.get());
+            }
+
+            String conflict = findGroupConflict(stays);
+            if (conflict != null) {
+                return GroupBookingResult.failure(conflict);
+            }
+
+            for (RoomStayRequest stay : stays) {
+                double price = calculateTotalPrice(rooms.get(stay.getRoomNumber()), stay.getCheckIn(), stay.getCheckOut());
+                Booking booking = new Booking(userId, stay.getRoomNumber(), stay.getCheckIn(), stay.getCheckOut(), price);
+                Booking savedBooking = fencedSave(booking, b -> b.setBookingStatus(BookingStatus.PENDING));
+                pendingBookings.add(savedBooking);
+                holds.add(holdManager.placeHold(savedBooking));
+                notifyObservers(savedBooking, "BOOKING_HELD");
+                totalPrice += price;
+            }
+        } catch (StaleFencingTokenException e) {
+            releaseGroupHolds(roomNumbers, holds, pendingBookings);
+            return GroupBookingResult.failure("Room lock expired while booking. Please try again.");
+        } finally {
+            lockManager.releaseRoomLocks(roomNumbers);
+        }
+
+        // Phase 2: one aggregated payment for the whole group, outside the locks
+        final double groupTotal = totalPrice;
+        PaymentResult paymentResult = chargePayment(userId, groupTotal, 
+            "Group booking for " + stays.size() + " rooms");
+        if (paymentResult == null) {
+            releaseGroupHolds(roomNumbers, holds, pendingBookings);
+            return GroupBookingResult.failure("Payment processing failed. Please try again.");
+        }
+
+        if (!paymentResult.isSuccessful()) {
+            releaseGroupHolds(roomNumbers, holds, pendingBookings);
+            return GroupBookingResult.failure("Payment failed: " + paymentResult.getMessage());
+        }
+
+        // Phase 3: confirm all holds or roll the whole group back
+        if (!lockManager.acquireRoomLocks(roomNumbers, "GROUP_BOOKING_CONFIRM")) {
+            releaseGroupHolds(roomNumbers, holds, pendingBookings);
+            refundAsync(paymentResult.getPaymentId(), groupTotal);
+            return GroupBookingResult.failure("Some rooms are currently being booked by another user. Please try again.");
+        }
+
+        try {
+            boolean allHeld = true;
+            for (int i = 0; i < holds.size(); i++) {
+                boolean confirmed = holdManager.confirmHold(holds.get(i));
+                allHeld &= confirmed && pendingBookings.get(i).getBookingStatus() == BookingStatus.PENDING;
+            }
+            if (!allHeld) {
+                releaseGroupHolds(roomNumbers, holds, pendingBookings);
+                refundAsync(paymentResult.getPaymentId(), groupTotal);
+                return GroupBookingResult.failure("Reservation holds expired before payment completed. Your payment will be refunded.");
+            }
+
+            for (Booking booking : pendingBookings) {
+                fencedSave(booking, b -> confirmPaidBooking(b, paymentResult.getPaymentId()));
+            }
+            for (Booking booking : pendingBookings) {
+                notifyObservers(booking, "BOOKING_CREATED");
+            }
+            for (int roomNumber : rooms.keySet()) {
+                updateRoomAvailability(roomNumber, false);
+            }
+        } catch (StaleFencingTokenException e) {
+            // A lease was reaped mid-confirmation: undo the bookings already confirmed as well. The
+            // lost lease's token is no longer valid, so the rollback is a versioned write instead
+            for (Booking booking : pendingBookings) {
+                transitionStatus(booking.getId(), status -> status == BookingStatus.CONFIRMED, BookingStatus.CANCELLED);
+            }
+            releaseGroupHolds(roomNumbers, holds, pendingBookings);
+            refundAsync(paymentResult.getPaymentId(), groupTotal);
+            return GroupBookingResult.failure("Room lock expired before the group booking was confirmed. Your payment will be refunded.");
+        } finally {
+            lockManager.releaseRoomLocks(roomNumbers);
+        }
+
+        for (Booking booking : pendingBookings) {
+            notifyAsync(() -> notificationService.sendBookingConfirmation(booking));
+        }
+
+        return GroupBookingResult.success(pendingBookings, groupTotal, 
+            "Group booking confirmed for " + pendingBookings.size() + " rooms.");
+    }
+
+    private String findGroupConflict(List<RoomStayRequest> stays) {
+        Map<Integer, List<RoomStayRequest>> staysByRoom = new HashMap<>();
+        for (RoomStayRequest stay : stays) {
+            if (!isRoomAvailableForPeriod(stay.getRoomNumber(), stay.getCheckIn(), stay.getCheckOut())) {
+                return "Room " + stay.getRoomNumber() + " is no longer available for the selected dates.";
+            }
+            staysByRoom.computeIfAbsent(stay.getRoomNumber(), k -> new ArrayList<>()).add(stay);
+        }
+
+        // Stays on the same room within the group must not overlap each other
+        for (List<RoomStayRequest> roomStays : staysByRoom.values()) {
+            roomStays.sort(Comparator.comparing(RoomStayRequest::getCheckIn));
+            for (int i = 1; i < roomStays.size(); i++) {
+                if (roomStays.get(i).getCheckIn().isBefore(roomStays.get(i - 1).getCheckOut())) {
+                    return "Room " + roomStays.get(i).getRoomNumber() + " is requested twice for overlapping dates.";
+                }
+            }
+        }
+        return null;
+    }
+
+    // Like cancelUnderRoomLock for the whole group; the locks are reentrant, so this also works
+    // from the paths that still hold them
+    private void releaseGroupHolds(Set<Integer> roomNumbers, List<ReservationHold> holds, List<Booking> pendingBookings) {
+        if (!lockManager.acquireRoomLocks(roomNumbers, "HOLD_RELEASE")) {
+            return;
+        }
+        try {
+            for (ReservationHold hold : holds) {
+                holdManager.releaseHold(hold);
+            }
+            for (Booking booking : pendingBookings) {
+                cancelPendingBooking(booking);
+            }
+        } finally {
+            lockManager.releaseRoomLocks(roomNumbers);
+        }
     }
 
     public CompletableFuture<Boolean> cancelBookingAsync(Long bookingId, Long userId) {
@@ -143,29 +426,24 @@ public class ConcurrentBookingService {
         }
 
         try {
-            // Update booking status
-            booking.setBookingStatus(BookingStatus.CANCELLED);
-            bookingRepository.save(booking);
+            holdManager.releaseHold(bookingId);
 
-            // Make room available again
-            Optional<Room> roomOpt = roomRepository.findByRoomNumber(booking.getRoomNumber());
-            if (roomOpt.isPresent()) {
-                Room room = roomOpt.get();
-                room.setAvailable(true);
-                roomRepository.save(room);
+            // Versioned transition so a concurrent lock-free check-in cannot be overwritten
+            if (!transitionStatus(bookingId, BookingStatus::isCancellable, BookingStatus.CANCELLED)) {
+                return false;
             }
+            notifyObservers(booking, "BOOKING_CANCELLED");
+
+            // Make room available again
+            updateRoomAvailability(booking.getRoomNumber(), true);
 
             // Process refund asynchronously if payment was completed
             if (booking.getPaymentStatus() == PaymentStatus.COMPLETED) {
-                CompletableFuture.runAsync(() -> {
-                    paymentService.processRefund(booking.getPaymentId(), booking.getTotalPrice());
-                }, executorService);
+                refundAsync(booking.getPaymentId(), booking.getTotalPrice());
             }
 
             // Send cancellation notification asynchronously
-            CompletableFuture.runAsync(() -> {
-                notificationService.sendCancellationConfirmation(booking);
-            }, executorService);
+            notifyAsync(() -> notificationService.sendCancellationConfirmation(booking));
 
             return true;
 
@@ -174,64 +452,181 @@ public class ConcurrentBookingService {
         }
     }
 
+    // Check-in and check-out take no room lock: the versioned save rejects the transition if the
+    // booking changed after it was read, and the retry re-reads it
     public CompletableFuture<Boolean> checkInAsync(Long bookingId) {
         return CompletableFuture.supplyAsync(() -> {
-            Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
-            if (bookingOpt.isEmpty()) {
-                return false;
-            }
+            return transitionStatus(bookingId, status -> status == BookingStatus.CONFIRMED, BookingStatus.CHECKED_IN)
+                && notifyTransition(bookingId, "BOOKING_CHECKED_IN");
+        }, executorService);
+    }
 
-            Booking booking = bookingOpt.get();
-            if (booking.getBookingStatus() != BookingStatus.CONFIRMED) {
+    public CompletableFuture<Boolean> checkOutAsync(Long bookingId) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!transitionStatus(bookingId, status -> status == BookingStatus.CHECKED_IN, BookingStatus.CHECKED_OUT)) {
                 return false;
             }
+            notifyTransition(bookingId, "BOOKING_CHECKED_OUT");
 
-            booking.setBookingStatus(BookingStatus.CHECKED_IN);
-            bookingRepository.save(booking);
+            // Make room available for new bookings
+            bookingRepository.findById(bookingId)
+                .ifPresent(booking -> updateRoomAvailability(booking.getRoomNumber(), true));
             return true;
         }, executorService);
     }
 
-    public CompletableFuture<Boolean> checkOutAsync(Long bookingId) {
-        return CompletableFuture.supplyAsync(() -> {
-            Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
-            if (bookingOpt.isEmpty()) {
-                return false;
-            }
+    private boolean transitionStatus(Long bookingId, Predicate<BookingStatus> allowedFrom, BookingStatus target) {
+        return transitionBooking(bookingId, allowedFrom, b -> b.setBookingStatus(target));
+    }
 
-            Booking booking = bookingOpt.get();
-            if (booking.getBookingStatus() != BookingStatus.CHECKED_IN) {
-                return false;
+    private boolean transitionBooking(Long bookingId, Predicate<BookingStatus> allowedFrom, Consumer<Booking> change) {
+        try {
+            return OptimisticRetry.withRetry(() -> {
+                Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
+                if (bookingOpt.isEmpty()) {
+                    return false;
+                }
+
+                Booking booking = bookingOpt.get();
+                long version = booking.getVersion();
+                if (!allowedFrom.test(booking.getBookingStatus())) {
+                    return false;
+                }
+
+                bookingRepository.compareAndSave(bookingId, version, change);
+                return true;
+            });
+        } catch (OptimisticLockException e) {
+            return false;
+        }
+    }
+
+    // Saves under the calling thread's room lease so the write is rejected once the lease was lost
+    private Booking fencedSave(Booking booking, Consumer<Booking> change) {
+        long token = lockManager.getFencingToken(booking.getRoomNumber())
+            .orElseThrow(() -> new StaleFencingTokenException(booking.getRoomNumber()));
+        return bookingRepository.saveFenced(booking, token, change);
+    }
+
+    private void confirmPaidBooking(Booking booking, String paymentId) {
+        booking.setPaymentStatus(PaymentStatus.COMPLETED);
+        booking.setPaymentId(paymentId);
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+    }
+
+    private boolean notifyTransition(Long bookingId, String eventType) {
+        bookingRepository.findById(bookingId).ifPresent(booking -> notifyObservers(booking, eventType));
+        return true;
+    }
+
+    private void updateRoomAvailability(int roomNumber, boolean available) {
+        roomRepository.findIdByRoomNumber(roomNumber).ifPresent(roomId -> {
+            OptimisticRetry.withRetry(() -> roomRepository.findById(roomId)
+                .map(room -> roomRepository.compareAndSave(roomId, room.getVersion(), r -> r.setAvailable(available)))
+                .orElse(null));
+        });
+    }
+
+    // Runs on the hold manager's single sweeper thread, so it must not wait for a busy room: a
+    // false return puts the hold back and the next sweep tries again
+    private boolean reclaimExpiredHold(ReservationHold hold) {
+        if (!lockManager.tryAcquireRoomLock(hold.getRoomNumber(), "HOLD_EXPIRY")) {
+            return false;
+        }
+        try {
+            bookingRepository.findById(hold.getBookingId()).ifPresent(this::cancelPendingBooking);
+            return true;
+        } finally {
+            lockManager.releaseRoomLock(hold.getRoomNumber());
+        }
+    }
+
+    // Releases the hold and cancels the pending booking under the room lock, so it cannot race the
+    // sweeper or a confirm. If the room stays busy the hold is left in place for the sweeper to reclaim.
+    private void cancelUnderRoomLock(ReservationHold hold, Booking booking) {
+        int roomNumber = booking.getRoomNumber();
+        if (!lockManager.acquireRoomLock(roomNumber, "HOLD_RELEASE")) {
+            return;
+        }
+        try {
+            if (hold == null || holdManager.releaseHold(hold)) {
+                cancelPendingBooking(booking);
             }
+        } finally {
+            lockManager.releaseRoomLock(roomNumber);
+        }
+    }
 
-            if (!lockManager.acquireRoomLock(booking.getRoomNumber(), "CHECK_OUT")) {
-                return false;
+    // Versioned, so a cancel can never overwrite a confirmation written after the booking was read
+    private void cancelPendingBooking(Booking booking) {
+        boolean cancelled = transitionBooking(booking.getId(), status -> status == BookingStatus.PENDING, b -> {
+            b.setPaymentStatus(PaymentStatus.FAILED);
+            b.setBookingStatus(BookingStatus.CANCELLED);
+        });
+        if (cancelled) {
+            bookingRepository.findById(booking.getId()).ifPresent(b -> notifyObservers(b, "BOOKING_EXPIRED"));
+        }
+    }
+
+    // Charges through the payment bulkhead; null if the charge was rejected, failed or timed out
+    private PaymentResult chargePayment(Long userId, double amount, String description) {
+        Future<PaymentResult> paymentFuture;
+        try {
+            paymentFuture = paymentBulkhead.submit(downstreamExecutor, () -> {
+                return paymentService.processPayment(userId, amount, description);
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Payment rejected: " + e.getMessage());
+            return null;
+        }
+        try {
+            return paymentFuture.get(PAYMENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // Payment timeout or error; don't leave the sub-task running past its parent
+            paymentFuture.cancel(true);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
+            return null;
+        }
+    }
 
-            try {
-                booking.setBookingStatus(BookingStatus.CHECKED_OUT);
-                bookingRepository.save(booking);
+    private void notifyAsync(Runnable notification) {
+        try {
+            notificationBulkhead.submit(downstreamExecutor, notification);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Notification dropped: " + e.getMessage());
+        }
+    }
 
-                // Make room available for new bookings
-                Optional<Room> roomOpt = roomRepository.findByRoomNumber(booking.getRoomNumber());
-                if (roomOpt.isPresent()) {
-                    Room room = roomOpt.get();
-                    room.setAvailable(true);
-                    roomRepository.save(room);
+    // A refund that is rejected or declined is logged and counted so it can be reconciled; the
+    // returned future completes with the gateway result or fails with the rejection
+    private Future<PaymentResult> refundAsync(String paymentId, double amount) {
+        try {
+            return refundBulkhead.submit(downstreamExecutor, () -> {
+                PaymentResult result = paymentService.processRefund(paymentId, amount);
+                if (!result.isSuccessful()) {
+                    recordFailedRefund(paymentId, amount, result.getMessage());
                 }
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            recordFailedRefund(paymentId, amount, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-                return true;
-            } finally {
-                lockManager.releaseRoomLock(booking.getRoomNumber());
-            }
-        }, executorService);
+    private void recordFailedRefund(String paymentId, double amount, String reason) {
+        failedRefunds.increment();
+        System.err.println(String.format("Refund of %.2f for payment %s failed: %s", amount, paymentId, reason));
     }
 
     private boolean isRoomAvailableForPeriod(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
         return bookingRepository.findConflictingBookings(roomNumber, checkIn, checkOut).isEmpty();
     }
 
-    private double calculateTotalPrice(Room room, LocalDate checkIn, LocalDate checkOut) {
+    // What a booking of the room for these dates is charged, long-stay discount included
+    public double calculateTotalPrice(Room room, LocalDate checkIn, LocalDate checkOut) {
         long nights = checkOut.toEpochDay() - checkIn.toEpochDay();
         double basePrice = room.getPrice() * nights;
         
@@ -243,14 +638,43 @@ public class ConcurrentBookingService {
         return basePrice;
     }
 
+    public BookingLockManager getLockManager() {
+        return lockManager;
+    }
+
+    public ReservationHoldManager getHoldManager() {
+        return holdManager;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    // Refunds rejected by the refund bulkhead or declined by the gateway, awaiting reconciliation
+    public long getFailedRefundCount() {
+        return failedRefunds.sum();
+    }
+
+    public List<DownstreamBulkhead> getBulkheads() {
+        return List.of(paymentBulkhead, notificationBulkhead, refundBulkhead);
+    }
+
     public void shutdown() {
-        executorService.shutdown();
+        eventBus.shutdown();
+        holdManager.shutdown();
+        lockManager.shutdown();
+        shutdownExecutor(executorService);
+        shutdownExecutor(downstreamExecutor);
+    }
+
+    private void shutdownExecutor(ExecutorService executor) {
+        executor.shutdown();
         try {
-            if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
             }
         } catch (InterruptedException e) {
-            executorService.shutdownNow();
+            executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
     }
@@ -278,4 +702,47 @@ public class ConcurrentBookingService {
         public Booking getBooking() { return booking; }
         public String getMessage() { return message; }
     }
-}
\ No newline at end of file
+
+    public static class RoomStayRequest {
+        private final int roomNumber;
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+
+        public RoomStayRequest(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+            this.roomNumber = roomNumber;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+
+        public int getRoomNumber() { return roomNumber; }
+        public LocalDate getCheckIn() { return checkIn; }
+        public LocalDate getCheckOut() { return checkOut; }
+    }
+
+    public static class GroupBookingResult {
+        private final boolean successful;
+        private final List<Booking> bookings;
+        private final double totalPrice;
+        private final String message;
+
+        private GroupBookingResult(boolean successful, List<Booking> bookings, double totalPrice, String message) {
+            this.successful = successful;
+            this.bookings = bookings;
+            this.totalPrice = totalPrice;
+            this.message = message;
+        }
+
+        public static GroupBookingResult success(List<Booking> bookings, double totalPrice, String message) {
+            return new GroupBookingResult(true, Collections.unmodifiableList(bookings), totalPrice, message);
+        }
+
+        public static GroupBookingResult failure(String message) {
+            return new GroupBookingResult(false, Collections.emptyList(), 0, message);
+        }
+
+        public boolean isSuccessful() { return successful; }
+        public List<Booking> getBookings() { return bookings; }
+        public double getTotalPrice() { return totalPrice; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,122 @@
+package concurrency;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of in-flight calls to one downstream (payment gateway,
+ * notifications, refunds). The permit is taken on the caller's thread before
+ * the task is handed to the executor, so a full downstream pushes back on its
+ * callers instead of piling tasks up in the executor; a caller that cannot get
+ * a permit within the acquire timeout gets a RejectedExecutionException, just
+ * as from a saturated executor.
+ */
+public class DownstreamBulkhead {
+    private final String name;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+
+    public DownstreamBulkhead(String name, int maxConcurrent, long acquireTimeoutMs) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public <T> Future<T> submit(ExecutorService executor, Callable<T> task) {
+        acquirePermit();
+        Permit permit = new Permit();
+        PermitTask<T> permitTask = new PermitTask<>(() -> {
+            try {
+                return task.call();
+            } finally {
+                // Released before the result is published, so a caller that sees the result sees the permit back
+                if (permit.release()) {
+                    completedCount.incrementAndGet();
+                }
+            }
+        }, permit);
+        try {
+            executor.execute(permitTask);
+            return permitTask;
+        } catch (RejectedExecutionException e) {
+            // The executor refused the task, so it will never release the permit itself
+            permit.release();
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public Future<?> submit(ExecutorService executor, Runnable task) {
+        return submit(executor, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // One acquired permit, handed back exactly once whether the task runs, fails or is cancelled
+    private class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        boolean release() {
+            if (!released.compareAndSet(false, true)) {
+                return false;
+            }
+            permits.release();
+            return true;
+        }
+    }
+
+    // Also returns the permit when the future is cancelled while the task is still queued and never runs
+    private static class PermitTask<T> extends FutureTask<T> {
+        private final Permit permit;
+
+        PermitTask(Callable<T> task, Permit permit) {
+            super(task);
+            this.permit = permit;
+        }
+
+        @Override
+        protected void done() {
+            permit.release();
+        }
+    }
+
+    private void acquirePermit() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(name + " bulkhead is full (" + maxConcurrent + " in flight)");
+        }
+    }
+
+    public String getName() { return name; }
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getInFlight() { return maxConcurrent - permits.availablePermits(); }
+    public int getAvailablePermits() { return permits.availablePermits(); }
+    public int getQueued() { return permits.getQueueLength(); }
+    public long getRejectedCount() { return rejectedCount.get(); }
+    public long getCompletedCount() { return completedCount.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s bulkhead - In flight: %d/%d, Queued: %d, Rejected: %d", 
+                           name, getInFlight(), maxConcurrent, getQueued(), getRejectedCount());
+    }
+}
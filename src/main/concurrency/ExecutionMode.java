@@ -0,0 +1,16 @@
+package concurrency;
+
+public enum ExecutionMode {
+    PLATFORM_POOL("Fixed pool of platform threads"),
+    VIRTUAL_THREADS("One virtual thread per task (JDK 21+, falls back to the platform pool)");
+
+    private final String description;
+
+    ExecutionMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,110 @@
+package concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets: bucket 0 counts
+ * samples under 1us and bucket i counts samples in [2^(i-1), 2^i) us. Recording is a
+ * couple of atomic increments, so it is cheap enough to sit on every lock acquisition.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 40; // Top bucket starts at ~6 days
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(counts, count.sum(), totalNanos.sum(), maxNanos.get());
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    // Exclusive upper bound of a bucket in nanoseconds
+    static long bucketUpperBoundNanos(int bucket) {
+        return (1L << bucket) * 1000;
+    }
+
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+        public long[] getBuckets() { return buckets.clone(); }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : totalNanos / (count * 1_000_000.0);
+        }
+
+        // Upper bound of the bucket containing the given percentile (0-100), capped at the observed max
+        public double getPercentileMillis(double percentile) {
+            long total = 0;
+            for (long bucketCount : buckets) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, rank)) {
+                    return Math.min(bucketUpperBoundNanos(i), maxNanos) / 1_000_000.0;
+                }
+            }
+            return maxNanos / 1_000_000.0;
+        }
+
+        Snapshot merge(Snapshot other) {
+            long[] merged = buckets.clone();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += other.buckets[i];
+            }
+            return new Snapshot(merged, count + other.count, totalNanos + other.totalNanos,
+                              Math.max(maxNanos, other.maxNanos));
+        }
+
+        static Snapshot empty() {
+            return new Snapshot(new long[BUCKETS], 0, 0, 0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.2fms, p50=%.2fms, p99=%.2fms, max=%.2fms",
+                               count, getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99),
+                               maxNanos / 1_000_000.0);
+        }
+    }
+}
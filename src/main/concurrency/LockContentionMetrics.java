@@ -0,0 +1,171 @@
+package concurrency;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Lock acquisition counters and wait/hold histograms, kept per room and for the whole
+ * hotel, each broken down by operation type. Every event is recorded into the room's
+ * operation entry and the overall one, so a snapshot never has to merge across rooms.
+ */
+public class LockContentionMetrics {
+    private final Map<Integer, Map<String, OperationStats>> statsByRoom = new ConcurrentHashMap<>();
+    private final Map<String, OperationStats> overallStats = new ConcurrentHashMap<>();
+
+    public void recordAcquired(int roomNumber, String operationType, long waitNanos) {
+        for (OperationStats stats : statsFor(roomNumber, operationType)) {
+            stats.acquisitions.increment();
+            stats.waitTime.record(waitNanos);
+        }
+    }
+
+    public void recordTimeout(int roomNumber, String operationType, long waitNanos) {
+        for (OperationStats stats : statsFor(roomNumber, operationType)) {
+            stats.timeouts.increment();
+            stats.waitTime.record(waitNanos);
+        }
+    }
+
+    public void recordReleased(int roomNumber, String operationType, long holdNanos) {
+        for (OperationStats stats : statsFor(roomNumber, operationType)) {
+            stats.holdTime.record(holdNanos);
+        }
+    }
+
+    public void recordLeaseExpired(int roomNumber, String operationType, long holdNanos) {
+        for (OperationStats stats : statsFor(roomNumber, operationType)) {
+            stats.leaseExpirations.increment();
+            stats.holdTime.record(holdNanos);
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<Integer, StatsSnapshot> byRoom = new TreeMap<>();
+        for (Map.Entry<Integer, Map<String, OperationStats>> entry : statsByRoom.entrySet()) {
+            byRoom.put(entry.getKey(), snapshotOf(entry.getValue()));
+        }
+        return new Snapshot(snapshotOf(overallStats), byRoom);
+    }
+
+    public Optional<StatsSnapshot> snapshotForRoom(int roomNumber) {
+        return Optional.ofNullable(statsByRoom.get(roomNumber)).map(this::snapshotOf);
+    }
+
+    public void reset() {
+        statsByRoom.clear();
+        overallStats.clear();
+    }
+
+    private OperationStats[] statsFor(int roomNumber, String operationType) {
+        String operation = operationType == null ? "UNKNOWN" : operationType;
+        return new OperationStats[] {
+            statsByRoom.computeIfAbsent(roomNumber, k -> new ConcurrentHashMap<>())
+                       .computeIfAbsent(operation, k -> new OperationStats()),
+            overallStats.computeIfAbsent(operation, k -> new OperationStats())
+        };
+    }
+
+    private StatsSnapshot snapshotOf(Map<String, OperationStats> stats) {
+        Map<String, OperationSnapshot> byOperation = new TreeMap<>();
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            byOperation.put(entry.getKey(), new OperationSnapshot(operation.acquisitions.sum(),
+                    operation.timeouts.sum(), operation.leaseExpirations.sum(),
+                    operation.waitTime.snapshot(), operation.holdTime.snapshot()));
+        }
+        return new StatsSnapshot(byOperation);
+    }
+
+    private static class OperationStats {
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder leaseExpirations = new LongAdder();
+        private final LatencyHistogram waitTime = new LatencyHistogram();
+        private final LatencyHistogram holdTime = new LatencyHistogram();
+    }
+
+    public static class Snapshot {
+        private final StatsSnapshot overall;
+        private final Map<Integer, StatsSnapshot> byRoom;
+
+        Snapshot(StatsSnapshot overall, Map<Integer, StatsSnapshot> byRoom) {
+            this.overall = overall;
+            this.byRoom = Collections.unmodifiableMap(byRoom);
+        }
+
+        public StatsSnapshot getOverall() { return overall; }
+        public Map<Integer, StatsSnapshot> getByRoom() { return byRoom; }
+
+        // Rooms ordered by total time threads spent waiting for their lock, most contended first
+        public List<Integer> getHottestRooms(int limit) {
+            return byRoom.entrySet().stream()
+                    .sorted(Comparator.comparingLong(
+                        (Map.Entry<Integer, StatsSnapshot> e) -> e.getValue().getWaitTime().getTotalNanos()).reversed())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static class StatsSnapshot {
+        private final Map<String, OperationSnapshot> byOperation;
+        private final long acquisitions;
+        private final long timeouts;
+        private final long leaseExpirations;
+        private final LatencyHistogram.Snapshot waitTime;
+        private final LatencyHistogram.Snapshot holdTime;
+
+        StatsSnapshot(Map<String, OperationSnapshot> byOperation) {
+            this.byOperation = Collections.unmodifiableMap(byOperation);
+            long acquired = 0;
+            long timedOut = 0;
+            long expired = 0;
+            LatencyHistogram.Snapshot waits = LatencyHistogram.Snapshot.empty();
+            LatencyHistogram.Snapshot holds = LatencyHistogram.Snapshot.empty();
+            for (OperationSnapshot operation : byOperation.values()) {
+                acquired += operation.getAcquisitions();
+                timedOut += operation.getTimeouts();
+                expired += operation.getLeaseExpirations();
+                waits = waits.merge(operation.getWaitTime());
+                holds = holds.merge(operation.getHoldTime());
+            }
+            this.acquisitions = acquired;
+            this.timeouts = timedOut;
+            this.leaseExpirations = expired;
+            this.waitTime = waits;
+            this.holdTime = holds;
+        }
+
+        public Map<String, OperationSnapshot> getByOperation() { return byOperation; }
+        public long getAcquisitions() { return acquisitions; }
+        public long getTimeouts() { return timeouts; }
+        public long getLeaseExpirations() { return leaseExpirations; }
+        public LatencyHistogram.Snapshot getWaitTime() { return waitTime; }
+        public LatencyHistogram.Snapshot getHoldTime() { return holdTime; }
+    }
+
+    public static class OperationSnapshot {
+        private final long acquisitions;
+        private final long timeouts;
+        private final long leaseExpirations;
+        private final LatencyHistogram.Snapshot waitTime;
+        private final LatencyHistogram.Snapshot holdTime;
+
+        OperationSnapshot(long acquisitions, long timeouts, long leaseExpirations,
+                          LatencyHistogram.Snapshot waitTime, LatencyHistogram.Snapshot holdTime) {
+            this.acquisitions = acquisitions;
+            this.timeouts = timeouts;
+            this.leaseExpirations = leaseExpirations;
+            this.waitTime = waitTime;
+            this.holdTime = holdTime;
+        }
+
+        public long getAcquisitions() { return acquisitions; }
+        public long getTimeouts() { return timeouts; }
+        public long getLeaseExpirations() { return leaseExpirations; }
+        public LatencyHistogram.Snapshot getWaitTime() { return waitTime; }
+        public LatencyHistogram.Snapshot getHoldTime() { return holdTime; }
+    }
+}
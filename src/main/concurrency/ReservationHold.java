@@ -0,0 +1,35 @@
+package concurrency;
+
+/**
+ * Short-lived inventory hold on a room for a pending booking. The hold keeps the
+ * room-nights reserved while payment runs outside the room lock; it is either
+ * confirmed, released, or reclaimed by the sweeper once it expires.
+ */
+public class ReservationHold {
+    private final Long bookingId;
+    private final int roomNumber;
+    private final long placedAtMillis;
+    private final long expiresAtMillis;
+
+    public ReservationHold(Long bookingId, int roomNumber, long placedAtMillis, long expiresAtMillis) {
+        this.bookingId = bookingId;
+        this.roomNumber = roomNumber;
+        this.placedAtMillis = placedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Long getBookingId() { return bookingId; }
+    public int getRoomNumber() { return roomNumber; }
+    public long getPlacedAtMillis() { return placedAtMillis; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReservationHold{bookingId=%d, room=%d, expiresAt=%d}", 
+                           bookingId, roomNumber, expiresAtMillis);
+    }
+}
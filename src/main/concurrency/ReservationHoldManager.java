@@ -0,0 +1,107 @@
+package concurrency;
+
+import model.Booking;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Tracks reservation holds for pending bookings and reclaims expired ones on a
+ * timer. Confirm, release and expiry all race on a single atomic remove, so
+ * exactly one of them wins for any hold.
+ */
+public class ReservationHoldManager {
+    private final Map<Long, ReservationHold> holds;
+    private final ScheduledExecutorService sweeper;
+    private final long holdTtlMs;
+    private final Predicate<ReservationHold> expiryHandler;
+
+    public ReservationHoldManager(long holdTtlMs, long sweepIntervalMs, Predicate<ReservationHold> expiryHandler) {
+        this.holds = new ConcurrentHashMap<>();
+        this.holdTtlMs = holdTtlMs;
+        this.expiryHandler = expiryHandler;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-hold-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweepExpiredHolds, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public ReservationHold placeHold(Booking booking) {
+        return placeHold(booking, holdTtlMs);
+    }
+
+    public ReservationHold placeHold(Booking booking, long ttlMs) {
+        long now = System.currentTimeMillis();
+        ReservationHold hold = new ReservationHold(booking.getId(), booking.getRoomNumber(), now, now + ttlMs);
+        holds.put(booking.getId(), hold);
+        return hold;
+    }
+
+    public Optional<ReservationHold> getHold(Long bookingId) {
+        return Optional.ofNullable(holds.get(bookingId));
+    }
+
+    // Returns true only if the hold was still live; an expired hold is removed and must be cleaned up by the caller
+    public boolean confirmHold(ReservationHold hold) {
+        boolean live = !hold.isExpired(System.currentTimeMillis());
+        return holds.remove(hold.getBookingId(), hold) && live;
+    }
+
+    public boolean releaseHold(ReservationHold hold) {
+        return holds.remove(hold.getBookingId(), hold);
+    }
+
+    public boolean releaseHold(Long bookingId) {
+        return holds.remove(bookingId) != null;
+    }
+
+    public boolean isHeld(Long bookingId) {
+        ReservationHold hold = holds.get(bookingId);
+        return hold != null && !hold.isExpired(System.currentTimeMillis());
+    }
+
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    private void sweepExpiredHolds() {
+        long now = System.currentTimeMillis();
+        List<ReservationHold> expired = new ArrayList<>();
+        for (ReservationHold hold : holds.values()) {
+            if (hold.isExpired(now)) {
+                expired.add(hold);
+            }
+        }
+
+        for (ReservationHold hold : expired) {
+            try {
+                if (holds.remove(hold.getBookingId(), hold) && !expiryHandler.test(hold)) {
+                    // Handler could not reclaim it yet (e.g. room lock busy); retry on the next sweep
+                    holds.putIfAbsent(hold.getBookingId(), hold);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to reclaim " + hold + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void shutdown() {
+        sweeper.shutdown();
+        try {
+            if (!sweeper.awaitTermination(5, TimeUnit.SECONDS)) {
+                sweeper.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            sweeper.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
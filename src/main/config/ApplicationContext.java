@@ -7,16 +7,20 @@ import payment.*;
 import pricing.*;
 import analytics.*;
 import concurrency.*;
+import inventory.RoomTypeInventory;
+import patterns.command.BookingCommand;
 import patterns.command.CommandInvoker;
-import patterns.observer.RoomAvailabilityObserver;
 import repository.*;
 import repository.impl.*;
 import model.*;
 import persistence.*;
+import waitlist.WaitlistEngine;
 import org.json.*;
 import java.io.*;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 public class ApplicationContext {
     // Repositories
@@ -41,9 +45,13 @@ public class ApplicationContext {
     private final CommandInvoker commandInvoker;
     private final ConcurrentBookingService concurrentBookingService;
     private final BookingService bookingService;
+    private final RoomTypeInventory roomTypeInventory;
+    private final WaitlistEngine waitlistEngine;
     
     // Caching
     private final CacheableRoomService cacheableRoomService;
+    private final CachingRepository<Payment, Long> paymentRepositoryCache;
+    private final CachingRepository<User, Long> userRepositoryCache;
     
     // Pricing
     private final DynamicPricingEngine pricingEngine;
@@ -52,16 +60,42 @@ public class ApplicationContext {
     private final RevenueAnalytics revenueAnalytics;
     private final AnalyticsDashboard analyticsDashboard;
 
+    private static final int INVENTORY_HORIZON_DAYS = 366;
+    // Undo history survives restarts only when this system property names a journal file,
+    // e.g. -Dhotel.commandJournal=data/commandJournal.log
+    private static final String COMMAND_JOURNAL_PROPERTY = "hotel.commandJournal";
+    private static final long CACHE_MAXIMUM_SIZE = 10_000;
+    private static final long ENTITY_CACHE_TTL_MINUTES = 30;
+    private static final long QUERY_CACHE_TTL_MINUTES = 5;
+
     public ApplicationContext() {
+        this(new InMemoryBookingRepository());
+    }
+
+    // Allows selecting the booking store, e.g. IntervalTreeBookingRepository for large booking histories
+    public ApplicationContext(BookingRepository bookingRepository) {
+        // Initialize cache
+        this.cacheService = new BoundedCacheService(CACHE_MAXIMUM_SIZE);
+
+        // Payments and users are read on every refund and login, so their reads go through the cache
+        this.paymentRepositoryCache = CachingRepository.<Payment, Long>builder("payment", Payment::getId)
+            .cacheFindById(ENTITY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .cacheUniqueFinder("findByPaymentId", Payment::getPaymentId, ENTITY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .cacheFinder("findByUserId", QUERY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build(cacheService);
+        this.userRepositoryCache = CachingRepository.<User, Long>builder("user", User::getId)
+            .cacheFindById(ENTITY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .cacheUniqueFinder("findByEmail", User::getEmail, ENTITY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .cacheFinder("existsByEmail", QUERY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build(cacheService);
+
         // Initialize repositories
-        this.userRepository = new InMemoryUserRepository();
-        this.bookingRepository = new InMemoryBookingRepository();
+        this.userRepository = userRepositoryCache.wrap(UserRepository.class, new InMemoryUserRepository());
+        this.bookingRepository = bookingRepository;
         this.roomRepository = new InMemoryRoomRepository();
-        this.paymentRepository = new InMemoryPaymentRepository();
+        this.paymentRepository = paymentRepositoryCache.wrap(PaymentRepository.class, new InMemoryPaymentRepository());
         this.notificationRepository = new InMemoryNotificationRepository();
         
-        // Initialize cache
-        this.cacheService = new InMemoryCacheService();
         this.cacheableRoomService = new CacheableRoomService(roomRepository, cacheService);
         
         // Initialize authentication
@@ -84,7 +118,10 @@ public class ApplicationContext {
         this.concurrentBookingService = new ConcurrentBookingService(
             bookingRepository, roomRepository, notificationService, paymentService);
         this.bookingService = new BookingService(
-            bookingRepository, roomRepository, notificationService, paymentService, commandInvoker);
+            bookingRepository, roomRepository, notificationService, paymentService, commandInvoker,
+            concurrentBookingService.getLockManager());
+        this.roomTypeInventory = new RoomTypeInventory(INVENTORY_HORIZON_DAYS);
+        this.waitlistEngine = new WaitlistEngine(concurrentBookingService, roomRepository, notificationService);
         
         // Setup observers
         setupObservers();
@@ -106,6 +143,21 @@ public class ApplicationContext {
         if (userRepository.findAll().isEmpty()) {
             initializeDemoData();
         }
+
+        // Seed the per-day inventory counters; booking events keep them current from here on
+        roomTypeInventory.rebuild(roomRepository.findAll(), bookingRepository.findAll());
+        roomRepository.addChangeListener(roomTypeInventory.roomChangeListener());
+
+        // Restore undo history from the previous session now that bookings are loaded
+        String commandJournalFile = System.getProperty(COMMAND_JOURNAL_PROPERTY);
+        if (commandJournalFile != null && !commandJournalFile.isBlank()) {
+            try {
+                commandInvoker.enableJournal(Paths.get(commandJournalFile),
+                    entry -> BookingCommand.fromJournalEntry(entry, bookingRepository).orElse(null));
+            } catch (IOException e) {
+                System.err.println("Error restoring command journal: " + e.getMessage());
+            }
+        }
     }
     
     private void setupPaymentGateways() {
@@ -119,8 +171,12 @@ public class ApplicationContext {
     }
     
     private void setupObservers() {
-        RoomAvailabilityObserver availabilityObserver = new RoomAvailabilityObserver(notificationService);
-        bookingService.addObserver(availabilityObserver);
+        // Freed rooms go to matching waitlist requests instead of an alert to every user
+        // Both keep state built from the events, so they must not miss one
+        bookingService.addLosslessObserver(waitlistEngine);
+        concurrentBookingService.addLosslessObserver(waitlistEngine);
+        bookingService.addLosslessObserver(roomTypeInventory);
+        concurrentBookingService.addLosslessObserver(roomTypeInventory);
     }
     
     private void initializeDemoData() {
@@ -227,8 +283,12 @@ public class ApplicationContext {
     public CommandInvoker getCommandInvoker() { return commandInvoker; }
     public ConcurrentBookingService getConcurrentBookingService() { return concurrentBookingService; }
     public BookingService getBookingService() { return bookingService; }
+    public RoomTypeInventory getRoomTypeInventory() { return roomTypeInventory; }
+    public WaitlistEngine getWaitlistEngine() { return waitlistEngine; }
     
     public CacheableRoomService getCacheableRoomService() { return cacheableRoomService; }
+    public CachingRepository<Payment, Long> getPaymentRepositoryCache() { return paymentRepositoryCache; }
+    public CachingRepository<User, Long> getUserRepositoryCache() { return userRepositoryCache; }
     public DynamicPricingEngine getPricingEngine() { return pricingEngine; }
     public RevenueAnalytics getRevenueAnalytics() { return revenueAnalytics; }
     public AnalyticsDashboard getAnalyticsDashboard() { return analyticsDashboard; }
@@ -239,7 +299,14 @@ public class ApplicationContext {
         
         if (cacheService instanceof InMemoryCacheService) {
             ((InMemoryCacheService) cacheService).shutdown();
+        } else if (cacheService instanceof BoundedCacheService) {
+            ((BoundedCacheService) cacheService).shutdown();
+        }
+        cacheableRoomService.shutdown();
+        if (bookingService != null) {
+            bookingService.shutdown();
         }
+        commandInvoker.close();
         if (concurrentBookingService != null) {
             concurrentBookingService.shutdown();
         }
@@ -331,8 +398,10 @@ public class ApplicationContext {
                     
                     Optional<model.Room> existingRoom = roomRepository.findByRoomNumber(roomNumber);
                     if (existingRoom.isPresent()) {
-                        // Update availability status
-                        existingRoom.get().setAvailable(roomJson.getBoolean("isAvailable"));
+                        // Update availability status through the repository so the room cache sees it
+                        model.Room room = existingRoom.get();
+                        room.setAvailable(roomJson.getBoolean("isAvailable"));
+                        roomRepository.save(room);
                     }
                 }
             }
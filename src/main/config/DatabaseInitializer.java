@@ -284,9 +284,7 @@ public class DatabaseInitializer {
         System.out.printf("💳 Payments: %d\n", totalPayments);
         
         // Calculate occupancy rate
-        List<Booking> activeBookings = context.getBookingRepository().findAll().stream()
-            .filter(b -> b.getBookingStatus().isActive())
-            .collect(java.util.stream.Collectors.toList());
+        List<Booking> activeBookings = context.getBookingService().getActiveBookings();
         
         double occupancyRate = (double) activeBookings.size() / totalRooms * 100;
         System.out.printf("📈 Current Occupancy: %.1f%%\n", occupancyRate);
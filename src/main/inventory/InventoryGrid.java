@@ -0,0 +1,51 @@
+package inventory;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of free rooms per room type for a run of consecutive days.
+ * Row i of {@link #getAvailable()} belongs to room type i, column j to startDate + j.
+ */
+public class InventoryGrid {
+    private final LocalDate startDate;
+    private final List<String> roomTypes;
+    private final int[] totalRooms;
+    private final int[][] available;
+
+    public InventoryGrid(LocalDate startDate, List<String> roomTypes, int[] totalRooms, int[][] available) {
+        this.startDate = startDate;
+        this.roomTypes = Collections.unmodifiableList(roomTypes);
+        this.totalRooms = totalRooms;
+        this.available = available;
+    }
+
+    public LocalDate getStartDate() { return startDate; }
+    public List<String> getRoomTypes() { return roomTypes; }
+    public int getDays() { return available.length == 0 ? 0 : available[0].length; }
+    public int[][] getAvailable() { return available; }
+
+    public int getTotalRooms(String roomType) {
+        int row = rowOf(roomType);
+        return row < 0 ? 0 : totalRooms[row];
+    }
+
+    public int getAvailable(String roomType, LocalDate date) {
+        int row = rowOf(roomType);
+        int column = (int) (date.toEpochDay() - startDate.toEpochDay());
+        if (row < 0 || column < 0 || column >= getDays()) {
+            return 0;
+        }
+        return available[row][column];
+    }
+
+    private int rowOf(String roomType) {
+        for (int i = 0; i < roomTypes.size(); i++) {
+            if (roomTypes.get(i).equalsIgnoreCase(roomType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
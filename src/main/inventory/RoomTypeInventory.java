@@ -0,0 +1,280 @@
+package inventory;
+
+import model.Booking;
+import model.Room;
+import patterns.observer.BookingObserver;
+import repository.EntityChangeListener;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Booked-night counters per (room type, day) over a rolling horizon starting today.
+ * Each room type has an AtomicIntegerArray used as a ring indexed by epoch day, so
+ * booking changes are O(nights) increments and a full type x date grid is read with
+ * no repository access. Registered as a BookingObserver, it re-syncs a booking on
+ * every create/cancel/check-out event; the last indexed stay per booking is kept so
+ * repeated or out-of-order events are idempotent. Rooms added, retyped or removed
+ * after the rebuild reach it through {@link #roomChangeListener}.
+ */
+public class RoomTypeInventory implements BookingObserver {
+    private final int horizonDays;
+    private final Clock clock;
+    private final Map<String, TypeCounters> countersByType = new ConcurrentHashMap<>();
+    private final Map<Integer, String> roomTypeByNumber = new ConcurrentHashMap<>();
+    private final Map<Long, Stay> indexedStays = new ConcurrentHashMap<>();
+    private final ReadWriteLock windowLock = new ReentrantReadWriteLock();
+    private volatile long windowStart;
+
+    public RoomTypeInventory(int horizonDays) {
+        this(horizonDays, Clock.systemDefaultZone());
+    }
+
+    public RoomTypeInventory(int horizonDays, Clock clock) {
+        this.horizonDays = horizonDays;
+        this.clock = clock;
+        this.windowStart = LocalDate.now(clock).toEpochDay();
+    }
+
+    // Resets the counters from the current rooms and bookings, e.g. after loading data at startup
+    public void rebuild(Collection<Room> rooms, Collection<Booking> bookings) {
+        windowLock.writeLock().lock();
+        try {
+            countersByType.clear();
+            roomTypeByNumber.clear();
+            indexedStays.clear();
+            windowStart = LocalDate.now(clock).toEpochDay();
+            for (Room room : rooms) {
+                registerRoomInternal(room);
+            }
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+        for (Booking booking : bookings) {
+            sync(booking);
+        }
+    }
+
+    // Room totals are plain ints read under the read lock, so they change only under the write lock
+    public void registerRoom(Room room) {
+        windowLock.writeLock().lock();
+        try {
+            registerRoomInternal(room);
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+    }
+
+    public void unregisterRoom(Room room) {
+        windowLock.writeLock().lock();
+        try {
+            String previousType = roomTypeByNumber.remove(room.getRoomNumber());
+            if (previousType != null) {
+                countersFor(previousType).totalRooms--;
+            }
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+    }
+
+    // Keeps room totals current; subscribe it to the room repository after the initial rebuild
+    public EntityChangeListener<Room, Long> roomChangeListener() {
+        return new EntityChangeListener<Room, Long>() {
+            @Override
+            public void onSaved(Long id, Room room, boolean created) {
+                if (created || !room.getRoomType().equals(roomTypeByNumber.get(room.getRoomNumber()))) {
+                    registerRoom(room);
+                }
+            }
+
+            @Override
+            public void onDeleted(Long id, Room room) {
+                unregisterRoom(room);
+            }
+        };
+    }
+
+    @Override
+    public void onBookingUpdate(Booking booking, String eventType) {
+        sync(booking);
+    }
+
+    public void sync(Booking booking) {
+        if (booking.getId() == null) {
+            return;
+        }
+        advanceWindowIfNeeded();
+        windowLock.readLock().lock();
+        try {
+            indexedStays.compute(booking.getId(), (id, previous) -> {
+                if (previous != null) {
+                    apply(previous, -1);
+                }
+                Stay stay = Stay.of(booking, roomTypeByNumber.get(booking.getRoomNumber()));
+                if (stay != null) {
+                    apply(stay, 1);
+                }
+                return stay;
+            });
+        } finally {
+            windowLock.readLock().unlock();
+        }
+    }
+
+    public int getAvailableCount(String roomType, LocalDate date) {
+        return getAvailabilityGrid(date, 1).getAvailable(roomType, date);
+    }
+
+    // Returns free rooms for every room type and each of the given days in a single pass. Only days
+    // inside the horizon are counted, so a range reaching outside it is rejected
+    public InventoryGrid getAvailabilityGrid(LocalDate startDate, int days) {
+        advanceWindowIfNeeded();
+        windowLock.readLock().lock();
+        try {
+            long first = startDate.toEpochDay();
+            long start = windowStart;
+            if (days < 1 || !inWindow(first, start) || !inWindow(first + days - 1, start)) {
+                throw new IllegalArgumentException("Inventory covers " + LocalDate.ofEpochDay(start) + " to "
+                    + LocalDate.ofEpochDay(start + horizonDays - 1) + ", not " + days + " days from " + startDate);
+            }
+            List<TypeCounters> types = new ArrayList<>(countersByType.values());
+            types.sort(Comparator.comparing(counters -> counters.displayName));
+
+            List<String> names = new ArrayList<>(types.size());
+            int[] totals = new int[types.size()];
+            int[][] available = new int[types.size()][days];
+            for (int row = 0; row < types.size(); row++) {
+                TypeCounters counters = types.get(row);
+                names.add(counters.displayName);
+                totals[row] = counters.totalRooms;
+                for (int column = 0; column < days; column++) {
+                    int booked = counters.bookedNights.get(slot(first + column));
+                    available[row][column] = Math.max(0, counters.totalRooms - booked);
+                }
+            }
+            return new InventoryGrid(startDate, names, totals, available);
+        } finally {
+            windowLock.readLock().unlock();
+        }
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    private void registerRoomInternal(Room room) {
+        String previousType = roomTypeByNumber.put(room.getRoomNumber(), room.getRoomType());
+        if (previousType != null) {
+            countersFor(previousType).totalRooms--;
+            moveStays(room.getRoomNumber(), room.getRoomType());
+        }
+        countersFor(room.getRoomType()).totalRooms++;
+    }
+
+    // A retyped room takes its booked nights with it; runs under the write lock, so no sync is in progress
+    private void moveStays(int roomNumber, String roomType) {
+        indexedStays.replaceAll((id, stay) -> {
+            if (stay.roomNumber != roomNumber || stay.roomType.equals(roomType)) {
+                return stay;
+            }
+            apply(stay, -1);
+            Stay moved = new Stay(roomNumber, roomType, stay.firstNight, stay.lastNightExclusive);
+            apply(moved, 1);
+            return moved;
+        });
+    }
+
+    private TypeCounters countersFor(String roomType) {
+        return countersByType.computeIfAbsent(roomType.toLowerCase(),
+            k -> new TypeCounters(roomType, horizonDays));
+    }
+
+    private void apply(Stay stay, int delta) {
+        TypeCounters counters = countersFor(stay.roomType);
+        long start = windowStart;
+        long from = Math.max(stay.firstNight, start);
+        long to = Math.min(stay.lastNightExclusive, start + horizonDays);
+        for (long day = from; day < to; day++) {
+            counters.bookedNights.addAndGet(slot(day), delta);
+        }
+    }
+
+    // Rolls the ring forward when the date changes: slots of days that fell behind today are
+    // reused for the days entering the horizon and re-filled from the tracked stays
+    private void advanceWindowIfNeeded() {
+        long today = LocalDate.now(clock).toEpochDay();
+        if (today <= windowStart) {
+            return;
+        }
+        windowLock.writeLock().lock();
+        try {
+            long oldStart = windowStart;
+            if (today <= oldStart) {
+                return;
+            }
+            long enterFrom = Math.max(oldStart + horizonDays, today);
+            long enterTo = today + horizonDays;
+            for (TypeCounters counters : countersByType.values()) {
+                for (long day = enterFrom; day < enterTo; day++) {
+                    counters.bookedNights.set(slot(day), 0);
+                }
+            }
+            windowStart = today;
+            for (Stay stay : indexedStays.values()) {
+                TypeCounters counters = countersFor(stay.roomType);
+                long from = Math.max(stay.firstNight, enterFrom);
+                long to = Math.min(stay.lastNightExclusive, enterTo);
+                for (long day = from; day < to; day++) {
+                    counters.bookedNights.incrementAndGet(slot(day));
+                }
+            }
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+    }
+
+    private boolean inWindow(long day, long start) {
+        return day >= start && day < start + horizonDays;
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) horizonDays);
+    }
+
+    private static class TypeCounters {
+        private final String displayName;
+        private final AtomicIntegerArray bookedNights;
+        private int totalRooms;
+
+        TypeCounters(String displayName, int horizonDays) {
+            this.displayName = displayName;
+            this.bookedNights = new AtomicIntegerArray(horizonDays);
+        }
+    }
+
+    private static class Stay {
+        private final int roomNumber;
+        private final String roomType;
+        private final long firstNight;
+        private final long lastNightExclusive;
+
+        private Stay(int roomNumber, String roomType, long firstNight, long lastNightExclusive) {
+            this.roomNumber = roomNumber;
+            this.roomType = roomType;
+            this.firstNight = firstNight;
+            this.lastNightExclusive = lastNightExclusive;
+        }
+
+        static Stay of(Booking booking, String roomType) {
+            if (roomType == null || booking.getBookingStatus() == null || !booking.getBookingStatus().isActive()
+                    || booking.getCheckInDate() == null || booking.getCheckOutDate() == null) {
+                return null;
+            }
+            return new Stay(booking.getRoomNumber(), roomType, booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+        }
+    }
+}
@@ -5,7 +5,7 @@ import java.time.LocalDateTime;
 import org.json.JSONObject;
 import persistence.Writable;
 
-public class Booking implements Writable {
+public class Booking implements Writable, Versioned {
     private Long id;
     private Long userId;
     private int roomNumber;
@@ -18,6 +18,7 @@ public class Booking implements Writable {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String specialRequests;
+    private long version;
 
     public Booking() {
         this.createdAt = LocalDateTime.now();
@@ -99,6 +100,16 @@ public class Booking implements Writable {
         this.updatedAt = LocalDateTime.now();
     }
 
+    @Override
+    public long getVersion() { return version; }
+    @Override
+    public void setVersion(long version) { this.version = version; }
+
+    // Read-only copy of the booking as it is now; its setters throw UnsupportedOperationException
+    public Booking snapshot() {
+        return new Snapshot(this);
+    }
+
     public long getNumberOfNights() {
         return checkOutDate.toEpochDay() - checkInDate.toEpochDay();
     }
@@ -126,4 +137,44 @@ public class Booking implements Writable {
         return String.format("Booking{id=%d, userId=%d, roomNumber=%d, checkIn=%s, checkOut=%s, status=%s}", 
                            id, userId, roomNumber, checkInDate, checkOutDate, bookingStatus);
     }
+
+    private static final class Snapshot extends Booking {
+        Snapshot(Booking source) {
+            Booking copy = this;
+            copy.id = source.id;
+            copy.userId = source.userId;
+            copy.roomNumber = source.roomNumber;
+            copy.checkInDate = source.checkInDate;
+            copy.checkOutDate = source.checkOutDate;
+            copy.totalPrice = source.totalPrice;
+            copy.bookingStatus = source.bookingStatus;
+            copy.paymentStatus = source.paymentStatus;
+            copy.paymentId = source.paymentId;
+            copy.createdAt = source.createdAt;
+            copy.updatedAt = source.updatedAt;
+            copy.specialRequests = source.specialRequests;
+            copy.version = source.version;
+        }
+
+        @Override
+        public Booking snapshot() { return this; }
+
+        @Override public void setId(Long id) { throw readOnly(); }
+        @Override public void setUserId(Long userId) { throw readOnly(); }
+        @Override public void setRoomNumber(int roomNumber) { throw readOnly(); }
+        @Override public void setCheckInDate(LocalDate checkInDate) { throw readOnly(); }
+        @Override public void setCheckOutDate(LocalDate checkOutDate) { throw readOnly(); }
+        @Override public void setTotalPrice(double totalPrice) { throw readOnly(); }
+        @Override public void setBookingStatus(BookingStatus bookingStatus) { throw readOnly(); }
+        @Override public void setPaymentStatus(PaymentStatus paymentStatus) { throw readOnly(); }
+        @Override public void setPaymentId(String paymentId) { throw readOnly(); }
+        @Override public void setCreatedAt(LocalDateTime createdAt) { throw readOnly(); }
+        @Override public void setUpdatedAt(LocalDateTime updatedAt) { throw readOnly(); }
+        @Override public void setSpecialRequests(String specialRequests) { throw readOnly(); }
+        @Override public void setVersion(long version) { throw readOnly(); }
+
+        private UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Booking " + getId() + " is a read-only snapshot");
+        }
+    }
 }
\ No newline at end of file
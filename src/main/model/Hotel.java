@@ -1,7 +1,14 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistence.Writable;
@@ -14,13 +21,24 @@ import persistence.Writable;
  * It provides functionality to retrieve available rooms, rooms by type, adding
  * amenities, removing amenities, calculating cost of stay, applying discounts,
  * adding and deleting rooms.
+ * Rooms are indexed by room number and by type, with the available rooms of each
+ * type kept in room-number order and a live count of available rooms, so lookups
+ * don't scan every room. All access goes through a StampedLock: single-room and
+ * counter reads are optimistic, list-building reads take the read lock and
+ * mutations take the write lock. Room availability must be changed through the
+ * hotel (bookRoom, cancelReservation, setRoomAvailability) to keep the indexes right.
  */
 
 public class Hotel implements Writable {
 
     private String name;
     private String location;
-    private List<Room> rooms;
+    private final Map<Integer, Room> roomsByNumber;
+    private final Map<String, Map<Integer, Room>> roomsByType;
+    private final Map<String, TreeMap<Integer, Room>> availableRoomsByType;
+    private final StampedLock lock;
+    private int availableRoomCount;
+    private int highestRoomNumber;
 
     // EFFECTS: constructs hotel with name, location and initializes 100 rooms in
     // the hotel
@@ -28,11 +46,40 @@ public class Hotel implements Writable {
 
         this.name = name;
         this.location = location;
-        this.rooms = new ArrayList<>();
+        this.roomsByNumber = new LinkedHashMap<>();
+        this.roomsByType = new HashMap<>();
+        this.availableRoomsByType = new HashMap<>();
+        this.lock = new StampedLock();
         initializeRooms(100);
 
     }
 
+    // EFFECTS: constructs hotel with name, location and exactly the given rooms,
+    // keeping their room numbers, availability and amenities. Rooms are indexed
+    // in one pass and a single summary event is logged instead of one per room.
+    // Throws IllegalArgumentException if two rooms share a room number.
+    public static Hotel restore(String name, String location, Collection<Room> rooms) {
+        Hotel hotel = new Hotel(name, location, rooms.size());
+        for (Room room : rooms) {
+            if (hotel.roomsByNumber.containsKey(room.getRoomNumber())) {
+                throw new IllegalArgumentException("Duplicate room number " + room.getRoomNumber());
+            }
+            hotel.indexRoom(room);
+        }
+        EventLog.getInstance().logEvent(new Event("Hotel " + name + " restored with " + rooms.size() + " rooms."));
+        return hotel;
+    }
+
+    // EFFECTS: constructs an empty hotel sized for expectedRooms rooms
+    private Hotel(String name, String location, int expectedRooms) {
+        this.name = name;
+        this.location = location;
+        this.roomsByNumber = new LinkedHashMap<>(Math.max(16, (int) (expectedRooms / 0.75f) + 1));
+        this.roomsByType = new HashMap<>();
+        this.availableRoomsByType = new HashMap<>();
+        this.lock = new StampedLock();
+    }
+
     // REQUIRES: number of rooms > 0
     // EFFECTS: Fills the hotel with different types of rooms
     private void initializeRooms(int numberOfRooms) {
@@ -53,7 +100,7 @@ public class Hotel implements Writable {
                 price = 300.0;
             }
 
-            rooms.add(new Room(i, roomType, price));
+            indexRoom(new Room(i, roomType, price));
         }
 
     }
@@ -64,15 +111,19 @@ public class Hotel implements Writable {
     // the log
     public boolean bookRoom(int roomNumber) {
 
-        Room room = getRoom(roomNumber);
-        if (room != null && room.isAvailable()) {
-
-            room.setAvailable(false);
-            EventLog.getInstance().logEvent(new Event("Room " + roomNumber + " booked successfully."));
-            return true;
+        long stamp = lock.writeLock();
+        try {
+            Room room = roomsByNumber.get(roomNumber);
+            if (room == null || !room.isAvailable()) {
+                return false;
+            }
+            updateAvailability(room, false);
+        } finally {
+            lock.unlockWrite(stamp);
         }
 
-        return false;
+        EventLog.getInstance().logEvent(new Event("Room " + roomNumber + " booked successfully."));
+        return true;
     }
 
     // REQUIRES: Room must exist and be booked
@@ -81,43 +132,64 @@ public class Hotel implements Writable {
 
     public boolean cancelReservation(int roomNumber) {
 
-        Room room = getRoom(roomNumber);
-        if (room != null && !room.isAvailable()) {
+        long stamp = lock.writeLock();
+        try {
+            Room room = roomsByNumber.get(roomNumber);
+            if (room == null || room.isAvailable()) {
+                return false;
+            }
+            updateAvailability(room, true);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
 
-            room.setAvailable(true);
-            EventLog.getInstance().logEvent(new Event("Reservation for Room " + roomNumber + " canceled."));
-            return true;
+        EventLog.getInstance().logEvent(new Event("Reservation for Room " + roomNumber + " canceled."));
+        return true;
+    }
 
+    // MODIFIES: this
+    // EFFECTS: sets the availability of the room with the given number without
+    // logging an event; returns false if there is no such room
+    public boolean setRoomAvailability(int roomNumber, boolean available) {
+        long stamp = lock.writeLock();
+        try {
+            Room room = roomsByNumber.get(roomNumber);
+            if (room == null) {
+                return false;
+            }
+            if (room.isAvailable() != available) {
+                updateAvailability(room, available);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-
-        return false;
     }
 
     // REQUIRES: Hotel must exist and rooms must be initialized
     // EFFECTS: Finds the avilable room with the given type
 
     public Room findAvailableRoom(String roomType) {
-        for (Room room : rooms) {
-            if (room.isAvailable() && room.getRoomType().equalsIgnoreCase(roomType)) {
-                return room; // Return the first available room found
+        return optimisticRead(() -> {
+            TreeMap<Integer, Room> available = availableRoomsByType.get(typeKey(roomType));
+            if (available == null || available.isEmpty()) {
+                return null; // Return null if no available room is found
             }
-        }
-        return null; // Return null if no available room is found
+            return available.firstEntry().getValue(); // Lowest-numbered available room
+        });
     }
     // REQUIRES: Hotel must exist and rooms must be initialized
     // EFFECTS: Prints the details of rooms matching the specified type
 
     public List<Room> getRoomsByType(String roomType) {
 
-        List<Room> matchingRooms = new ArrayList<>();
-
-        for (Room room : rooms) {
-
-            if (room.getRoomType().equalsIgnoreCase(roomType)) {
-                matchingRooms.add(room);
-            }
+        long stamp = lock.readLock();
+        try {
+            Map<Integer, Room> rooms = roomsByType.get(typeKey(roomType));
+            return rooms == null ? new ArrayList<>() : new ArrayList<>(rooms.values());
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return matchingRooms;
     }
 
     // REQUIRES: Hotel must exist and rooms must be initialized
@@ -125,17 +197,7 @@ public class Hotel implements Writable {
 
     public int countAvailableRooms() {
 
-        int count = 0;
-        for (Room room : rooms) {
-
-            if (room.isAvailable()) {
-
-                count++;
-
-            }
-        }
-
-        return count;
+        return optimisticRead(() -> availableRoomCount);
 
     }
 
@@ -149,56 +211,66 @@ public class Hotel implements Writable {
         return location;
     }
 
+    // EFFECTS: returns a snapshot of all rooms in the order they were added
     public List<Room> getAllRooms() {
-        return rooms;
+        long stamp = lock.readLock();
+        try {
+            return new ArrayList<>(roomsByNumber.values());
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     // REQUIRES: room should exist
     // EFFECTS: returns whether the room with given room number exist or not
     public Room getRoom(int roomNumber) {
 
-        for (Room room : rooms) {
-            if (room.getRoomNumber() == roomNumber) {
-                return room;
-            }
-        }
-        return null;
+        return optimisticRead(() -> roomsByNumber.get(roomNumber));
 
     }
 
     // REQUIRES: Hotel must exist and rooms must be initialized
     // EFFECTS: Returns a list of all available rooms in the hotel
     public List<Room> findAvailableRooms() {
-        List<Room> availableRooms = new ArrayList<>();
-        for (Room room : rooms) {
-
-            if (room.isAvailable()) {
-
-                availableRooms.add(room);
+        long stamp = lock.readLock();
+        try {
+            List<Room> availableRooms = new ArrayList<>(availableRoomCount);
+            for (Room room : roomsByNumber.values()) {
+                if (room.isAvailable()) {
+                    availableRooms.add(room);
+                }
             }
+            return availableRooms;
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return availableRooms;
     }
 
     // REQUIRES: Hotel must exist and rooms must be initialized
     // EFFECTS: Returns a list of all available rooms of a given type
     public List<Room> findAvailableRoomsByType(String roomType) {
-        List<Room> availableRooms = new ArrayList<>();
-        for (Room room : rooms) {
-            if (room.isAvailable() && room.getRoomType().equalsIgnoreCase(roomType)) {
-                availableRooms.add(room);
-            }
+        long stamp = lock.readLock();
+        try {
+            TreeMap<Integer, Room> available = availableRoomsByType.get(typeKey(roomType));
+            return available == null ? new ArrayList<>() : new ArrayList<>(available.values());
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return availableRooms;
     }
 
     // REQUIRES: room with a particular type and price
     // MODIFIES: this
     // EFFECTS: add a new room to list of rooms and records the log
     public Room addRoom(String roomType, double price) {
-        int newRoomNumber = rooms.size() + 1;
-        Room newRoom = new Room(newRoomNumber, roomType, price);
-        rooms.add(newRoom);
+        Room newRoom;
+        long stamp = lock.writeLock();
+        try {
+            int newRoomNumber = Math.max(roomsByNumber.size(), highestRoomNumber) + 1;
+            newRoom = new Room(newRoomNumber, roomType, price);
+            indexRoom(newRoom);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
         EventLog.getInstance().logEvent(new Event("Room " + newRoom.getRoomNumber() + " added to Hotel."));
         return newRoom;
     }
@@ -207,17 +279,98 @@ public class Hotel implements Writable {
     // MODIFIES: this
     // EFFECTS: removes a new room to list of rooms and records the log
     public boolean removeRoom(int roomNumber) {
-        Room roomToRemove = getRoom(roomNumber);
+        long stamp = lock.writeLock();
+        try {
+            Room roomToRemove = roomsByNumber.remove(roomNumber);
+            if (roomToRemove == null) {
+                return false;
+            }
+            String key = typeKey(roomToRemove.getRoomType());
+            roomsByType.get(key).remove(roomNumber);
+            if (roomToRemove.isAvailable()) {
+                availableRoomsByType.get(key).remove(roomNumber);
+                availableRoomCount--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        EventLog.getInstance().logEvent(new Event("Room " + roomNumber + " removed from Hotel."));
+        return true;
+    }
 
-        if (roomToRemove != null) {
-            rooms.remove(roomToRemove);
-            EventLog.getInstance().logEvent(new Event("Room " + roomNumber + " removed from Hotel."));
-            return true;
+    // MODIFIES: this
+    // EFFECTS: removes every room from the hotel without logging an event
+    public void clearRooms() {
+        long stamp = lock.writeLock();
+        try {
+            roomsByNumber.clear();
+            roomsByType.clear();
+            availableRoomsByType.clear();
+            availableRoomCount = 0;
+            highestRoomNumber = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // REQUIRES: caller holds the write lock (or is the constructor)
+    // MODIFIES: this
+    // EFFECTS: adds room to the number, type and availability indexes
+    private void indexRoom(Room room) {
+        String key = typeKey(room.getRoomType());
+        roomsByNumber.put(room.getRoomNumber(), room);
+        roomsByType.computeIfAbsent(key, k -> new TreeMap<>()).put(room.getRoomNumber(), room);
+        availableRoomsByType.computeIfAbsent(key, k -> new TreeMap<>());
+        if (room.isAvailable()) {
+            availableRoomsByType.get(key).put(room.getRoomNumber(), room);
+            availableRoomCount++;
+        }
+        highestRoomNumber = Math.max(highestRoomNumber, room.getRoomNumber());
+    }
+
+    // REQUIRES: caller holds the write lock and room.isAvailable() != available
+    // MODIFIES: this, room
+    // EFFECTS: flips the room's availability and updates the availability index and counter
+    private void updateAvailability(Room room, boolean available) {
+        room.setAvailable(available);
+        TreeMap<Integer, Room> availableOfType = availableRoomsByType.get(typeKey(room.getRoomType()));
+        if (available) {
+            availableOfType.put(room.getRoomNumber(), room);
+            availableRoomCount++;
         } else {
-            return false;
+            availableOfType.remove(room.getRoomNumber());
+            availableRoomCount--;
         }
     }
 
+    // EFFECTS: runs reader without locking and returns its result if no write happened
+    // meanwhile; otherwise (or if the read tripped over a concurrent update) reruns it
+    // under the read lock
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Torn read of an index mid-update; fall through to the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // EFFECTS: returns the case-insensitive index key for a room type
+    private static String typeKey(String roomType) {
+        return roomType == null ? "" : roomType.toLowerCase();
+    }
+
     // EFFECTS: Converts this Hotel object into a JSON representation
     @Override
     public JSONObject toJson() {
@@ -225,7 +378,7 @@ public class Hotel implements Writable {
         json.put("name", name);
         json.put("location", location);
         JSONArray roomsJson = new JSONArray();
-        for (Room room : rooms) {
+        for (Room room : getAllRooms()) {
             roomsJson.put(room.toJson());
         }
         json.put("rooms", roomsJson);
@@ -6,6 +6,7 @@ public enum NotificationType {
     PAYMENT_CONFIRMATION("Payment Confirmation"),
     PAYMENT_FAILURE("Payment Failure"),
     ROOM_AVAILABILITY("Room Availability"),
+    WAITLIST_OFFER("Waitlist Offer"),
     PROMOTIONAL("Promotional Offer"),
     SYSTEM_MAINTENANCE("System Maintenance"),
     WELCOME("Welcome Message");
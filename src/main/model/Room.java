@@ -14,7 +14,7 @@ import persistence.Writable;
  * price --- The nightly price of the room.
  */
 
-public class Room implements Writable {
+public class Room implements Writable, Versioned {
 
     private int roomNumber;
     private String roomType;
@@ -24,6 +24,7 @@ public class Room implements Writable {
     private int maxOccupancy;
     private int size; // in square feet
     private String description;
+    private long version; // bumped by the repository on every save
 
     // EFFECTS: Initializes a new room with default availability set to true and an
     // empty list of amenities.
@@ -86,6 +87,16 @@ public class Room implements Writable {
         this.description = description;
     }
 
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     // REQUIRES: room must exist
     // MODIFIES: this
     // EFFECTS: changes the rooms availibility status to available.
@@ -118,6 +129,19 @@ public class Room implements Writable {
 
     }
 
+    // MODIFIES: this
+    // EFFECTS: adds every amenity not already present without recording a log
+    // event; used when restoring saved rooms
+
+    public void restoreAmenities(List<String> restored) {
+
+        for (String amenity : restored) {
+            if (!amenities.contains(amenity)) {
+                amenities.add(amenity);
+            }
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: removes an amenity from the room and records the log
 
@@ -0,0 +1,10 @@
+package model;
+
+/**
+ * An entity carrying a version stamp. Repositories bump the version on every
+ * save so writers can detect that the entity changed since they read it.
+ */
+public interface Versioned {
+    long getVersion();
+    void setVersion(long version);
+}
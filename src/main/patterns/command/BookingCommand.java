@@ -2,9 +2,14 @@ package patterns.command;
 
 import model.Booking;
 import model.BookingStatus;
+import repository.BookingRepository;
+import java.time.LocalDate;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 public class BookingCommand implements Command {
+    private static final String JOURNAL_TYPE = "BOOKING";
+
     private final Booking booking;
     private final Consumer<Booking> executeAction;
     private BookingStatus previousStatus;
@@ -32,4 +37,39 @@ public class BookingCommand implements Command {
         return "Booking command for Room " + booking.getRoomNumber() + 
                " by User " + booking.getUserId();
     }
-}
\ No newline at end of file
+
+    // Booking ids are reassigned when data is reloaded, so the booking is journaled by user, room and dates
+    @Override
+    public String toJournalEntry() {
+        return String.join("\t", JOURNAL_TYPE, String.valueOf(booking.getUserId()), 
+                          String.valueOf(booking.getRoomNumber()), String.valueOf(booking.getCheckInDate()),
+                          String.valueOf(booking.getCheckOutDate()), String.valueOf(previousStatus),
+                          String.valueOf(booking.getBookingStatus()));
+    }
+
+    // Rebuilds a journaled booking command against the reloaded booking, if it still exists
+    public static Optional<Command> fromJournalEntry(String entry, BookingRepository bookingRepository) {
+        String[] fields = entry.split("\t");
+        if (fields.length != 7 || !JOURNAL_TYPE.equals(fields[0])) {
+            return Optional.empty();
+        }
+        try {
+            Long userId = Long.valueOf(fields[1]);
+            LocalDate checkIn = LocalDate.parse(fields[3]);
+            LocalDate checkOut = LocalDate.parse(fields[4]);
+            BookingStatus executedStatus = BookingStatus.valueOf(fields[6]);
+            return bookingRepository.findByRoomNumber(Integer.parseInt(fields[2])).stream()
+                    .filter(booking -> userId.equals(booking.getUserId())
+                            && checkIn.equals(booking.getCheckInDate())
+                            && checkOut.equals(booking.getCheckOutDate()))
+                    .findFirst()
+                    .map(booking -> {
+                        BookingCommand command = new BookingCommand(booking, b -> b.setBookingStatus(executedStatus));
+                        command.previousStatus = "null".equals(fields[5]) ? null : BookingStatus.valueOf(fields[5]);
+                        return command;
+                    });
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -4,4 +4,9 @@ public interface Command {
     void execute();
     void undo();
     String getDescription();
-}
\ No newline at end of file
+
+    // Single-line form written to the CommandJournal; null if the command cannot be restored after a restart
+    default String toJournalEntry() {
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package patterns.command;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring of executed commands with a redo tail. Pushing, undoing and redoing
+ * are O(1) index moves; once full, the oldest entry is overwritten in place instead of
+ * shifting the array. Undone commands stay in their slots after the top so they can be
+ * redone until the next push discards them. Mutations must be serialized by the caller;
+ * the counters are volatile so size queries need no lock.
+ */
+public class CommandHistory {
+    private final Command[] slots;
+    private volatile long top;      // Total pushes minus undos; next push goes to slot top % capacity
+    private volatile int size;      // Undoable entries below top
+    private volatile int redoable;  // Undone entries at and above top
+
+    public CommandHistory(int capacity) {
+        this.slots = new Command[capacity];
+    }
+
+    public void push(Command command) {
+        slots[slot(top)] = command;
+        // Redo entries sitting above the new top can no longer be redone
+        for (int i = 1; i < redoable; i++) {
+            slots[slot(top + i)] = null;
+        }
+        redoable = 0;
+        size = Math.min(size + 1, slots.length);
+        top++;
+    }
+
+    // Moves the newest command to the redo tail and returns it, or null if there is none
+    public Command popForUndo() {
+        if (size == 0) {
+            return null;
+        }
+        Command command = slots[slot(top - 1)];
+        size--;
+        redoable++;
+        top--;
+        return command;
+    }
+
+    // Moves the most recently undone command back onto the history and returns it
+    public Command popForRedo() {
+        if (redoable == 0) {
+            return null;
+        }
+        Command command = slots[slot(top)];
+        redoable--;
+        size++;
+        top++;
+        return command;
+    }
+
+    public Command peek() {
+        return size == 0 ? null : slots[slot(top - 1)];
+    }
+
+    public Command peekRedo() {
+        return redoable == 0 ? null : slots[slot(top)];
+    }
+
+    // Undoable commands, oldest first, followed by redoable ones in redo order
+    public Command[] toArray() {
+        Command[] commands = new Command[size + redoable];
+        long first = top - size;
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = slots[slot(first + i)];
+        }
+        return commands;
+    }
+
+    public int size() { return size; }
+    public int redoSize() { return redoable; }
+    public int capacity() { return slots.length; }
+
+    public void clear() {
+        Arrays.fill(slots, null);
+        top = 0;
+        size = 0;
+        redoable = 0;
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) slots.length);
+    }
+}
@@ -1,48 +1,81 @@
 package patterns.command;
 
-import java.util.Stack;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Function;
 
 public class CommandInvoker {
-    private final Stack<Command> commandHistory;
+    private final CommandHistory commandHistory;
     private final int maxHistorySize;
+    private CommandJournal journal;
 
     public CommandInvoker() {
         this(100); // Default max history size
     }
 
     public CommandInvoker(int maxHistorySize) {
-        this.commandHistory = new Stack<>();
+        this.commandHistory = new CommandHistory(maxHistorySize);
         this.maxHistorySize = maxHistorySize;
     }
 
-    public void executeCommand(Command command) {
+    // Restores undo/redo history from the journal at journalPath and keeps journaling from now on.
+    // The decoder turns a journal entry back into a command, or returns null if it no longer applies.
+    public synchronized void enableJournal(Path journalPath, Function<String, Command> decoder) throws IOException {
+        CommandJournal restored = new CommandJournal(journalPath);
+        commandHistory.clear();
+        restored.replayInto(commandHistory, decoder);
+        this.journal = restored;
+    }
+
+    public synchronized void executeCommand(Command command) {
         command.execute();
         
-        // Add to history
+        // Add to history; once full the oldest command is overwritten in place
         commandHistory.push(command);
-        
-        // Maintain history size limit
-        if (commandHistory.size() > maxHistorySize) {
-            commandHistory.remove(0); // Remove oldest command
+        journal(() -> journal.appendExecute(command));
+    }
+
+    public synchronized boolean undoLastCommand() {
+        Command lastCommand = commandHistory.popForUndo();
+        if (lastCommand == null) {
+            return false;
         }
+        lastCommand.undo();
+        journal(() -> journal.appendUndo());
+        return true;
     }
 
-    public boolean undoLastCommand() {
-        if (!commandHistory.isEmpty()) {
-            Command lastCommand = commandHistory.pop();
-            lastCommand.undo();
-            return true;
+    // Undoes up to count commands, newest first, and returns how many were undone
+    public synchronized int undoLastCommands(int count) {
+        int undone = 0;
+        while (undone < count && undoLastCommand()) {
+            undone++;
         }
-        return false;
+        return undone;
+    }
+
+    public synchronized boolean redoLastCommand() {
+        Command command = commandHistory.popForRedo();
+        if (command == null) {
+            return false;
+        }
+        command.execute();
+        journal(() -> journal.appendRedo());
+        return true;
     }
 
     public boolean canUndo() {
-        return !commandHistory.isEmpty();
+        return commandHistory.size() > 0;
+    }
+
+    public boolean canRedo() {
+        return commandHistory.redoSize() > 0;
     }
 
     public String getLastCommandDescription() {
-        if (!commandHistory.isEmpty()) {
-            return commandHistory.peek().getDescription();
+        Command lastCommand = commandHistory.peek();
+        if (lastCommand != null) {
+            return lastCommand.getDescription();
         }
         return "No commands in history";
     }
@@ -51,7 +84,37 @@ public class CommandInvoker {
         return commandHistory.size();
     }
 
-    public void clearHistory() {
+    public int getMaxHistorySize() {
+        return maxHistorySize;
+    }
+
+    public synchronized void clearHistory() {
         commandHistory.clear();
+        journal(() -> journal.compact(commandHistory));
+    }
+
+    public synchronized void close() {
+        journal(() -> journal.close());
+    }
+
+    private void journal(JournalWrite write) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            write.run();
+            // Once a ring's worth of lines has been appended the history has wrapped, and the file
+            // mostly describes commands it no longer holds, so rewrite it down to the live history
+            if (journal.getAppendedSinceCompaction() >= commandHistory.capacity()) {
+                journal.compact(commandHistory);
+            }
+        } catch (IOException e) {
+            // History in memory stays correct; only restart recovery of this step is lost
+            System.err.println("Error writing command journal: " + e.getMessage());
+        }
+    }
+
+    private interface JournalWrite {
+        void run() throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package patterns.command;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+/**
+ * Append-only journal of command history operations, one line each: "E" plus the command's
+ * journal entry when a command is executed, "U" for undo and "R" for redo. Replaying the
+ * lines into a CommandHistory rebuilds the undo/redo state after a restart; the commands'
+ * effects themselves are not re-applied since they are already part of the saved data.
+ */
+public class CommandJournal implements Closeable {
+    private static final String EXECUTE = "E";
+    private static final String UNDO = "U";
+    private static final String REDO = "R";
+
+    private final Path path;
+    private BufferedWriter writer;
+    private int appendedSinceCompaction;
+
+    public CommandJournal(Path path) {
+        this.path = path;
+    }
+
+    // Rebuilds the history from the journal, then compacts the file down to what the history still holds
+    public void replayInto(CommandHistory history, Function<String, Command> decoder) throws IOException {
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(EXECUTE)) {
+                        String entry = line.length() > 2 ? unescape(line.substring(2)) : "";
+                        Command command = entry.isEmpty() ? null : decoder.apply(entry);
+                        history.push(command != null ? command : new UnrestorableCommand(entry));
+                    } else if (line.equals(UNDO)) {
+                        history.popForUndo();
+                    } else if (line.equals(REDO)) {
+                        history.popForRedo();
+                    }
+                }
+            }
+        }
+        compact(history);
+    }
+
+    public void appendExecute(Command command) throws IOException {
+        String entry = command.toJournalEntry();
+        append(EXECUTE + "\t" + (entry == null ? "" : escape(entry)));
+    }
+
+    public void appendUndo() throws IOException {
+        append(UNDO);
+    }
+
+    public void appendRedo() throws IOException {
+        append(REDO);
+    }
+
+    // Rewrites the journal as the minimal sequence of lines that reproduces the history
+    public void compact(CommandHistory history) throws IOException {
+        close();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Command command : history.toArray()) {
+                String entry = command.toJournalEntry();
+                out.write(EXECUTE + "\t" + (entry == null ? "" : escape(entry)));
+                out.newLine();
+            }
+            for (int i = 0; i < history.redoSize(); i++) {
+                out.write(UNDO);
+                out.newLine();
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        appendedSinceCompaction = 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Lines appended since the file was last compacted, i.e. how far it may have grown past the history
+    public int getAppendedSinceCompaction() {
+        return appendedSinceCompaction;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void append(String line) throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(line);
+        writer.newLine();
+        writer.flush();
+        appendedSinceCompaction++;
+    }
+
+    private static String escape(String entry) {
+        return entry.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String unescape(String entry) {
+        StringBuilder result = new StringBuilder(entry.length());
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (c == '\\' && i + 1 < entry.length()) {
+                char next = entry.charAt(++i);
+                result.append(next == 'n' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    // Stands in for a journaled command that can no longer be rebuilt, so undo/redo positions still line up
+    private static class UnrestorableCommand implements Command {
+        private final String entry;
+
+        UnrestorableCommand(String entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void execute() { }
+
+        @Override
+        public void undo() { }
+
+        @Override
+        public String getDescription() {
+            return entry.isEmpty() ? "Command from a previous session" : "Command from a previous session: " + entry;
+        }
+
+        @Override
+        public String toJournalEntry() {
+            return entry;
+        }
+    }
+}
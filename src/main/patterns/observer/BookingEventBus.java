@@ -0,0 +1,311 @@
+package patterns.observer;
+
+import model.Booking;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous fan-out of booking events. Each subscriber gets its own queue and a
+ * consumer thread that drains it in batches, so events reach a subscriber in publish
+ * order while a slow subscriber only delays itself. publish() never runs observer code,
+ * and observers get an immutable snapshot of the booking as it was when published.
+ *
+ * Plain subscribe() gives a bounded queue that makes the publisher wait up to the block
+ * timeout when it is full; the BackpressurePolicy can instead drop the newest or oldest
+ * event, and every drop is counted in the stats and logged. Observers that keep state
+ * (waitlist, inventory counters) go wrong for good if they miss one event, so they opt
+ * into an unbounded queue with subscribeUnbounded().
+ */
+public class BookingEventBus {
+    public enum BackpressurePolicy { UNBOUNDED, BLOCK, DROP_NEWEST, DROP_OLDEST }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final long DEFAULT_BLOCK_TIMEOUT_MS = 100;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int batchSize;
+    private final long blockTimeoutMs;
+    private volatile boolean running = true;
+
+    public BookingEventBus() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_BLOCK_TIMEOUT_MS);
+    }
+
+    public BookingEventBus(int batchSize, long blockTimeoutMs) {
+        this.batchSize = batchSize;
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    public void subscribe(BookingObserver observer) {
+        subscribe(observer, DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+    }
+
+    // Lossless, at the cost of unbounded memory if the observer falls behind
+    public void subscribeUnbounded(BookingObserver observer) {
+        subscribe(observer, DEFAULT_CAPACITY, BackpressurePolicy.UNBOUNDED);
+    }
+
+    // capacity is ignored for UNBOUNDED
+    public void subscribe(BookingObserver observer, int capacity, BackpressurePolicy policy) {
+        Subscriber subscriber = new Subscriber(observer, capacity, policy);
+        subscribers.add(subscriber);
+        subscriber.start();
+    }
+
+    public void unsubscribe(BookingObserver observer) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.observer == observer) {
+                subscribers.remove(subscriber);
+                subscriber.stop();
+            }
+        }
+    }
+
+    public void publish(Booking booking, String eventType) {
+        if (!running) {
+            return;
+        }
+        BookingEvent event = new BookingEvent(sequence.incrementAndGet(), booking.snapshot(), eventType, System.nanoTime());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    // Waits until every subscriber has handled everything published so far
+    public boolean flush(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Subscriber subscriber : subscribers) {
+            long target = subscriber.enqueued.get();
+            while (subscriber.settled() < target) {
+                if (System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+        }
+        return true;
+    }
+
+    public List<SubscriberStats> getStats() {
+        List<SubscriberStats> stats = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            stats.add(subscriber.stats());
+        }
+        return stats;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Stops accepting events, lets subscribers drain what is queued, then stops their threads
+    public void shutdown() {
+        running = false;
+        try {
+            flush(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.stop();
+        }
+        subscribers.clear();
+    }
+
+    private class Subscriber implements Runnable {
+        private final BookingObserver observer;
+        private final BlockingQueue<BookingEvent> queue;
+        private final BackpressurePolicy policy;
+        private final Thread consumer;
+        private final AtomicLong enqueued = new AtomicLong();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder(); // Never queued: queue full
+        private final LongAdder evicted = new LongAdder();  // Queued, then pushed out by a newer event
+        private final LongAdder batches = new LongAdder();
+        private final AtomicLong maxLagNanos = new AtomicLong();
+        private final AtomicLong lastLagNanos = new AtomicLong();
+        private volatile boolean active = true;
+
+        Subscriber(BookingObserver observer, int capacity, BackpressurePolicy policy) {
+            this.observer = observer;
+            this.queue = policy == BackpressurePolicy.UNBOUNDED
+                ? new LinkedBlockingQueue<>() : new ArrayBlockingQueue<>(capacity);
+            this.policy = policy;
+            this.consumer = new Thread(this, "booking-events-" + observer.getClass().getSimpleName());
+            this.consumer.setDaemon(true);
+        }
+
+        void start() {
+            consumer.start();
+        }
+
+        void stop() {
+            active = false;
+            consumer.interrupt();
+        }
+
+        void offer(BookingEvent event) {
+            boolean queued;
+            switch (policy) {
+                case DROP_NEWEST:
+                    queued = queue.offer(event);
+                    break;
+                case DROP_OLDEST:
+                    while (!(queued = queue.offer(event))) {
+                        BookingEvent oldest = queue.poll();
+                        if (oldest != null) {
+                            evicted.increment();
+                            logDrop(oldest, "evicted by a newer event");
+                        }
+                    }
+                    break;
+                case UNBOUNDED:
+                    queued = queue.offer(event);
+                    break;
+                default:
+                    try {
+                        queued = queue.offer(event, blockTimeoutMs, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        queued = false;
+                        Thread.currentThread().interrupt();
+                    }
+            }
+            if (queued) {
+                enqueued.incrementAndGet();
+            } else {
+                rejected.increment();
+                logDrop(event, "queue full");
+            }
+        }
+
+        private void logDrop(BookingEvent event, String reason) {
+            System.err.println("Booking observer " + observer.getClass().getSimpleName() + " dropped "
+                             + event.getEventType() + " #" + event.getSequence() + " (" + reason + ")");
+        }
+
+        // Queued events that are no longer pending: handled by the observer or evicted
+        long settled() {
+            return delivered.sum() + failed.sum() + evicted.sum();
+        }
+
+        @Override
+        public void run() {
+            List<BookingEvent> batch = new ArrayList<>(batchSize);
+            while (active) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    batches.increment();
+                    for (BookingEvent event : batch) {
+                        deliver(event);
+                    }
+                } catch (InterruptedException e) {
+                    if (!active) {
+                        return;
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void deliver(BookingEvent event) {
+            try {
+                observer.onBookingUpdate(event.getBooking(), event.getEventType());
+                delivered.increment();
+            } catch (Throwable e) {
+                // Any failure, Errors included, costs this event only; the consumer thread keeps going
+                failed.increment();
+                System.err.println("Booking observer " + observer.getClass().getSimpleName() 
+                                 + " failed on " + event.getEventType() + ": " + e.getMessage());
+            }
+            long lag = System.nanoTime() - event.getPublishedAtNanos();
+            lastLagNanos.set(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+        }
+
+        SubscriberStats stats() {
+            return new SubscriberStats(observer.getClass().getSimpleName(), policy, queue.size(),
+                    queue.remainingCapacity(), delivered.sum(), rejected.sum() + evicted.sum(), failed.sum(), 
+                    batches.sum(), Math.max(0, enqueued.get() - settled()), lastLagNanos.get(), maxLagNanos.get());
+        }
+    }
+
+    public static class BookingEvent {
+        private final long sequence;
+        private final Booking booking;
+        private final String eventType;
+        private final long publishedAtNanos;
+
+        BookingEvent(long sequence, Booking booking, String eventType, long publishedAtNanos) {
+            this.sequence = sequence;
+            this.booking = booking;
+            this.eventType = eventType;
+            this.publishedAtNanos = publishedAtNanos;
+        }
+
+        public long getSequence() { return sequence; }
+        public Booking getBooking() { return booking; }
+        public String getEventType() { return eventType; }
+        public long getPublishedAtNanos() { return publishedAtNanos; }
+    }
+
+    public static class SubscriberStats {
+        private final String subscriber;
+        private final BackpressurePolicy policy;
+        private final int queued;
+        private final int remainingCapacity;
+        private final long delivered;
+        private final long dropped;
+        private final long failed;
+        private final long batches;
+        private final long lagEvents;
+        private final long lastLagNanos;
+        private final long maxLagNanos;
+
+        SubscriberStats(String subscriber, BackpressurePolicy policy, int queued, int remainingCapacity,
+                        long delivered, long dropped, long failed, long batches,
+                        long lagEvents, long lastLagNanos, long maxLagNanos) {
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.queued = queued;
+            this.remainingCapacity = remainingCapacity;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.failed = failed;
+            this.batches = batches;
+            this.lagEvents = lagEvents;
+            this.lastLagNanos = lastLagNanos;
+            this.maxLagNanos = maxLagNanos;
+        }
+
+        public String getSubscriber() { return subscriber; }
+        public BackpressurePolicy getPolicy() { return policy; }
+        public int getQueued() { return queued; }
+        public int getRemainingCapacity() { return remainingCapacity; }
+        public long getDelivered() { return delivered; }
+        public long getDropped() { return dropped; }
+        public long getFailed() { return failed; }
+        public long getBatches() { return batches; }
+        // Events queued for this subscriber that it has not handled yet
+        public long getLagEvents() { return lagEvents; }
+        public double getLastLagMillis() { return lastLagNanos / 1_000_000.0; }
+        public double getMaxLagMillis() { return maxLagNanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s] queued=%d delivered=%d dropped=%d failed=%d lag=%d events, max lag=%.2fms",
+                               subscriber, policy, queued, delivered, dropped, failed, lagEvents, getMaxLagMillis());
+        }
+    }
+}
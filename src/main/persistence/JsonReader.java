@@ -7,6 +7,8 @@ import org.json.JSONObject;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a reader that reads a hotel from JSON data stored in a file.
@@ -30,25 +32,21 @@ public class JsonReader {
         return parseHotel(jsonObject);
     }
 
-    // EFFECTS: parses hotel from JSON object and returns it
+    // EFFECTS: parses hotel from JSON object and returns it; rooms keep their
+    // saved numbers and are indexed in a single pass without per-room logging
     private Hotel parseHotel(JSONObject jsonObject) {
         String name = jsonObject.getString("name");
         String location = jsonObject.getString("location");
-        Hotel hotel = new Hotel(name, location);
-        hotel.getAllRooms().clear();
-        addRooms(hotel, jsonObject.getJSONArray("rooms"));
-        return hotel;
+        return Hotel.restore(name, location, parseRooms(jsonObject.getJSONArray("rooms")));
     }
 
-    // MODIFIES: hotel
-    // EFFECTS: parses rooms from JSON array and adds them to hotel
-    private void addRooms(Hotel hotel, JSONArray roomsArray) {
+    // EFFECTS: parses rooms from JSON array in their saved order
+    private List<Room> parseRooms(JSONArray roomsArray) {
+        List<Room> rooms = new ArrayList<>(roomsArray.length());
         for (int i = 0; i < roomsArray.length(); i++) {
-            JSONObject roomJson = roomsArray.getJSONObject(i);
-            Room room = parseRoom(roomJson);
-            hotel.addRoom(room.getRoomType(), room.getPrice());
-            hotel.getRoom(room.getRoomNumber()).setAvailable(room.isAvailable());
+            rooms.add(parseRoom(roomsArray.getJSONObject(i)));
         }
+        return rooms;
     }
 
     // EFFECTS: parses a room from JSON object and returns it
@@ -60,11 +58,16 @@ public class JsonReader {
 
         Room room = new Room(roomNumber, roomType, price);
         room.setAvailable(isAvailable);
+        room.setMaxOccupancy(jsonObject.optInt("maxOccupancy"));
+        room.setSize(jsonObject.optInt("size"));
+        room.setDescription(jsonObject.optString("description", null));
 
         JSONArray amenitiesJson = jsonObject.getJSONArray("amenities");
+        List<String> amenities = new ArrayList<>(amenitiesJson.length());
         for (int i = 0; i < amenitiesJson.length(); i++) {
-            room.addAmenity(amenitiesJson.getString(i));
+            amenities.add(amenitiesJson.getString(i));
         }
+        room.restoreAmenities(amenities);
 
         return room;
     }
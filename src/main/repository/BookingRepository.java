@@ -1,12 +1,20 @@
 package repository;
 
 import model.Booking;
+import model.BookingStatus;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
-public interface BookingRepository extends Repository<Booking, Long> {
+public interface BookingRepository extends VersionedRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
     List<Booking> findByRoomNumber(int roomNumber);
+    List<Booking> findByStatus(BookingStatus status);
     List<Booking> findConflictingBookings(int roomNumber, LocalDate checkIn, LocalDate checkOut);
     List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate);
+
+    // Fenced save for writes made under a room lease: applies the change and saves only if
+    // fencingToken is not older than a token already used to write to the booking's room,
+    // otherwise throws StaleFencingTokenException and leaves the booking untouched
+    Booking saveFenced(Booking booking, long fencingToken, Consumer<Booking> change);
 }
\ No newline at end of file
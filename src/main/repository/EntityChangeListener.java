@@ -0,0 +1,10 @@
+package repository;
+
+// Notified after a repository write has been applied, on the writing thread. Listeners
+// should be quick and must not write back to the repository that notified them.
+public interface EntityChangeListener<T, ID> {
+    // created is true when the save inserted the entity rather than updating a stored one
+    void onSaved(ID id, T entity, boolean created);
+
+    void onDeleted(ID id, T entity);
+}
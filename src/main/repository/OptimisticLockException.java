@@ -0,0 +1,21 @@
+package repository;
+
+public class OptimisticLockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Object entityId;
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public OptimisticLockException(String entityType, Object entityId, long expectedVersion, long actualVersion) {
+        super(String.format("%s %s was modified concurrently (expected version %d, found %d)", 
+                          entityType, entityId, expectedVersion, actualVersion));
+        this.entityId = entityId;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public Object getEntityId() { return entityId; }
+    public long getExpectedVersion() { return expectedVersion; }
+    public long getActualVersion() { return actualVersion; }
+}
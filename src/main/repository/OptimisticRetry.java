@@ -0,0 +1,31 @@
+package repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a read-check-compareAndSave operation when it loses a version race.
+ * The operation must re-read the entity on every attempt.
+ */
+public final class OptimisticRetry {
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private OptimisticRetry() {
+    }
+
+    public static <T> T withRetry(Supplier<T> operation) {
+        return withRetry(DEFAULT_MAX_ATTEMPTS, operation);
+    }
+
+    public static <T> T withRetry(int maxAttempts, Supplier<T> operation) {
+        OptimisticLockException lastConflict = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockException e) {
+                lastConflict = e;
+                Thread.yield(); // Let the winning writer finish before re-reading
+            }
+        }
+        throw lastConflict;
+    }
+}
@@ -11,4 +11,10 @@ public interface Repository<T, ID> {
     void delete(T entity);
     boolean exists(ID id);
     long count();
+
+    // Registers a listener notified after every save and delete, including compare-and-set and fenced
+    // saves, so caches built over the repository stay correct whoever does the writing
+    void addChangeListener(EntityChangeListener<T, ID> listener);
+
+    void removeChangeListener(EntityChangeListener<T, ID> listener);
 }
\ No newline at end of file
@@ -4,8 +4,9 @@ import model.Room;
 import java.util.List;
 import java.util.Optional;
 
-public interface RoomRepository extends Repository<Room, Long> {
+public interface RoomRepository extends VersionedRepository<Room, Long> {
     Optional<Room> findByRoomNumber(int roomNumber);
+    Optional<Long> findIdByRoomNumber(int roomNumber);
     List<Room> findByRoomType(String roomType);
     List<Room> findAvailableRooms();
     List<Room> findAvailableRoomsByType(String roomType);
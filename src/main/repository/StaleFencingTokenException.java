@@ -0,0 +1,29 @@
+package repository;
+
+public class StaleFencingTokenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int roomNumber;
+    private final long fencingToken;
+    private final long highestSeenToken;
+
+    public StaleFencingTokenException(int roomNumber, long fencingToken, long highestSeenToken) {
+        super(String.format("Write for room %d rejected: fencing token %d is older than %d", 
+                          roomNumber, fencingToken, highestSeenToken));
+        this.roomNumber = roomNumber;
+        this.fencingToken = fencingToken;
+        this.highestSeenToken = highestSeenToken;
+    }
+
+    // The writer holds no lease on the room at all, e.g. it expired and was reaped
+    public StaleFencingTokenException(int roomNumber) {
+        super(String.format("Write for room %d rejected: caller no longer holds the room lease", roomNumber));
+        this.roomNumber = roomNumber;
+        this.fencingToken = -1;
+        this.highestSeenToken = -1;
+    }
+
+    public int getRoomNumber() { return roomNumber; }
+    public long getFencingToken() { return fencingToken; }
+    public long getHighestSeenToken() { return highestSeenToken; }
+}
@@ -0,0 +1,10 @@
+package repository;
+
+import java.util.function.Consumer;
+
+// A repository whose entities carry a version, so writers can update them optimistically
+public interface VersionedRepository<T, ID> extends Repository<T, ID> {
+    // Compare-and-set save: applies the change and saves only if the stored version still equals
+    // expectedVersion, otherwise throws OptimisticLockException
+    T compareAndSave(ID id, long expectedVersion, Consumer<T> change);
+}
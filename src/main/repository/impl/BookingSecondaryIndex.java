@@ -0,0 +1,103 @@
+package repository.impl;
+
+import model.Booking;
+import model.BookingStatus;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent secondary indexes for a booking store: userId, roomNumber and
+ * BookingStatus to booking ids. The keys each booking was indexed under are
+ * remembered, so a booking whose user, room or status changed in place between
+ * saves is moved on the next {@link #index(Booking)}. New keys are added before
+ * stale ones are removed, so a concurrent reader never misses a booking; callers
+ * re-check the live field when resolving ids.
+ */
+public class BookingSecondaryIndex {
+    private final Map<Long, Set<Long>> idsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Long>> idsByRoom = new ConcurrentHashMap<>();
+    private final Map<BookingStatus, Set<Long>> idsByStatus = new EnumMap<>(BookingStatus.class);
+    private final Map<Long, IndexKeys> indexedKeys = new ConcurrentHashMap<>();
+
+    public BookingSecondaryIndex() {
+        for (BookingStatus status : BookingStatus.values()) {
+            idsByStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    public void index(Booking booking) {
+        if (booking.getId() == null) {
+            return;
+        }
+        IndexKeys current = new IndexKeys(booking.getUserId(), booking.getRoomNumber(), booking.getBookingStatus());
+        indexedKeys.compute(booking.getId(), (id, previous) -> {
+            add(id, current);
+            if (previous != null) {
+                removeStale(id, previous, current);
+            }
+            return current;
+        });
+    }
+
+    public void remove(Long bookingId) {
+        if (bookingId == null) {
+            return;
+        }
+        indexedKeys.computeIfPresent(bookingId, (id, previous) -> {
+            removeStale(id, previous, null);
+            return null;
+        });
+    }
+
+    public Set<Long> idsForUser(Long userId) {
+        return idsByUser.getOrDefault(userId, Collections.emptySet());
+    }
+
+    public Set<Long> idsForRoom(int roomNumber) {
+        return idsByRoom.getOrDefault(roomNumber, Collections.emptySet());
+    }
+
+    public Set<Long> idsForStatus(BookingStatus status) {
+        return idsByStatus.get(status);
+    }
+
+    private void add(Long id, IndexKeys keys) {
+        if (keys.userId != null) {
+            idsByUser.computeIfAbsent(keys.userId, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        idsByRoom.computeIfAbsent(keys.roomNumber, k -> ConcurrentHashMap.newKeySet()).add(id);
+        if (keys.status != null) {
+            idsByStatus.get(keys.status).add(id);
+        }
+    }
+
+    private void removeStale(Long id, IndexKeys previous, IndexKeys current) {
+        if (previous.userId != null && (current == null || !previous.userId.equals(current.userId))) {
+            Set<Long> ids = idsByUser.get(previous.userId);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+        if (current == null || previous.roomNumber != current.roomNumber) {
+            Set<Long> ids = idsByRoom.get(previous.roomNumber);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+        if (previous.status != null && (current == null || previous.status != current.status)) {
+            idsByStatus.get(previous.status).remove(id);
+        }
+    }
+
+    private static class IndexKeys {
+        private final Long userId;
+        private final int roomNumber;
+        private final BookingStatus status;
+
+        IndexKeys(Long userId, int roomNumber, BookingStatus status) {
+            this.userId = userId;
+            this.roomNumber = roomNumber;
+            this.status = status;
+        }
+    }
+}
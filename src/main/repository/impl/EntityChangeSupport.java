@@ -0,0 +1,44 @@
+package repository.impl;
+
+import repository.EntityChangeListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Listener registry shared by the in-memory repositories. Writes fire after the
+ * store has been updated and outside any map, tree or fencing-guard lock (fenced
+ * saves are admitted by the guard first and then saved normally), so a listener can
+ * read the repository back. A failing listener is logged and skipped: the write has
+ * already happened and must not be reported as failed to the caller.
+ */
+public class EntityChangeSupport<T, ID> {
+    private final List<EntityChangeListener<T, ID>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(EntityChangeListener<T, ID> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EntityChangeListener<T, ID> listener) {
+        listeners.remove(listener);
+    }
+
+    public void fireSaved(ID id, T entity, boolean created) {
+        for (EntityChangeListener<T, ID> listener : listeners) {
+            try {
+                listener.onSaved(id, entity, created);
+            } catch (RuntimeException e) {
+                System.err.println("Entity change listener failed on save of " + id + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void fireDeleted(ID id, T entity) {
+        for (EntityChangeListener<T, ID> listener : listeners) {
+            try {
+                listener.onDeleted(id, entity);
+            } catch (RuntimeException e) {
+                System.err.println("Entity change listener failed on delete of " + id + ": " + e.getMessage());
+            }
+        }
+    }
+}
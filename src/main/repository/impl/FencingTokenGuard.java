@@ -0,0 +1,44 @@
+package repository.impl;
+
+import repository.StaleFencingTokenException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Storage-side half of lease fencing: remembers the highest fencing token that has written
+ * to each room and rejects writes carrying an older one, so a holder whose lease expired
+ * and was re-granted cannot write over what the new holder stored. The token check and
+ * the write run under the room's fence, so a stale holder cannot pass the check and then
+ * land its write after a newer holder's; repositories fire listeners after {@link #write}
+ * returns, outside the fence.
+ */
+public class FencingTokenGuard {
+    private final Map<Integer, RoomFence> fencesByRoom = new ConcurrentHashMap<>();
+
+    // Runs the write if no newer token has written to the room, recording the token as the room's highest
+    public <T> T write(int roomNumber, long fencingToken, Supplier<T> write) {
+        RoomFence fence = fencesByRoom.computeIfAbsent(roomNumber, room -> new RoomFence());
+        synchronized (fence) {
+            if (fencingToken < fence.highestToken) {
+                throw new StaleFencingTokenException(roomNumber, fencingToken, fence.highestToken);
+            }
+            fence.highestToken = fencingToken;
+            return write.get();
+        }
+    }
+
+    public long highestToken(int roomNumber) {
+        RoomFence fence = fencesByRoom.get(roomNumber);
+        if (fence == null) {
+            return 0L;
+        }
+        synchronized (fence) {
+            return fence.highestToken;
+        }
+    }
+
+    private static class RoomFence {
+        private long highestToken;
+    }
+}
@@ -3,22 +3,71 @@ package repository.impl;
 import model.Booking;
 import model.BookingStatus;
 import repository.BookingRepository;
+import repository.EntityChangeListener;
+import repository.OptimisticLockException;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class InMemoryBookingRepository implements BookingRepository {
     private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final BookingSecondaryIndex secondaryIndex = new BookingSecondaryIndex();
+    private final FencingTokenGuard fencingGuard = new FencingTokenGuard();
+    private final RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+    private final EntityChangeSupport<Booking, Long> changeSupport = new EntityChangeSupport<>();
 
     @Override
     public Booking save(Booking booking) {
+        boolean created = store(booking);
+        changeSupport.fireSaved(booking.getId(), booking, created);
+        return booking;
+    }
+
+    // Writes the booking without notifying listeners; returns whether it was inserted
+    private boolean store(Booking booking) {
         if (booking.getId() == null) {
             booking.setId(idGenerator.getAndIncrement());
         }
-        bookings.put(booking.getId(), booking);
+        boolean[] created = new boolean[1];
+        bookings.compute(booking.getId(), (id, current) -> {
+            created[0] = current == null;
+            booking.setVersion(booking.getVersion() + 1);
+            reindex(booking);
+            return booking;
+        });
+        return created[0];
+    }
+
+    @Override
+    public Booking compareAndSave(Long id, long expectedVersion, Consumer<Booking> change) {
+        Booking saved = bookings.computeIfPresent(id, (key, current) -> {
+            if (current.getVersion() != expectedVersion) {
+                throw new OptimisticLockException("Booking", id, expectedVersion, current.getVersion());
+            }
+            change.accept(current);
+            current.setVersion(expectedVersion + 1);
+            reindex(current);
+            return current;
+        });
+        if (saved == null) {
+            throw new OptimisticLockException("Booking", id, expectedVersion, -1);
+        }
+        changeSupport.fireSaved(id, saved, false);
+        return saved;
+    }
+
+    @Override
+    public Booking saveFenced(Booking booking, long fencingToken, Consumer<Booking> change) {
+        boolean created = fencingGuard.write(booking.getRoomNumber(), fencingToken, () -> {
+            change.accept(booking);
+            return store(booking);
+        });
+        changeSupport.fireSaved(booking.getId(), booking, created);
         return booking;
     }
 
@@ -34,13 +83,20 @@ public class InMemoryBookingRepository implements BookingRepository {
 
     @Override
     public boolean deleteById(Long id) {
-        return bookings.remove(id) != null;
+        availabilityIndex.remove(id);
+        secondaryIndex.remove(id);
+        Booking booking = bookings.remove(id);
+        if (booking == null) {
+            return false;
+        }
+        changeSupport.fireDeleted(id, booking);
+        return true;
     }
 
     @Override
     public void delete(Booking booking) {
         if (booking.getId() != null) {
-            bookings.remove(booking.getId());
+            deleteById(booking.getId());
         }
     }
 
@@ -56,30 +112,29 @@ public class InMemoryBookingRepository implements BookingRepository {
 
     @Override
     public List<Booking> findByUserId(Long userId) {
-        return bookings.values().stream()
-                .filter(booking -> booking.getUserId().equals(userId))
-                .collect(Collectors.toList());
+        return resolve(secondaryIndex.idsForUser(userId), booking -> userId.equals(booking.getUserId()));
     }
 
     @Override
     public List<Booking> findByRoomNumber(int roomNumber) {
-        return bookings.values().stream()
-                .filter(booking -> booking.getRoomNumber() == roomNumber)
-                .collect(Collectors.toList());
+        return resolve(secondaryIndex.idsForRoom(roomNumber), booking -> booking.getRoomNumber() == roomNumber);
+    }
+
+    @Override
+    public List<Booking> findByStatus(BookingStatus status) {
+        return resolve(secondaryIndex.idsForStatus(status), booking -> booking.getBookingStatus() == status);
     }
 
     @Override
     public List<Booking> findConflictingBookings(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
-        return bookings.values().stream()
-                .filter(booking -> booking.getRoomNumber() == roomNumber)
+        // Night-level lookup in the availability index instead of scanning every booking
+        if (availabilityIndex.isAvailable(roomNumber, checkIn, checkOut)) {
+            return new ArrayList<>();
+        }
+        return availabilityIndex.findOccupyingBookingIds(roomNumber, checkIn, checkOut).stream()
+                .map(bookings::get)
+                .filter(Objects::nonNull)
                 .filter(booking -> booking.getBookingStatus().isActive())
-                .filter(booking -> {
-                    LocalDate existingCheckIn = booking.getCheckInDate();
-                    LocalDate existingCheckOut = booking.getCheckOutDate();
-                    
-                    // Check for date overlap
-                    return !(checkOut.isBefore(existingCheckIn) || checkIn.isAfter(existingCheckOut) || checkOut.isEqual(existingCheckIn) || checkIn.isEqual(existingCheckOut));
-                })
                 .collect(Collectors.toList());
     }
 
@@ -95,4 +150,27 @@ public class InMemoryBookingRepository implements BookingRepository {
                 })
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public void addChangeListener(EntityChangeListener<Booking, Long> listener) {
+        changeSupport.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(EntityChangeListener<Booking, Long> listener) {
+        changeSupport.removeListener(listener);
+    }
+
+    private void reindex(Booking booking) {
+        availabilityIndex.index(booking);
+        secondaryIndex.index(booking);
+    }
+
+    private List<Booking> resolve(Set<Long> ids, Predicate<Booking> stillMatches) {
+        return ids.stream()
+                .map(bookings::get)
+                .filter(Objects::nonNull)
+                .filter(stillMatches)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package repository.impl;
 
 import model.Notification;
+import repository.EntityChangeListener;
 import repository.NotificationRepository;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -10,13 +11,15 @@ import java.util.stream.Collectors;
 public class InMemoryNotificationRepository implements NotificationRepository {
     private final Map<Long, Notification> notifications = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final EntityChangeSupport<Notification, Long> changeSupport = new EntityChangeSupport<>();
 
     @Override
     public Notification save(Notification notification) {
         if (notification.getId() == null) {
             notification.setId(idGenerator.getAndIncrement());
         }
-        notifications.put(notification.getId(), notification);
+        Notification previous = notifications.put(notification.getId(), notification);
+        changeSupport.fireSaved(notification.getId(), notification, previous == null);
         return notification;
     }
 
@@ -32,13 +35,18 @@ public class InMemoryNotificationRepository implements NotificationRepository {
 
     @Override
     public boolean deleteById(Long id) {
-        return notifications.remove(id) != null;
+        Notification notification = notifications.remove(id);
+        if (notification == null) {
+            return false;
+        }
+        changeSupport.fireDeleted(id, notification);
+        return true;
     }
 
     @Override
     public void delete(Notification notification) {
         if (notification.getId() != null) {
-            notifications.remove(notification.getId());
+            deleteById(notification.getId());
         }
     }
 
@@ -73,4 +81,14 @@ public class InMemoryNotificationRepository implements NotificationRepository {
                 .filter(notification -> !notification.isRead())
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public void addChangeListener(EntityChangeListener<Notification, Long> listener) {
+        changeSupport.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(EntityChangeListener<Notification, Long> listener) {
+        changeSupport.removeListener(listener);
+    }
 }
\ No newline at end of file
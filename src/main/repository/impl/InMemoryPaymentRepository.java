@@ -2,6 +2,7 @@ package repository.impl;
 
 import model.Payment;
 import model.PaymentStatus;
+import repository.EntityChangeListener;
 import repository.PaymentRepository;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -12,16 +13,18 @@ public class InMemoryPaymentRepository implements PaymentRepository {
     private final Map<Long, Payment> payments = new ConcurrentHashMap<>();
     private final Map<String, Payment> paymentsByPaymentId = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final EntityChangeSupport<Payment, Long> changeSupport = new EntityChangeSupport<>();
 
     @Override
     public Payment save(Payment payment) {
         if (payment.getId() == null) {
             payment.setId(idGenerator.getAndIncrement());
         }
-        payments.put(payment.getId(), payment);
+        Payment previous = payments.put(payment.getId(), payment);
         if (payment.getPaymentId() != null) {
             paymentsByPaymentId.put(payment.getPaymentId(), payment);
         }
+        changeSupport.fireSaved(payment.getId(), payment, previous == null);
         return payment;
     }
 
@@ -38,11 +41,14 @@ public class InMemoryPaymentRepository implements PaymentRepository {
     @Override
     public boolean deleteById(Long id) {
         Payment payment = payments.remove(id);
-        if (payment != null && payment.getPaymentId() != null) {
+        if (payment == null) {
+            return false;
+        }
+        if (payment.getPaymentId() != null) {
             paymentsByPaymentId.remove(payment.getPaymentId());
-            return true;
         }
-        return false;
+        changeSupport.fireDeleted(id, payment);
+        return true;
     }
 
     @Override
@@ -87,4 +93,14 @@ public class InMemoryPaymentRepository implements PaymentRepository {
                 .filter(payment -> payment.getStatus() == PaymentStatus.FAILED)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public void addChangeListener(EntityChangeListener<Payment, Long> listener) {
+        changeSupport.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(EntityChangeListener<Payment, Long> listener) {
+        changeSupport.removeListener(listener);
+    }
 }
\ No newline at end of file
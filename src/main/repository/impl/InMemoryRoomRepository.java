@@ -1,33 +1,64 @@
 package repository.impl;
 
 import model.Room;
+import repository.EntityChangeListener;
+import repository.OptimisticLockException;
 import repository.RoomRepository;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class InMemoryRoomRepository implements RoomRepository {
     private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
     private final Map<Integer, Room> roomsByNumber = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> idsByNumber = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final EntityChangeSupport<Room, Long> changeSupport = new EntityChangeSupport<>();
 
     @Override
     public Room save(Room room) {
         if (room instanceof model.Room) {
             model.Room r = (model.Room) room;
-            // Create a unique ID if not set
-            Long id = idGenerator.getAndIncrement();
+            // Reuse the ID of an already stored room so re-saving bumps its version instead of adding a row
+            Long id = idsByNumber.computeIfAbsent(r.getRoomNumber(), k -> idGenerator.getAndIncrement());
             
             // Store in both maps
-            rooms.put(id, room);
-            roomsByNumber.put(r.getRoomNumber(), room);
-            
-            // Room saved successfully
+            boolean[] created = new boolean[1];
+            rooms.compute(id, (key, current) -> {
+                created[0] = current == null;
+                r.setVersion(r.getVersion() + 1);
+                roomsByNumber.put(r.getRoomNumber(), room);
+                return room;
+            });
+            changeSupport.fireSaved(id, room, created[0]);
         }
         return room;
     }
 
+    @Override
+    public Room compareAndSave(Long id, long expectedVersion, Consumer<Room> change) {
+        Room saved = rooms.computeIfPresent(id, (key, current) -> {
+            if (current.getVersion() != expectedVersion) {
+                throw new OptimisticLockException("Room", id, expectedVersion, current.getVersion());
+            }
+            change.accept(current);
+            current.setVersion(expectedVersion + 1);
+            return current;
+        });
+        if (saved == null) {
+            throw new OptimisticLockException("Room", id, expectedVersion, -1);
+        }
+        changeSupport.fireSaved(id, saved, false);
+        return saved;
+    }
+
+    @Override
+    public Optional<Long> findIdByRoomNumber(int roomNumber) {
+        return Optional.ofNullable(idsByNumber.get(roomNumber));
+    }
+
     @Override
     public Optional<Room> findById(Long id) {
         return Optional.ofNullable(rooms.get(id));
@@ -43,6 +74,8 @@ public class InMemoryRoomRepository implements RoomRepository {
         Room room = rooms.remove(id);
         if (room != null && room instanceof model.Room) {
             roomsByNumber.remove(((model.Room) room).getRoomNumber());
+            idsByNumber.remove(((model.Room) room).getRoomNumber());
+            changeSupport.fireDeleted(id, room);
             return true;
         }
         return false;
@@ -51,15 +84,24 @@ public class InMemoryRoomRepository implements RoomRepository {
     @Override
     public void delete(Room room) {
         if (room instanceof model.Room) {
-            model.Room r = (model.Room) room;
             // Find and remove by room number
-            rooms.entrySet().removeIf(entry -> 
-                entry.getValue() instanceof model.Room && 
-                ((model.Room) entry.getValue()).getRoomNumber() == r.getRoomNumber());
-            roomsByNumber.remove(r.getRoomNumber());
+            Long id = idsByNumber.get(((model.Room) room).getRoomNumber());
+            if (id != null) {
+                deleteById(id);
+            }
         }
     }
 
+    @Override
+    public void addChangeListener(EntityChangeListener<Room, Long> listener) {
+        changeSupport.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(EntityChangeListener<Room, Long> listener) {
+        changeSupport.removeListener(listener);
+    }
+
     @Override
     public boolean exists(Long id) {
         return rooms.containsKey(id);
@@ -2,6 +2,7 @@ package repository.impl;
 
 import model.User;
 import auth.Role;
+import repository.EntityChangeListener;
 import repository.UserRepository;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -12,14 +13,16 @@ public class InMemoryUserRepository implements UserRepository {
     private final Map<Long, User> users = new ConcurrentHashMap<>();
     private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final EntityChangeSupport<User, Long> changeSupport = new EntityChangeSupport<>();
 
     @Override
     public User save(User user) {
         if (user.getId() == null) {
             user.setId(idGenerator.getAndIncrement());
         }
-        users.put(user.getId(), user);
+        User previous = users.put(user.getId(), user);
         usersByEmail.put(user.getEmail(), user);
+        changeSupport.fireSaved(user.getId(), user, previous == null);
         return user;
     }
 
@@ -38,6 +41,7 @@ public class InMemoryUserRepository implements UserRepository {
         User user = users.remove(id);
         if (user != null) {
             usersByEmail.remove(user.getEmail());
+            changeSupport.fireDeleted(id, user);
             return true;
         }
         return false;
@@ -76,4 +80,14 @@ public class InMemoryUserRepository implements UserRepository {
     public boolean existsByEmail(String email) {
         return usersByEmail.containsKey(email);
     }
+
+    @Override
+    public void addChangeListener(EntityChangeListener<User, Long> listener) {
+        changeSupport.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(EntityChangeListener<User, Long> listener) {
+        changeSupport.removeListener(listener);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Augmented AVL tree of closed intervals [start, end] over epoch days.
+ * Nodes are ordered by (start, id) and each node carries the maximum end of its
+ * subtree, so overlap queries prune whole subtrees and run in O(log n + k).
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public class IntervalTree<V> {
+    private Node<V> root;
+    private int size;
+
+    public void insert(long start, long end, long id, V value) {
+        root = insert(root, new Node<>(start, end, id, value));
+    }
+
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    // Collects values with start <= high and end >= low
+    public List<V> findOverlapping(long low, long high) {
+        List<V> result = new ArrayList<>();
+        collect(root, low, high, result);
+        return result;
+    }
+
+    public boolean anyOverlapping(long low, long high) {
+        Node<V> node = root;
+        while (node != null) {
+            if (node.start <= high && node.end >= low) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd >= low) {
+                node = node.left;
+            } else {
+                node = node.start <= high ? node.right : null;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private void collect(Node<V> node, long low, long high, List<V> result) {
+        if (node == null || node.maxEnd < low) {
+            return;
+        }
+        collect(node.left, low, high, result);
+        if (node.start > high) {
+            return;
+        }
+        if (node.end >= low) {
+            result.add(node.value);
+        }
+        collect(node.right, low, high, result);
+    }
+
+    private Node<V> insert(Node<V> node, Node<V> fresh) {
+        if (node == null) {
+            size++;
+            return fresh;
+        }
+        int cmp = compare(fresh.start, fresh.id, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, fresh);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, fresh);
+        } else {
+            node.end = fresh.end;
+            node.value = fresh.value;
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> remove(Node<V> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.left = node.left;
+            successor.right = node.right;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> removeMin(Node<V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private int compare(long start, long id, Node<V> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private Node<V> rebalance(Node<V> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private int height(Node<V> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node<V> {
+        private final long start;
+        private final long id;
+        private long end;
+        private long maxEnd;
+        private int height;
+        private V value;
+        private Node<V> left;
+        private Node<V> right;
+
+        Node(long start, long end, long id, V value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+}
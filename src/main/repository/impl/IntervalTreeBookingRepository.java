@@ -0,0 +1,249 @@
+package repository.impl;
+
+import model.Booking;
+import model.BookingStatus;
+import repository.BookingRepository;
+import repository.EntityChangeListener;
+import repository.OptimisticLockException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Booking store backed by interval trees over check-in/check-out epoch days.
+ * A global tree holds every dated booking for date-range queries, and a tree per
+ * room holds only active bookings for conflict checks, so both run in
+ * O(log n + k) instead of scanning the whole store.
+ */
+public class IntervalTreeBookingRepository implements BookingRepository {
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedStay> indexedStays = new HashMap<>();
+    private final IntervalTree<Booking> allBookings = new IntervalTree<>();
+    private final Map<Integer, IntervalTree<Booking>> activeBookingsByRoom = new HashMap<>();
+    private final ReadWriteLock treeLock = new ReentrantReadWriteLock();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private final BookingSecondaryIndex secondaryIndex = new BookingSecondaryIndex();
+    private final FencingTokenGuard fencingGuard = new FencingTokenGuard();
+    private final EntityChangeSupport<Booking, Long> changeSupport = new EntityChangeSupport<>();
+
+    @Override
+    public Booking save(Booking booking) {
+        boolean created = store(booking);
+        changeSupport.fireSaved(booking.getId(), booking, created);
+        return booking;
+    }
+
+    // Writes the booking without notifying listeners; returns whether it was inserted
+    private boolean store(Booking booking) {
+        if (booking.getId() == null) {
+            booking.setId(idGenerator.getAndIncrement());
+        }
+        treeLock.writeLock().lock();
+        try {
+            booking.setVersion(booking.getVersion() + 1);
+            boolean created = bookings.put(booking.getId(), booking) == null;
+            reindex(booking);
+            return created;
+        } finally {
+            treeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Booking compareAndSave(Long id, long expectedVersion, Consumer<Booking> change) {
+        Booking saved;
+        treeLock.writeLock().lock();
+        try {
+            Booking current = bookings.get(id);
+            if (current == null || current.getVersion() != expectedVersion) {
+                throw new OptimisticLockException("Booking", id, expectedVersion, 
+                                                current == null ? -1 : current.getVersion());
+            }
+            change.accept(current);
+            current.setVersion(expectedVersion + 1);
+            reindex(current);
+            saved = current;
+        } finally {
+            treeLock.writeLock().unlock();
+        }
+        changeSupport.fireSaved(id, saved, false);
+        return saved;
+    }
+
+    @Override
+    public Booking saveFenced(Booking booking, long fencingToken, Consumer<Booking> change) {
+        boolean created = fencingGuard.write(booking.getRoomNumber(), fencingToken, () -> {
+            change.accept(booking);
+            return store(booking);
+        });
+        changeSupport.fireSaved(booking.getId(), booking, created);
+        return booking;
+    }
+
+    @Override
+    public Optional<Booking> findById(Long id) {
+        return Optional.ofNullable(bookings.get(id));
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return new ArrayList<>(bookings.values());
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        Booking removed;
+        treeLock.writeLock().lock();
+        try {
+            unindex(id);
+            secondaryIndex.remove(id);
+            removed = bookings.remove(id);
+        } finally {
+            treeLock.writeLock().unlock();
+        }
+        if (removed == null) {
+            return false;
+        }
+        changeSupport.fireDeleted(id, removed);
+        return true;
+    }
+
+    @Override
+    public void delete(Booking booking) {
+        if (booking.getId() != null) {
+            deleteById(booking.getId());
+        }
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return bookings.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return bookings.size();
+    }
+
+    @Override
+    public List<Booking> findByUserId(Long userId) {
+        return resolve(secondaryIndex.idsForUser(userId), booking -> userId.equals(booking.getUserId()));
+    }
+
+    @Override
+    public List<Booking> findByRoomNumber(int roomNumber) {
+        return resolve(secondaryIndex.idsForRoom(roomNumber), booking -> booking.getRoomNumber() == roomNumber);
+    }
+
+    @Override
+    public List<Booking> findByStatus(BookingStatus status) {
+        return resolve(secondaryIndex.idsForStatus(status), booking -> booking.getBookingStatus() == status);
+    }
+
+    @Override
+    public List<Booking> findConflictingBookings(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        List<Booking> candidates;
+        treeLock.readLock().lock();
+        try {
+            IntervalTree<Booking> roomTree = activeBookingsByRoom.get(roomNumber);
+            if (roomTree == null) {
+                return new ArrayList<>();
+            }
+            // Strict overlap: existing check-in before our check-out and existing check-out after our check-in
+            candidates = roomTree.findOverlapping(checkIn.toEpochDay() + 1, checkOut.toEpochDay() - 1);
+        } finally {
+            treeLock.readLock().unlock();
+        }
+        return candidates.stream()
+                .filter(booking -> booking.getBookingStatus().isActive())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        treeLock.readLock().lock();
+        try {
+            return allBookings.findOverlapping(startDate.toEpochDay(), endDate.toEpochDay());
+        } finally {
+            treeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addChangeListener(EntityChangeListener<Booking, Long> listener) {
+        changeSupport.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(EntityChangeListener<Booking, Long> listener) {
+        changeSupport.removeListener(listener);
+    }
+
+        private List<Booking> resolve(Set<Long> ids, Predicate<Booking> stillMatches) {
+        return ids.stream()
+                .map(bookings::get)
+                .filter(Objects::nonNull)
+                .filter(stillMatches)
+                .collect(Collectors.toList());
+    }
+
+    private void reindex(Booking booking) {
+        unindex(booking.getId());
+        index(booking);
+        secondaryIndex.index(booking);
+    }
+
+    private void index(Booking booking) {
+        if (booking.getCheckInDate() == null || booking.getCheckOutDate() == null) {
+            return;
+        }
+        IndexedStay stay = new IndexedStay(booking.getRoomNumber(),
+                booking.getCheckInDate().toEpochDay(),
+                booking.getCheckOutDate().toEpochDay(),
+                booking.getBookingStatus() != null && booking.getBookingStatus().isActive());
+
+        allBookings.insert(stay.start, stay.end, booking.getId(), booking);
+        if (stay.active) {
+            activeBookingsByRoom.computeIfAbsent(stay.roomNumber, k -> new IntervalTree<>())
+                    .insert(stay.start, stay.end, booking.getId(), booking);
+        }
+        indexedStays.put(booking.getId(), stay);
+    }
+
+    private void unindex(Long id) {
+        IndexedStay stay = indexedStays.remove(id);
+        if (stay == null) {
+            return;
+        }
+        allBookings.remove(stay.start, id);
+        if (stay.active) {
+            IntervalTree<Booking> roomTree = activeBookingsByRoom.get(stay.roomNumber);
+            if (roomTree != null) {
+                roomTree.remove(stay.start, id);
+                if (roomTree.size() == 0) {
+                    activeBookingsByRoom.remove(stay.roomNumber);
+                }
+            }
+        }
+    }
+
+    private static class IndexedStay {
+        private final int roomNumber;
+        private final long start;
+        private final long end;
+        private final boolean active;
+
+        IndexedStay(int roomNumber, long start, long end, boolean active) {
+            this.roomNumber = roomNumber;
+            this.start = start;
+            this.end = end;
+            this.active = active;
+        }
+    }
+}
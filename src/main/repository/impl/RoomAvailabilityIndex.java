@@ -0,0 +1,152 @@
+package repository.impl;
+
+import model.Booking;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-room calendar of occupied nights, keyed by epoch day.
+ * Each room keeps a bitmap (one bit per night, 64 nights per word) for fast
+ * yes/no availability checks, plus the ids of the bookings occupying each
+ * night so conflicting bookings can be returned without scanning the store.
+ * Only bookings whose status is active are indexed; the index keeps a snapshot
+ * of what it indexed per booking so in-place mutations between saves are
+ * reconciled on the next {@link #index(Booking)}.
+ */
+public class RoomAvailabilityIndex {
+    private final Map<Integer, RoomCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, Stay> indexedStays = new ConcurrentHashMap<>();
+
+    public void index(Booking booking) {
+        if (booking.getId() == null) {
+            return;
+        }
+        indexedStays.compute(booking.getId(), (id, previous) -> {
+            if (previous != null) {
+                calendarFor(previous.roomNumber).remove(id, previous.firstNight, previous.lastNightExclusive);
+            }
+            Stay stay = Stay.of(booking);
+            if (stay == null) {
+                return null;
+            }
+            calendarFor(stay.roomNumber).add(id, stay.firstNight, stay.lastNightExclusive);
+            return stay;
+        });
+    }
+
+    public void remove(Long bookingId) {
+        if (bookingId == null) {
+            return;
+        }
+        indexedStays.computeIfPresent(bookingId, (id, previous) -> {
+            calendarFor(previous.roomNumber).remove(id, previous.firstNight, previous.lastNightExclusive);
+            return null;
+        });
+    }
+
+    public void clear() {
+        indexedStays.clear();
+        calendars.clear();
+    }
+
+    public boolean isAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        RoomCalendar calendar = calendars.get(roomNumber);
+        return calendar == null || !calendar.anyOccupied(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    public Set<Long> findOccupyingBookingIds(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        RoomCalendar calendar = calendars.get(roomNumber);
+        if (calendar == null) {
+            return Collections.emptySet();
+        }
+        return calendar.occupants(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    private RoomCalendar calendarFor(int roomNumber) {
+        return calendars.computeIfAbsent(roomNumber, k -> new RoomCalendar());
+    }
+
+    private static class Stay {
+        private final int roomNumber;
+        private final long firstNight;
+        private final long lastNightExclusive;
+
+        private Stay(int roomNumber, long firstNight, long lastNightExclusive) {
+            this.roomNumber = roomNumber;
+            this.firstNight = firstNight;
+            this.lastNightExclusive = lastNightExclusive;
+        }
+
+        static Stay of(Booking booking) {
+            if (booking.getBookingStatus() == null || !booking.getBookingStatus().isActive()
+                    || booking.getCheckInDate() == null || booking.getCheckOutDate() == null) {
+                return null;
+            }
+            long first = booking.getCheckInDate().toEpochDay();
+            long last = booking.getCheckOutDate().toEpochDay();
+            if (last <= first) {
+                return null;
+            }
+            return new Stay(booking.getRoomNumber(), first, last);
+        }
+    }
+
+    private static class RoomCalendar {
+        private final Map<Long, Long> occupiedWords = new HashMap<>();
+        private final Map<Long, List<Long>> occupantsByNight = new HashMap<>();
+
+        synchronized void add(Long bookingId, long from, long to) {
+            for (long night = from; night < to; night++) {
+                occupantsByNight.computeIfAbsent(night, k -> new ArrayList<>(1)).add(bookingId);
+                occupiedWords.merge(night >> 6, 1L << (night & 63), (a, b) -> a | b);
+            }
+        }
+
+        synchronized void remove(Long bookingId, long from, long to) {
+            for (long night = from; night < to; night++) {
+                List<Long> occupants = occupantsByNight.get(night);
+                if (occupants == null) {
+                    continue;
+                }
+                occupants.remove(bookingId);
+                if (occupants.isEmpty()) {
+                    occupantsByNight.remove(night);
+                    long word = occupiedWords.getOrDefault(night >> 6, 0L) & ~(1L << (night & 63));
+                    if (word == 0L) {
+                        occupiedWords.remove(night >> 6);
+                    } else {
+                        occupiedWords.put(night >> 6, word);
+                    }
+                }
+            }
+        }
+
+        synchronized boolean anyOccupied(long from, long to) {
+            long night = from;
+            while (night < to) {
+                long wordIndex = night >> 6;
+                long bits = occupiedWords.getOrDefault(wordIndex, 0L);
+                int start = (int) (night & 63);
+                int end = (int) Math.min(64, start + (to - night));
+                long mask = (end == 64 ? -1L : (1L << end) - 1) & (-1L << start);
+                if ((bits & mask) != 0) {
+                    return true;
+                }
+                night += end - start;
+            }
+            return false;
+        }
+
+        synchronized Set<Long> occupants(long from, long to) {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (long night = from; night < to; night++) {
+                List<Long> occupants = occupantsByNight.get(night);
+                if (occupants != null) {
+                    ids.addAll(occupants);
+                }
+            }
+            return ids;
+        }
+    }
+}
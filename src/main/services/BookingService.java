@@ -2,18 +2,23 @@ package services;
 
 import model.*;
 import repository.BookingRepository;
+import repository.OptimisticLockException;
+import repository.OptimisticRetry;
 import repository.RoomRepository;
+import repository.StaleFencingTokenException;
 import services.NotificationService;
 import services.PaymentService;
+import patterns.observer.BookingEventBus;
 import patterns.observer.BookingObserver;
 import patterns.command.BookingCommand;
 import patterns.command.CommandInvoker;
+import concurrency.BookingLockManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.ArrayList;
+import java.util.OptionalLong;
 
 public class BookingService {
     private final BookingRepository bookingRepository;
@@ -21,39 +26,63 @@ public class BookingService {
     private final NotificationService notificationService;
     private final PaymentService paymentService;
     private final CommandInvoker commandInvoker;
-    private final List<BookingObserver> observers;
-    private final ReentrantLock bookingLock = new ReentrantLock();
+    private final BookingEventBus eventBus;
+    private final BookingLockManager lockManager;
 
     public BookingService(BookingRepository bookingRepository, 
                          RoomRepository roomRepository,
                          NotificationService notificationService,
                          PaymentService paymentService,
                          CommandInvoker commandInvoker) {
+        this(bookingRepository, roomRepository, notificationService, paymentService, 
+             commandInvoker, new BookingLockManager());
+    }
+
+    // Share the lock manager with ConcurrentBookingService so both paths serialize on the same room
+    public BookingService(BookingRepository bookingRepository, 
+                         RoomRepository roomRepository,
+                         NotificationService notificationService,
+                         PaymentService paymentService,
+                         CommandInvoker commandInvoker,
+                         BookingLockManager lockManager) {
         this.bookingRepository = bookingRepository;
         this.roomRepository = roomRepository;
         this.notificationService = notificationService;
         this.paymentService = paymentService;
         this.commandInvoker = commandInvoker;
-        this.observers = new ArrayList<>();
+        this.lockManager = lockManager;
+        this.eventBus = new BookingEventBus();
     }
 
+    // Observers run on the event bus's consumer threads, never on the booking path
     public void addObserver(BookingObserver observer) {
-        observers.add(observer);
+        eventBus.subscribe(observer);
+    }
+
+    // For observers that keep state and must see every event
+    public void addLosslessObserver(BookingObserver observer) {
+        eventBus.subscribeUnbounded(observer);
     }
 
     public void removeObserver(BookingObserver observer) {
-        observers.remove(observer);
+        eventBus.unsubscribe(observer);
+    }
+
+    public BookingEventBus getEventBus() {
+        return eventBus;
     }
 
     private void notifyObservers(Booking booking, String eventType) {
-        for (BookingObserver observer : observers) {
-            observer.onBookingUpdate(booking, eventType);
-        }
+        eventBus.publish(booking, eventType);
     }
 
     public Optional<Booking> createBooking(Long userId, int roomNumber, 
                                          LocalDate checkIn, LocalDate checkOut) {
-        bookingLock.lock();
+        // Per-room lock: bookings on different rooms proceed in parallel, and observer
+        // notifications and command history stay ordered per room
+        if (!lockManager.acquireRoomLock(roomNumber, "BOOKING_CREATE")) {
+            return Optional.empty();
+        }
         try {
             Optional<Room> roomOpt = roomRepository.findByRoomNumber(roomNumber);
             if (roomOpt.isEmpty()) {
@@ -78,9 +107,21 @@ public class BookingService {
                 userId, totalPrice, "Booking for Room " + roomNumber);
             
             if (paymentResult.isSuccessful()) {
-                savedBooking.setPaymentStatus(PaymentStatus.COMPLETED);
-                savedBooking.setPaymentId(paymentResult.getPaymentId());
-                bookingRepository.save(savedBooking);
+                // Fenced: if a stalled payment outlived our room lease, the write must not land
+                OptionalLong token = lockManager.getFencingToken(roomNumber);
+                try {
+                    if (token.isEmpty()) {
+                        throw new StaleFencingTokenException(roomNumber);
+                    }
+                    bookingRepository.saveFenced(savedBooking, token.getAsLong(), b -> {
+                        b.setPaymentStatus(PaymentStatus.COMPLETED);
+                        b.setPaymentId(paymentResult.getPaymentId());
+                    });
+                } catch (StaleFencingTokenException e) {
+                    bookingRepository.delete(savedBooking);
+                    paymentService.processRefund(paymentResult.getPaymentId(), totalPrice);
+                    return Optional.empty();
+                }
                 
                 // Update room availability
                 room.setAvailable(false);
@@ -99,7 +140,7 @@ public class BookingService {
                 return Optional.empty();
             }
         } finally {
-            bookingLock.unlock();
+            lockManager.releaseRoomLock(roomNumber);
         }
     }
 
@@ -119,15 +160,32 @@ public class BookingService {
             return false; // User can only cancel their own bookings
         }
 
-        booking.setBookingStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        if (!booking.getBookingStatus().isCancellable()) {
+            return false;
+        }
 
-        // Make room available again
-        Optional<Room> roomOpt = roomRepository.findByRoomNumber(booking.getRoomNumber());
-        if (roomOpt.isPresent()) {
-            Room room = roomOpt.get();
-            room.setAvailable(true);
-            roomRepository.save(room);
+        int roomNumber = booking.getRoomNumber();
+        if (!lockManager.acquireRoomLock(roomNumber, "BOOKING_CANCEL")) {
+            return false;
+        }
+        try {
+            // Versioned transition so a concurrent check-in or cancel is not overwritten
+            if (!cancelIfCancellable(bookingId)) {
+                return false;
+            }
+
+            // Make room available again
+            Optional<Room> roomOpt = roomRepository.findByRoomNumber(roomNumber);
+            if (roomOpt.isPresent()) {
+                Room room = roomOpt.get();
+                room.setAvailable(true);
+                roomRepository.save(room);
+            }
+
+            // Notify observers
+            notifyObservers(booking, "BOOKING_CANCELLED");
+        } finally {
+            lockManager.releaseRoomLock(roomNumber);
         }
 
         // Process refund if applicable
@@ -135,15 +193,28 @@ public class BookingService {
             paymentService.processRefund(booking.getPaymentId(), booking.getTotalPrice());
         }
 
-        // Notify observers
-        notifyObservers(booking, "BOOKING_CANCELLED");
-
         // Send notification
         notificationService.sendCancellationConfirmation(booking);
 
         return true;
     }
 
+    private boolean cancelIfCancellable(Long bookingId) {
+        try {
+            return OptimisticRetry.withRetry(() -> {
+                Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
+                if (bookingOpt.isEmpty() || !bookingOpt.get().getBookingStatus().isCancellable()) {
+                    return false;
+                }
+                bookingRepository.compareAndSave(bookingId, bookingOpt.get().getVersion(),
+                                                 b -> b.setBookingStatus(BookingStatus.CANCELLED));
+                return true;
+            });
+        } catch (OptimisticLockException e) {
+            return false;
+        }
+    }
+
     public List<Booking> getUserBookings(Long userId) {
         return bookingRepository.findByUserId(userId);
     }
@@ -152,6 +223,21 @@ public class BookingService {
         return bookingRepository.findAll();
     }
 
+    public List<Booking> getBookingsByStatus(BookingStatus status) {
+        return bookingRepository.findByStatus(status);
+    }
+
+    // Bookings still holding a room, read from the status index instead of filtering every booking
+    public List<Booking> getActiveBookings() {
+        List<Booking> active = new ArrayList<>();
+        for (BookingStatus status : BookingStatus.values()) {
+            if (status.isActive()) {
+                active.addAll(bookingRepository.findByStatus(status));
+            }
+        }
+        return active;
+    }
+
     public Optional<Booking> getBookingById(Long bookingId) {
         return bookingRepository.findById(bookingId);
     }
@@ -177,4 +263,9 @@ public class BookingService {
     public void undoLastBooking() {
         commandInvoker.undoLastCommand();
     }
-}
\ No newline at end of file
+
+    // Delivers events already published, then stops the observer threads
+    public void shutdown() {
+        eventBus.shutdown();
+    }
+}
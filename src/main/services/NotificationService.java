@@ -133,6 +133,34 @@ public class NotificationService {
         });
     }
 
+    // Targeted alert for one waitlisted guest whose request a freed room now satisfies
+    public void sendWaitlistOffer(Booking heldBooking, LocalDateTime holdExpiresAt) {
+        CompletableFuture.runAsync(() -> {
+            Optional<User> userOpt = userRepository.findById(heldBooking.getUserId());
+            if (userOpt.isPresent()) {
+                User user = userOpt.get();
+                String subject = "Waitlist Offer - Room " + heldBooking.getRoomNumber();
+                String message = String.format(
+                    "Good news! Room %d is now available for %s to %s at $%.2f. " +
+                    "We are holding it for you until %s.",
+                    heldBooking.getRoomNumber(), heldBooking.getCheckInDate(), heldBooking.getCheckOutDate(),
+                    heldBooking.getTotalPrice(), holdExpiresAt);
+                
+                Notification notification = new Notification(
+                    user.getId(),
+                    subject,
+                    message,
+                    NotificationType.WAITLIST_OFFER,
+                    LocalDateTime.now()
+                );
+                
+                notificationRepository.save(notification);
+                sendEmail(user.getEmail(), subject, message);
+                sendSMS(user.getPhoneNumber(), "Room " + heldBooking.getRoomNumber() + " is held for you");
+            }
+        });
+    }
+
     public List<Notification> getUserNotifications(Long userId) {
         return notificationRepository.findByUserId(userId);
     }
@@ -0,0 +1,89 @@
+package testing;
+
+import concurrency.BookingLockManager;
+import concurrency.LockContentionMetrics;
+import model.Room;
+import patterns.command.CommandInvoker;
+import repository.impl.*;
+import services.BookingService;
+import services.NotificationService;
+import services.PaymentService;
+import java.time.LocalDate;
+import java.util.concurrent.*;
+
+/**
+ * Stress test for BookingService locking. Runs the same number of bookings
+ * spread over many rooms with increasing thread counts; with per-room locks
+ * throughput should scale roughly with the thread count, since the 100ms
+ * simulated payment no longer serializes the whole hotel.
+ */
+public class BookingStressTestRunner {
+    private static final int ROOM_COUNT = 100;
+    private static final int BOOKINGS_PER_RUN = 160;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    public void runStressTest() throws InterruptedException {
+        System.out.println("🔒 BOOKING SERVICE LOCK STRESS TEST");
+        System.out.println("===================================");
+        System.out.printf("%-8s %-12s %-12s %-14s %-8s %-14s %-14s\n", "Threads", "Bookings", "Duration", 
+                        "Throughput", "Speedup", "Wait p99", "Hold p99");
+
+        double baseline = 0;
+        for (int threads : THREAD_COUNTS) {
+            BookingLockManager lockManager = new BookingLockManager();
+            long durationMs = runWithThreads(threads, lockManager);
+            LockContentionMetrics.StatsSnapshot locks = lockManager.getMetricsSnapshot().getOverall();
+            double throughput = (BOOKINGS_PER_RUN * 1000.0) / durationMs;
+            if (baseline == 0) {
+                baseline = throughput;
+            }
+            System.out.printf("%-8d %-12d %-12s %-14s %-8s %-14s %-14s\n", threads, BOOKINGS_PER_RUN, durationMs + " ms",
+                            String.format("%.1f/sec", throughput), String.format("%.1fx", throughput / baseline),
+                            String.format("%.2f ms", locks.getWaitTime().getPercentileMillis(99)),
+                            String.format("%.2f ms", locks.getHoldTime().getPercentileMillis(99)));
+        }
+    }
+
+    private long runWithThreads(int threadCount, BookingLockManager lockManager) throws InterruptedException {
+        BookingService bookingService = createBookingService(lockManager);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch done = new CountDownLatch(BOOKINGS_PER_RUN);
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < BOOKINGS_PER_RUN; i++) {
+            final int roomNumber = (i % ROOM_COUNT) + 1;
+            final LocalDate checkIn = start.plusDays((i / ROOM_COUNT) * 3L);
+            executor.execute(() -> {
+                try {
+                    bookingService.createBooking(1L, roomNumber, checkIn, checkIn.plusDays(2));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long durationMs = Math.max(1, System.currentTimeMillis() - startTime);
+
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return durationMs;
+    }
+
+    private BookingService createBookingService(BookingLockManager lockManager) {
+        InMemoryRoomRepository roomRepository = new InMemoryRoomRepository();
+        for (int i = 1; i <= ROOM_COUNT; i++) {
+            roomRepository.save(new Room(i, "Single", 100.0));
+        }
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        NotificationService notificationService = new NotificationService(
+            new InMemoryNotificationRepository(), userRepository);
+        PaymentService paymentService = new PaymentService(new InMemoryPaymentRepository());
+        return new BookingService(new InMemoryBookingRepository(), roomRepository,
+                                notificationService, paymentService, new CommandInvoker(), lockManager);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        new BookingStressTestRunner().runStressTest();
+    }
+}
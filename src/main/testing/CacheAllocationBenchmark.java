@@ -0,0 +1,96 @@
+package testing;
+
+import cache.BoundedCacheService;
+import cache.CacheService;
+import cache.CacheableRoomService;
+import cache.LongKeyedCache;
+import model.Room;
+import repository.impl.InMemoryRoomRepository;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Measures heap bytes allocated and time per cache hit for room lookups, comparing
+ * the String-keyed path CacheableRoomService used before ("room:" + number, Optional
+ * and type check; lower-cased, concatenated type keys) with the primitive-keyed room
+ * cache and precomputed type keys it uses now. Allocation is read from the JVM's
+ * per-thread allocation counter, so run it on a HotSpot JVM.
+ */
+public class CacheAllocationBenchmark {
+    private static final int ROOM_COUNT = 1_000;
+    private static final int WARMUP_LOOKUPS = 500_000;
+    private static final int MEASURED_LOOKUPS = 2_000_000;
+    private static final String[] TYPES = {"Single", "Double", "Suite"};
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private long blackhole;
+
+    public void runBenchmark() {
+        System.out.println("🧮 CACHE LOOKUP ALLOCATION BENCHMARK");
+        System.out.println("====================================");
+
+        InMemoryRoomRepository roomRepository = new InMemoryRoomRepository();
+        for (int i = 1; i <= ROOM_COUNT; i++) {
+            roomRepository.save(new Room(i, TYPES[i % TYPES.length], 100.0));
+        }
+        CacheService stringCache = new BoundedCacheService(10_000);
+        LongKeyedCache<Room> roomCache = new LongKeyedCache<>("room:", 10_000);
+        CacheableRoomService roomService = new CacheableRoomService(roomRepository, new BoundedCacheService(10_000));
+        for (Room room : roomRepository.findAll()) {
+            stringCache.put("room:" + room.getRoomNumber(), room, 1, TimeUnit.HOURS);
+            roomCache.put(room.getRoomNumber(), room, 1, TimeUnit.HOURS);
+            roomService.findByRoomNumber(room.getRoomNumber());
+        }
+
+        System.out.printf("%-40s %-14s %-12s\n", "Lookup", "Bytes/lookup", "ns/lookup");
+        measure("String key, before (\"room:\" + n)", n -> {
+            Optional<Room> room = stringCache.get("room:" + n, Room.class);
+            return room.isPresent() ? room.get().getRoomNumber() : 0;
+        });
+        measure("LongKeyedCache.get(n)", n -> roomCache.get(n).getRoomNumber());
+        measure("CacheableRoomService.getRoom(n)", n -> roomService.getRoom(n).getRoomNumber());
+        measure("CacheableRoomService.findByRoomNumber(n)",
+                n -> roomService.findByRoomNumber(n).map(Room::getRoomNumber).orElse(0));
+
+        measure("Type list, before (toLowerCase + concat)", n -> {
+            String roomType = TYPES[n % TYPES.length];
+            String type = roomType.toLowerCase();
+            List<Room> rooms = stringCache.get("rooms_by_type:" + type, key -> roomRepository.findByRoomType(roomType),
+                                               1, TimeUnit.HOURS, "room_type:" + type);
+            return rooms.size();
+        });
+        measure("CacheableRoomService.findByRoomType", n -> roomService.findByRoomType(TYPES[n % TYPES.length]).size());
+
+        roomService.shutdown();
+        ((BoundedCacheService) stringCache).shutdown();
+        System.out.println("(checksum " + blackhole + ")");
+    }
+
+    private void measure(String name, IntUnaryOperator lookup) {
+        run(lookup, WARMUP_LOOKUPS);
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run(lookup, MEASURED_LOOKUPS);
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf("%-40s %-14s %-12s\n", name, String.format("%.1f", (double) bytes / MEASURED_LOOKUPS),
+                        String.format("%.1f", (double) elapsed / MEASURED_LOOKUPS));
+    }
+
+    private void run(IntUnaryOperator lookup, int lookups) {
+        long sum = 0;
+        for (int i = 0; i < lookups; i++) {
+            sum += lookup.applyAsInt((i % ROOM_COUNT) + 1);
+        }
+        blackhole += sum;
+    }
+
+    public static void main(String[] args) {
+        new CacheAllocationBenchmark().runBenchmark();
+    }
+}
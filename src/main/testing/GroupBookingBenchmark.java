@@ -0,0 +1,87 @@
+package testing;
+
+import concurrency.ConcurrentBookingService;
+import concurrency.LatencyHistogram;
+import model.Room;
+import repository.impl.*;
+import services.NotificationService;
+import services.PaymentService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times ConcurrentBookingService.createGroupBooking for room blocks of increasing
+ * size. Each run books a fresh date window, so every block passes validation; a
+ * block is charged once, so latency should be dominated by the single ~100ms
+ * simulated payment plus per-room lock, hold and confirm work. Runs whose
+ * simulated payment is declined (about one in ten) are counted separately.
+ */
+public class GroupBookingBenchmark {
+    private static final int ROOM_COUNT = 40;
+    private static final int[] BLOCK_SIZES = {1, 10, 20, 40};
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+
+    public void runBenchmark() {
+        System.out.println("🏨 GROUP BOOKING BENCHMARK");
+        System.out.println("=========================");
+        System.out.printf("%-8s %-10s %-10s %-12s %-12s %-12s\n", "Rooms", "Booked", "Declined",
+                        "Mean", "p50", "p99");
+
+        ConcurrentBookingService bookingService = createBookingService();
+        LocalDate start = LocalDate.now().plusDays(1);
+        int window = 0;
+        try {
+            for (int blockSize : BLOCK_SIZES) {
+                for (int i = 0; i < WARMUP_RUNS; i++) {
+                    bookingService.createGroupBooking(1L, block(blockSize, start.plusDays(3L * window++)));
+                }
+
+                LatencyHistogram latency = new LatencyHistogram();
+                int booked = 0;
+                for (int i = 0; i < MEASURED_RUNS; i++) {
+                    List<ConcurrentBookingService.RoomStayRequest> stays = block(blockSize, start.plusDays(3L * window++));
+                    long begin = System.nanoTime();
+                    boolean successful = bookingService.createGroupBooking(1L, stays).isSuccessful();
+                    if (successful) {
+                        latency.record(System.nanoTime() - begin);
+                        booked++;
+                    }
+                }
+
+                LatencyHistogram.Snapshot snapshot = latency.snapshot();
+                System.out.printf("%-8d %-10d %-10d %-12s %-12s %-12s\n", blockSize, booked, MEASURED_RUNS - booked,
+                                String.format("%.1f ms", snapshot.getMeanMillis()),
+                                String.format("%.1f ms", snapshot.getPercentileMillis(50)),
+                                String.format("%.1f ms", snapshot.getPercentileMillis(99)));
+            }
+        } finally {
+            bookingService.shutdown();
+        }
+    }
+
+    private List<ConcurrentBookingService.RoomStayRequest> block(int size, LocalDate checkIn) {
+        List<ConcurrentBookingService.RoomStayRequest> stays = new ArrayList<>();
+        for (int roomNumber = 1; roomNumber <= size; roomNumber++) {
+            stays.add(new ConcurrentBookingService.RoomStayRequest(roomNumber, checkIn, checkIn.plusDays(2)));
+        }
+        return stays;
+    }
+
+    private ConcurrentBookingService createBookingService() {
+        InMemoryRoomRepository roomRepository = new InMemoryRoomRepository();
+        for (int i = 1; i <= ROOM_COUNT; i++) {
+            roomRepository.save(new Room(i, "Single", 100.0));
+        }
+        NotificationService notificationService = new NotificationService(
+            new InMemoryNotificationRepository(), new InMemoryUserRepository());
+        PaymentService paymentService = new PaymentService(new InMemoryPaymentRepository());
+        return new ConcurrentBookingService(new InMemoryBookingRepository(), roomRepository,
+                                          notificationService, paymentService);
+    }
+
+    public static void main(String[] args) {
+        new GroupBookingBenchmark().runBenchmark();
+    }
+}
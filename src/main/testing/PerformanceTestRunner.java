@@ -4,6 +4,8 @@ import config.ApplicationContext;
 import concurrency.ConcurrentBookingService;
 import model.*;
 import auth.Role;
+import payment.PaymentMethod;
+import payment.PaymentRequest;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.*;
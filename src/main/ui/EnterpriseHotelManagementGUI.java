@@ -1008,10 +1008,24 @@ public class EnterpriseHotelManagementGUI extends JFrame {
                 "Cache Statistics:\n" +
                 "- Total Cache Size: %d entries\n" +
                 "- Available Rooms Cached: %s\n" +
-                "- Room Types Cached: %d\n",
+                "- Room Types Cached: %d\n" +
+                "- Overall: %s\n" +
+                "- room: %s\n" +
+                "- available_rooms: %s\n" +
+                "- rooms_by_type: %s\n" +
+                "- available_rooms refresh-ahead: %s\n" +
+                "- %s\n" +
+                "- %s\n",
                 stats.getTotalCacheSize(),
                 stats.isAvailableRoomsCached() ? "Yes" : "No",
-                stats.getRoomTypesCached()
+                stats.getRoomTypesCached(),
+                stats.getStatistics().getOverall(),
+                stats.getRoomStats(),
+                stats.getAvailableRoomsStats(),
+                stats.getRoomsByTypeStats(),
+                context.getCacheableRoomService().getRefreshAhead().getStats("available_rooms"),
+                context.getPaymentRepositoryCache().getStats(),
+                context.getUserRepositoryCache().getStats()
             );
             systemArea.setText(result);
             appendOutput("🔧 Cache statistics retrieved");
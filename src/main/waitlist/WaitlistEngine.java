@@ -0,0 +1,257 @@
+package waitlist;
+
+import concurrency.ConcurrentBookingService;
+import concurrency.ConcurrentBookingService.BookingResult;
+import model.Booking;
+import model.Room;
+import patterns.observer.BookingObserver;
+import repository.RoomRepository;
+import repository.impl.IntervalTree;
+import services.NotificationService;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Matches freed room-nights against waitlisted requests. Waiting requests are kept in one
+ * interval tree per room type over their requested nights, so a cancellation, expired hold
+ * or early check-out finds the overlapping requests in O(log n + k) and offers the room to
+ * them in arrival order, instead of alerting every user. An offer is a reservation hold on
+ * the guest's behalf; if it lapses, the freed room moves on to the next request. Requests
+ * are forgotten once booked, expired or cancelled.
+ */
+public class WaitlistEngine implements BookingObserver {
+    private static final long DEFAULT_OFFER_HOLD_MS = 15 * 60 * 1000;
+
+    private final ConcurrentBookingService bookingService;
+    private final RoomRepository roomRepository;
+    private final NotificationService notificationService;
+    private final long offerHoldMs;
+    private final Map<Long, WaitlistRequest> requests = new ConcurrentHashMap<>();
+    private final Map<Long, WaitlistRequest> requestsByBookingId = new ConcurrentHashMap<>();
+    private final Map<String, IntervalTree<WaitlistRequest>> waitingByRoomType = new HashMap<>();
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+
+    public WaitlistEngine(ConcurrentBookingService bookingService, RoomRepository roomRepository,
+                          NotificationService notificationService) {
+        this(bookingService, roomRepository, notificationService, DEFAULT_OFFER_HOLD_MS);
+    }
+
+    public WaitlistEngine(ConcurrentBookingService bookingService, RoomRepository roomRepository,
+                          NotificationService notificationService, long offerHoldMs) {
+        this.bookingService = bookingService;
+        this.roomRepository = roomRepository;
+        this.notificationService = notificationService;
+        this.offerHoldMs = offerHoldMs;
+    }
+
+    public Optional<WaitlistRequest> register(Long userId, String roomType, LocalDate checkIn, LocalDate checkOut,
+                                              double maxPricePerNight, WaitlistRequest.Mode mode) {
+        if (roomType == null || checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return Optional.empty();
+        }
+        WaitlistRequest request = new WaitlistRequest(idGenerator.getAndIncrement(), userId, roomType,
+                                                      checkIn, checkOut, maxPricePerNight, mode);
+        requests.put(request.getId(), request);
+        index(request);
+        return Optional.of(request);
+    }
+
+    public boolean cancel(Long requestId, Long userId) {
+        WaitlistRequest request = requests.get(requestId);
+        if (request == null || !request.getUserId().equals(userId)) {
+            return false;
+        }
+        if (finish(request, WaitlistRequest.Status.WAITING, WaitlistRequest.Status.CANCELLED)) {
+            unindex(request);
+            return true;
+        }
+        return false;
+    }
+
+    // Charges and confirms the room held for an offered request
+    public BookingResult acceptOffer(Long requestId, Long userId) {
+        WaitlistRequest request = requests.get(requestId);
+        if (request == null || !request.getUserId().equals(userId) 
+                || request.getStatus() != WaitlistRequest.Status.OFFERED) {
+            return BookingResult.failure("No open offer for this waitlist request.");
+        }
+        BookingResult result = bookingService.confirmHeldBooking(request.getBookingId(), userId);
+        if (result.isSuccessful() && finish(request, WaitlistRequest.Status.OFFERED, WaitlistRequest.Status.BOOKED)) {
+            requestsByBookingId.remove(request.getBookingId());
+        }
+        return result;
+    }
+
+    @Override
+    public void onBookingUpdate(Booking booking, String eventType) {
+        switch (eventType) {
+            case "BOOKING_CREATED":
+                WaitlistRequest accepted = requestsByBookingId.remove(booking.getId());
+                if (accepted != null) {
+                    finish(accepted, WaitlistRequest.Status.OFFERED, WaitlistRequest.Status.BOOKED);
+                }
+                break;
+            case "BOOKING_CANCELLED":
+            case "BOOKING_EXPIRED":
+            case "BOOKING_CHECKED_OUT":
+                WaitlistRequest lapsed = requestsByBookingId.remove(booking.getId());
+                if (lapsed != null) {
+                    // The guest let the offer lapse or cancelled it; don't offer them the same room again
+                    finish(lapsed, WaitlistRequest.Status.OFFERED, WaitlistRequest.Status.EXPIRED);
+                }
+                roomFreed(booking);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Waiting requests of the room type that want at least one night in [from, to), oldest first
+    public List<WaitlistRequest> findCandidates(String roomType, LocalDate from, LocalDate to) {
+        indexLock.readLock().lock();
+        try {
+            IntervalTree<WaitlistRequest> tree = waitingByRoomType.get(key(roomType));
+            if (tree == null) {
+                return new ArrayList<>();
+            }
+            List<WaitlistRequest> candidates = tree.findOverlapping(from.toEpochDay(), to.toEpochDay() - 1);
+            candidates.sort(Comparator.comparing(WaitlistRequest::getId));
+            return candidates;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    public List<WaitlistRequest> getRequestsForUser(Long userId) {
+        return requests.values().stream()
+                .filter(request -> request.getUserId().equals(userId))
+                .sorted(Comparator.comparing(WaitlistRequest::getId))
+                .collect(Collectors.toList());
+    }
+
+    public Optional<WaitlistRequest> getRequest(Long requestId) {
+        return Optional.ofNullable(requests.get(requestId));
+    }
+
+    public int getWaitingCount() {
+        indexLock.readLock().lock();
+        try {
+            return waitingByRoomType.values().stream().mapToInt(IntervalTree::size).sum();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void roomFreed(Booking booking) {
+        Optional<Room> roomOpt = roomRepository.findByRoomNumber(booking.getRoomNumber());
+        LocalDate today = LocalDate.now();
+        if (roomOpt.isEmpty() || booking.getCheckOutDate() == null || !booking.getCheckOutDate().isAfter(today)) {
+            return;
+        }
+        Room room = roomOpt.get();
+        LocalDate from = booking.getCheckInDate().isAfter(today) ? booking.getCheckInDate() : today;
+
+        for (WaitlistRequest candidate : findCandidates(room.getRoomType(), from, booking.getCheckOutDate())) {
+            if (candidate.getCheckIn().isBefore(today)) {
+                // Stay start has passed without a match
+                if (finish(candidate, WaitlistRequest.Status.WAITING, WaitlistRequest.Status.EXPIRED)) {
+                    unindex(candidate);
+                }
+                continue;
+            }
+            if (candidate.getMaxPricePerNight() < chargedPerNight(room, candidate)) {
+                continue;
+            }
+            if (!candidate.transition(WaitlistRequest.Status.WAITING, WaitlistRequest.Status.MATCHING)) {
+                continue;
+            }
+            unindex(candidate);
+            fulfil(candidate, room);
+        }
+    }
+
+    private void fulfil(WaitlistRequest request, Room room) {
+        if (request.getMode() == WaitlistRequest.Mode.AUTO_BOOK) {
+            bookingService.createBookingAsync(request.getUserId(), room.getRoomNumber(),
+                                              request.getCheckIn(), request.getCheckOut())
+                .whenComplete((result, error) -> {
+                    if (error == null && result.isSuccessful()) {
+                        request.setBookingId(result.getBooking().getId());
+                        finish(request, WaitlistRequest.Status.MATCHING, WaitlistRequest.Status.BOOKED);
+                    } else {
+                        requeue(request);
+                    }
+                });
+            return;
+        }
+
+        BookingResult held = bookingService.placeOfferHold(request.getUserId(), room.getRoomNumber(),
+                                                           request.getCheckIn(), request.getCheckOut(), offerHoldMs);
+        if (!held.isSuccessful()) {
+            // Other nights of the request are still taken, or someone else got the room first
+            requeue(request);
+            return;
+        }
+        Booking heldBooking = held.getBooking();
+        request.setBookingId(heldBooking.getId());
+        requestsByBookingId.put(heldBooking.getId(), request);
+        request.transition(WaitlistRequest.Status.MATCHING, WaitlistRequest.Status.OFFERED);
+        notificationService.sendWaitlistOffer(heldBooking, LocalDateTime.now().plus(Duration.ofMillis(offerHoldMs)));
+    }
+
+    // Per-night rate the booking service will charge for the request's stay, long-stay discount included
+    private double chargedPerNight(Room room, WaitlistRequest request) {
+        long nights = request.getCheckOut().toEpochDay() - request.getCheckIn().toEpochDay();
+        return bookingService.calculateTotalPrice(room, request.getCheckIn(), request.getCheckOut()) / nights;
+    }
+
+    // Moves the request to a final state and drops it, so requests only holds requests still in play
+    private boolean finish(WaitlistRequest request, WaitlistRequest.Status from, WaitlistRequest.Status to) {
+        if (!request.transition(from, to)) {
+            return false;
+        }
+        requests.remove(request.getId());
+        return true;
+    }
+
+    private void requeue(WaitlistRequest request) {
+        if (request.transition(WaitlistRequest.Status.MATCHING, WaitlistRequest.Status.WAITING)) {
+            index(request);
+        }
+    }
+
+    private void index(WaitlistRequest request) {
+        indexLock.writeLock().lock();
+        try {
+            waitingByRoomType.computeIfAbsent(key(request.getRoomType()), k -> new IntervalTree<>())
+                    .insert(request.getCheckIn().toEpochDay(), request.getCheckOut().toEpochDay() - 1,
+                            request.getId(), request);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(WaitlistRequest request) {
+        indexLock.writeLock().lock();
+        try {
+            IntervalTree<WaitlistRequest> tree = waitingByRoomType.get(key(request.getRoomType()));
+            if (tree != null) {
+                tree.remove(request.getCheckIn().toEpochDay(), request.getId());
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private static String key(String roomType) {
+        return roomType.toLowerCase();
+    }
+}
@@ -0,0 +1,66 @@
+package waitlist;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class WaitlistRequest {
+    public enum Mode {
+        AUTO_OFFER, // Hold the room and let the guest accept the offer
+        AUTO_BOOK   // Hold, charge and confirm without asking
+    }
+
+    public enum Status { WAITING, MATCHING, OFFERED, BOOKED, EXPIRED, CANCELLED }
+
+    private final Long id;
+    private final Long userId;
+    private final String roomType;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+    private final double maxPricePerNight;
+    private final Mode mode;
+    private final LocalDateTime createdAt;
+    private Status status;
+    private Long bookingId;
+
+    public WaitlistRequest(Long id, Long userId, String roomType, LocalDate checkIn, LocalDate checkOut,
+                           double maxPricePerNight, Mode mode) {
+        this.id = id;
+        this.userId = userId;
+        this.roomType = roomType;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.maxPricePerNight = maxPricePerNight;
+        this.mode = mode;
+        this.createdAt = LocalDateTime.now();
+        this.status = Status.WAITING;
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getRoomType() { return roomType; }
+    public LocalDate getCheckIn() { return checkIn; }
+    public LocalDate getCheckOut() { return checkOut; }
+    public double getMaxPricePerNight() { return maxPricePerNight; }
+    public Mode getMode() { return mode; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public synchronized Status getStatus() { return status; }
+    public synchronized Long getBookingId() { return bookingId; }
+
+    synchronized boolean transition(Status from, Status to) {
+        if (status != from) {
+            return false;
+        }
+        status = to;
+        return true;
+    }
+
+    synchronized void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WaitlistRequest{id=%d, user=%d, %s %s..%s, max $%.2f/night, %s, %s}",
+                           id, userId, roomType, checkIn, checkOut, maxPricePerNight, mode, getStatus());
+    }
+}
@@ -0,0 +1,162 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheServiceTest {
+
+    @Test
+    void testSizeNeverExceedsMaximum() {
+        BoundedCacheService cache = new BoundedCacheService(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("quote:" + i, i);
+            assertTrue(cache.getWeightedSize() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(9_900, cache.getEvictionCount());
+    }
+
+    @Test
+    void testFrequentKeysSurviveScan() {
+        BoundedCacheService cache = new BoundedCacheService(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("room:" + i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertTrue(cache.get("room:" + i).isPresent());
+            }
+            cache.cleanUp();
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("quote:" + i, i);
+        }
+
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.exists("room:" + i)) {
+                survivors++;
+            }
+        }
+        assertEquals(50, survivors);
+    }
+
+    @Test
+    void testWeigherBoundsTotalWeight() {
+        BoundedCacheService cache = new BoundedCacheService(1_000,
+                (key, value) -> ((List<?>) value).size(), 5, TimeUnit.MINUTES);
+        for (int i = 0; i < 200; i++) {
+            List<Integer> rooms = new ArrayList<>();
+            for (int j = 0; j < 40; j++) {
+                rooms.add(j);
+            }
+            cache.put("rooms_by_type:" + i, rooms);
+        }
+        assertTrue(cache.getWeightedSize() <= 1_000);
+        assertTrue(cache.size() <= 25);
+    }
+
+    @Test
+    void testUpdateDeleteAndClear() {
+        BoundedCacheService cache = new BoundedCacheService(10);
+        cache.put("room:1", "a");
+        cache.put("room:1", "b");
+        assertEquals("b", cache.get("room:1", String.class).orElseThrow());
+        assertTrue(cache.get("room:1", Integer.class).isEmpty());
+        assertEquals(1, cache.getWeightedSize());
+
+        cache.delete("room:1");
+        assertFalse(cache.exists("room:1"));
+        assertEquals(0, cache.getWeightedSize());
+
+        cache.put("room:2", "c");
+        cache.get("room:2");
+        cache.clear();
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        cache.put("room:3", "d");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testExpiredEntriesAreNotReturned() throws InterruptedException {
+        BoundedCacheService cache = new BoundedCacheService(10);
+        cache.put("available_rooms", "x", 20, TimeUnit.MILLISECONDS);
+        cache.put("room:1", "y", 1, TimeUnit.MINUTES);
+        Thread.sleep(40);
+
+        assertTrue(cache.get("available_rooms").isEmpty());
+        assertEquals(-1, cache.getTimeToLive("available_rooms"));
+        assertTrue(cache.getTimeToLive("room:1") > 0);
+        assertEquals(1, cache.size());
+
+        cache.expire("room:1", 20, TimeUnit.MILLISECONDS);
+        Thread.sleep(40);
+        assertFalse(cache.exists("room:1"));
+    }
+
+    @Test
+    void testConcurrentAccessStaysBounded() throws InterruptedException {
+        BoundedCacheService cache = new BoundedCacheService(500);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    String key = "key:" + ((i * 31 + seed * 7) % 2_000);
+                    if (i % 3 == 0) {
+                        cache.put(key, i);
+                    } else if (i % 50 == 0) {
+                        cache.delete(key);
+                    } else {
+                        cache.get(key);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.getWeightedSize() <= 500);
+        assertEquals(cache.size(), cache.getWeightedSize());
+    }
+
+    @Test
+    void testTagAndPrefixInvalidation() {
+        BoundedCacheService cache = new BoundedCacheService(100);
+        cache.put("rate:single:2025-03-01", 1, 1, TimeUnit.MINUTES, "rates", "type:single");
+        cache.put("rate:suite:2025-03-01", 2, 1, TimeUnit.MINUTES, "rates", "type:suite");
+        cache.put("analytics:occupancy", 3, 1, TimeUnit.MINUTES, "type:single");
+        cache.put("rates_summary", 4);
+
+        assertEquals(2, cache.invalidateTag("type:single"));
+        assertFalse(cache.exists("analytics:occupancy"));
+        assertTrue(cache.exists("rate:suite:2025-03-01"));
+
+        assertEquals(1, cache.invalidatePrefix("rate:"));
+        assertTrue(cache.exists("rates_summary"));
+        assertEquals(0, cache.invalidateTag("rates"));
+        assertTrue(cache.keysWithPrefix("rate").contains("rates_summary"));
+    }
+
+    @Test
+    void testReplacedEntryKeepsOnlyItsNewTags() {
+        BoundedCacheService cache = new BoundedCacheService(100);
+        cache.put("room:1", "a", 1, TimeUnit.MINUTES, "type:single");
+        cache.put("room:1", "b", 1, TimeUnit.MINUTES, "type:suite");
+
+        assertEquals(0, cache.invalidateTag("type:single"));
+        assertEquals(1, cache.invalidateTag("type:suite"));
+        assertTrue(cache.keysWithPrefix("room:").isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CacheStatsCounterTest {
+
+    @Test
+    void testCountsAreKeptPerNamespace() {
+        CacheStatsCounter counter = new CacheStatsCounter();
+        counter.recordHit("room:1");
+        counter.recordHit("room:2");
+        counter.recordMiss("room:3");
+        counter.recordMiss("available_rooms");
+        counter.recordLoadSuccess("available_rooms", TimeUnit.MILLISECONDS.toNanos(4));
+        counter.recordLoadFailure("rooms_by_type:single", TimeUnit.MILLISECONDS.toNanos(2));
+        counter.recordEviction("rooms_by_type:suite");
+        counter.recordExpiration("room:1");
+
+        CacheStatsCounter.Snapshot snapshot = counter.snapshot();
+        CacheStatsCounter.NamespaceStats rooms = snapshot.forNamespace("room:");
+        assertEquals(2, rooms.getHitCount());
+        assertEquals(1, rooms.getMissCount());
+        assertEquals(2.0 / 3, rooms.getHitRate(), 1e-9);
+        assertEquals(1, rooms.getExpirationCount());
+
+        assertEquals(1, snapshot.forNamespace("available_rooms").getLoadSuccessCount());
+        assertEquals(1, snapshot.forNamespace("rooms_by_type:").getLoadFailureCount());
+        assertEquals(1, snapshot.forNamespace("rooms_by_type:").getEvictionCount());
+
+        CacheStatsCounter.NamespaceStats overall = snapshot.getOverall();
+        assertEquals(2, overall.getHitCount());
+        assertEquals(2, overall.getMissCount());
+        assertEquals(2, overall.getLoadCount());
+        assertEquals(2, overall.getLoadTime().getCount());
+        assertEquals(3, snapshot.getByNamespace().size());
+    }
+
+    @Test
+    void testNamespacesBeyondLimitAreCountedAsOther() {
+        CacheStatsCounter counter = new CacheStatsCounter();
+        for (int i = 0; i < CacheStatsCounter.MAX_NAMESPACES + 10; i++) {
+            counter.recordMiss("ns" + i + ":key");
+        }
+
+        CacheStatsCounter.Snapshot snapshot = counter.snapshot();
+        assertEquals(CacheStatsCounter.MAX_NAMESPACES + 1, snapshot.getByNamespace().size());
+        assertEquals(10, snapshot.forNamespace(CacheStatsCounter.OTHER_NAMESPACE).getMissCount());
+        assertEquals(CacheStatsCounter.MAX_NAMESPACES + 10, snapshot.getOverall().getMissCount());
+    }
+
+    @Test
+    void testBoundedCacheRecordsHitsMissesEvictionsAndExpirations() throws InterruptedException {
+        BoundedCacheService cache = new BoundedCacheService(10);
+        cache.put("room:1", "a");
+        cache.get("room:1");
+        cache.get("room:2");
+        for (int i = 0; i < 20; i++) {
+            cache.put("rooms_by_type:t" + i, i);
+        }
+        cache.put("available_rooms", "x", 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(30);
+        cache.get("available_rooms");
+
+        CacheStatsCounter.Snapshot snapshot = cache.getStatsSnapshot();
+        assertEquals(1, snapshot.forNamespace("room:").getHitCount());
+        assertEquals(1, snapshot.forNamespace("room:").getMissCount());
+        assertEquals(1, snapshot.forNamespace("available_rooms").getExpirationCount());
+        CacheStatsCounter.NamespaceStats overall = snapshot.getOverall();
+        assertTrue(overall.getEvictionCount() > 0);
+        assertEquals(22, cache.size() + overall.getEvictionCount() + overall.getExpirationCount());
+    }
+}
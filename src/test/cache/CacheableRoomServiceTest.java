@@ -0,0 +1,219 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import model.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.InMemoryRoomRepository;
+
+class CacheableRoomServiceTest {
+
+    private InMemoryRoomRepository roomRepository;
+    private BoundedCacheService cacheService;
+    private CacheableRoomService roomService;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = new InMemoryRoomRepository();
+        roomRepository.save(new Room(1, "Single", 100.0));
+        roomRepository.save(new Room(2, "Penthouse", 900.0));
+        roomRepository.save(new Room(3, "Treehouse", 250.0));
+        cacheService = new BoundedCacheService(1_000);
+        roomService = new CacheableRoomService(roomRepository, cacheService);
+    }
+
+    @Test
+    void testInvalidateAllCoversEveryRoomType() {
+        roomService.findByRoomType("Single");
+        roomService.findByRoomType("Penthouse");
+        roomService.findByRoomType("Treehouse");
+        roomService.findAvailableRooms();
+        roomService.findByRoomNumber(1);
+        assertEquals(3, roomService.getCacheStats().getRoomTypesCached());
+
+        roomService.invalidateAllRoomCaches();
+
+        assertEquals(0, roomService.getCacheStats().getRoomTypesCached());
+        assertFalse(roomService.getCacheStats().isAvailableRoomsCached());
+        assertTrue(roomService.getRoomCache().containsKey(1));
+    }
+
+    @Test
+    void testInvalidateRoomTypeDropsRoomsAndListOfThatType() {
+        roomService.findByRoomNumber(1);
+        roomService.findByRoomNumber(2);
+        roomService.findByRoomType("penthouse");
+        roomService.findByRoomType("single");
+
+        assertEquals(2, roomService.invalidateRoomType("PENTHOUSE"));
+
+        assertFalse(roomService.getRoomCache().containsKey(2));
+        assertFalse(cacheService.exists("rooms_by_type:penthouse"));
+        assertTrue(roomService.getRoomCache().containsKey(1));
+        assertTrue(cacheService.exists("rooms_by_type:single"));
+    }
+
+    @Test
+    void testCacheStatsCountHitsAndLoadsPerNamespace() {
+        roomService.findByRoomNumber(1);
+        roomService.findByRoomNumber(1);
+        roomService.findByRoomNumber(99);
+        roomService.findAvailableRooms();
+
+        CacheableRoomService.CacheStats stats = roomService.getCacheStats();
+        assertEquals(1, stats.getRoomStats().getHitCount());
+        assertEquals(2, stats.getRoomStats().getMissCount());
+        assertEquals(1, stats.getRoomStats().getLoadSuccessCount());
+        assertEquals(1, stats.getRoomStats().getLoadFailureCount());
+        assertEquals(1, stats.getAvailableRoomsStats().getLoadSuccessCount());
+    }
+
+    @Test
+    void testDirectRepositoryWritesInvalidateAvailableRooms() {
+        assertEquals(3, roomService.findAvailableRooms().size());
+        Room room = roomService.findByRoomNumber(1).orElseThrow();
+
+        // A booking flips availability with a versioned save straight on the repository
+        Long id = roomRepository.findIdByRoomNumber(1).orElseThrow();
+        roomRepository.compareAndSave(id, room.getVersion(), r -> r.setAvailable(false));
+
+        assertFalse(cacheService.exists("available_rooms"));
+        List<Room> available = roomService.findAvailableRooms();
+        assertEquals(2, available.size());
+        assertFalse(available.contains(room));
+        assertSame(room, roomService.getRoomCache().peek(1));
+    }
+
+    @Test
+    void testUpdateThatKeepsAvailabilityKeepsCachedLists() {
+        roomService.findAvailableRooms();
+        roomService.findByRoomType("single");
+        Room room = roomService.findByRoomNumber(1).orElseThrow();
+
+        room.setPrice(120.0);
+        roomRepository.save(room);
+
+        assertTrue(cacheService.exists("available_rooms"));
+        assertTrue(cacheService.exists("rooms_by_type:single"));
+    }
+
+    @Test
+    void testNewAndDeletedRoomsInvalidateTheirType() {
+        roomService.findAvailableRooms();
+        roomService.findByRoomType("single");
+        roomService.findByRoomType("penthouse");
+
+        roomRepository.save(new Room(4, "Single", 110.0));
+
+        assertFalse(cacheService.exists("rooms_by_type:single"));
+        assertFalse(cacheService.exists("available_rooms"));
+        assertTrue(cacheService.exists("rooms_by_type:penthouse"));
+        assertEquals(2, roomService.findByRoomType("single").size());
+        assertTrue(roomService.getRoomCache().containsKey(4));
+
+        roomService.findByRoomType("single");
+        roomRepository.delete(roomRepository.findByRoomNumber(4).orElseThrow());
+
+        assertFalse(roomService.getRoomCache().containsKey(4));
+        assertEquals(1, roomService.findByRoomType("single").size());
+    }
+
+    @Test
+    void testAvailableRoomsLoadOverlappingWriteIsNotCached() throws Exception {
+        SlowRoomRepository slowRepository = newSlowService();
+        Room single = slowRepository.findByRoomNumber(1).get();
+
+        List<Room> stale = slowRepository.duringLoad(roomService::findAvailableRooms, () -> {
+            single.setAvailable(false);
+            slowRepository.save(single);
+        });
+
+        assertTrue(stale.contains(single));
+        assertFalse(roomService.findAvailableRooms().contains(single));
+    }
+
+    @Test
+    void testTypeListLoadOverlappingWriteIsNotCached() throws Exception {
+        SlowRoomRepository slowRepository = newSlowService();
+
+        List<Room> stale = slowRepository.duringLoad(() -> roomService.findByRoomType("Single"),
+                () -> slowRepository.save(new Room(4, "Single", 100.0)));
+
+        assertEquals(1, stale.size());
+        assertEquals(2, roomService.findByRoomType("Single").size());
+    }
+
+    @Test
+    void testRoomLoadOverlappingDeleteIsNotCached() throws Exception {
+        SlowRoomRepository slowRepository = newSlowService();
+        Long id = slowRepository.findIdByRoomNumber(2).get();
+
+        Room stale = slowRepository.duringLoad(() -> roomService.getRoom(2), () -> slowRepository.deleteById(id));
+
+        assertNotNull(stale);
+        assertNull(roomService.getRoom(2));
+    }
+
+    private SlowRoomRepository newSlowService() {
+        SlowRoomRepository slowRepository = new SlowRoomRepository();
+        for (Room room : roomRepository.findAll()) {
+            slowRepository.save(new Room(room.getRoomNumber(), room.getRoomType(), room.getPrice()));
+        }
+        roomService = new CacheableRoomService(slowRepository, new BoundedCacheService(1_000));
+        return slowRepository;
+    }
+
+    // Pauses the next repository read after it has read its result, so a test can write in between
+    private static class SlowRoomRepository extends InMemoryRoomRepository {
+        private volatile CountDownLatch loaded;
+        private volatile CountDownLatch resume;
+
+        <T> T duringLoad(Supplier<T> read, Runnable write) throws Exception {
+            CountDownLatch paused = new CountDownLatch(1);
+            resume = new CountDownLatch(1);
+            loaded = paused;
+            CompletableFuture<T> reader = CompletableFuture.supplyAsync(read);
+            assertTrue(paused.await(2, TimeUnit.SECONDS));
+            write.run();
+            resume.countDown();
+            return reader.get(2, TimeUnit.SECONDS);
+        }
+
+        private <T> T pause(T result) {
+            CountDownLatch paused = loaded;
+            if (paused != null) {
+                loaded = null;
+                paused.countDown();
+                try {
+                    resume.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Room> findAvailableRooms() {
+            return pause(super.findAvailableRooms());
+        }
+
+        @Override
+        public List<Room> findByRoomType(String roomType) {
+            return pause(super.findByRoomType(roomType));
+        }
+
+        @Override
+        public Optional<Room> findByRoomNumber(int roomNumber) {
+            return pause(super.findByRoomNumber(roomNumber));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import auth.Role;
+import model.Payment;
+import model.PaymentStatus;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.PaymentRepository;
+import repository.UserRepository;
+import repository.impl.InMemoryPaymentRepository;
+import repository.impl.InMemoryUserRepository;
+
+class CachingRepositoryTest {
+
+    private BoundedCacheService cacheService;
+    private InMemoryUserRepository users;
+    private CachingRepository<User, Long> userCache;
+    private UserRepository cachedUsers;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new BoundedCacheService(1_000);
+        users = new InMemoryUserRepository();
+        users.save(new User("Ada", "ada@example.com", "hash", Role.GUEST));
+        userCache = CachingRepository.<User, Long>builder("user", User::getId)
+                .cacheFindById(10, TimeUnit.MINUTES)
+                .cacheUniqueFinder("findByEmail", User::getEmail, 10, TimeUnit.MINUTES)
+                .cacheFinder("findByRole", 10, TimeUnit.MINUTES)
+                .cacheCount(10, TimeUnit.MINUTES)
+                .build(cacheService);
+        cachedUsers = userCache.wrap(UserRepository.class, users);
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromCache() {
+        User ada = cachedUsers.findByEmail("ada@example.com").orElseThrow();
+        assertSame(ada, cachedUsers.findByEmail("ada@example.com").orElseThrow());
+        assertSame(ada, cachedUsers.findById(ada.getId()).orElseThrow());
+        assertEquals(1, cachedUsers.count());
+        assertEquals(1, cachedUsers.count());
+
+        CachingRepository.Stats stats = userCache.getStats();
+        assertEquals("user", stats.getRepositoryName());
+        assertEquals(2, stats.getCacheStats().getHitCount());
+        assertEquals(3, stats.getCacheStats().getLoadSuccessCount());
+    }
+
+    @Test
+    void testWritesToTheWrappedRepositoryInvalidate() {
+        assertTrue(cachedUsers.findByEmail("grace@example.com").isEmpty());
+        assertEquals(1, cachedUsers.findByRole(Role.GUEST).size());
+        assertEquals(1, cachedUsers.count());
+
+        // Saved straight on the underlying repository, not through the proxy
+        User grace = users.save(new User("Grace", "grace@example.com", "hash", Role.GUEST));
+
+        assertSame(grace, cachedUsers.findByEmail("grace@example.com").orElseThrow());
+        assertEquals(2, cachedUsers.findByRole(Role.GUEST).size());
+        assertEquals(2, cachedUsers.count());
+
+        cachedUsers.findById(grace.getId());
+        cachedUsers.deleteById(grace.getId());
+
+        assertTrue(cachedUsers.findById(grace.getId()).isEmpty());
+        assertTrue(cachedUsers.findByEmail("grace@example.com").isEmpty());
+        assertEquals(1, cachedUsers.count());
+        assertEquals(2, userCache.getStats().getInvalidationCount());
+    }
+
+    @Test
+    void testUniqueFinderFollowsPaymentUpdates() {
+        InMemoryPaymentRepository payments = new InMemoryPaymentRepository();
+        CachingRepository<Payment, Long> paymentCache = CachingRepository.<Payment, Long>builder("payment", Payment::getId)
+                .cacheUniqueFinder("findByPaymentId", Payment::getPaymentId, 10, TimeUnit.MINUTES)
+                .cacheFinder("findByUserId", 10, TimeUnit.MINUTES)
+                .build(cacheService);
+        PaymentRepository cachedPayments = paymentCache.wrap(PaymentRepository.class, payments);
+
+        Payment payment = new Payment();
+        payment.setUserId(7L);
+        payment.setPaymentId("pay-1");
+        payment.setStatus(PaymentStatus.PENDING);
+        cachedPayments.save(payment);
+
+        assertEquals(PaymentStatus.PENDING, cachedPayments.findByPaymentId("pay-1").orElseThrow().getStatus());
+        List<Payment> forUser = cachedPayments.findByUserId(7L);
+        forUser.clear();
+        assertEquals(1, cachedPayments.findByUserId(7L).size());
+
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payments.save(payment);
+
+        assertFalse(cacheService.exists("payment:findByPaymentId:pay-1"));
+        assertFalse(cacheService.exists("payment:findByUserId:7"));
+        assertEquals(PaymentStatus.COMPLETED, cachedPayments.findByPaymentId("pay-1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testWrapRejectsUnknownMethods() {
+        CachingRepository<User, Long> misconfigured = CachingRepository.<User, Long>builder("user2", User::getId)
+                .cacheFinder("findByPhone", 1, TimeUnit.MINUTES)
+                .build(cacheService);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> misconfigured.wrap(UserRepository.class, new InMemoryUserRepository()));
+        assertThrows(IllegalStateException.class, () -> userCache.wrap(UserRepository.class, users));
+    }
+}
@@ -0,0 +1,90 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryCacheServiceTest {
+
+    private InMemoryCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InMemoryCacheService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void testShortTtlIsHonoredExactly() throws InterruptedException {
+        cache.put("available_rooms", "rooms", 30, TimeUnit.MILLISECONDS);
+        assertTrue(cache.get("available_rooms").isPresent());
+
+        Thread.sleep(50);
+        assertTrue(cache.get("available_rooms").isEmpty());
+        assertEquals(1, cache.getStatsSnapshot().forNamespace("available_rooms").getExpirationCount());
+    }
+
+    @Test
+    void testExpireReschedulesEntry() throws InterruptedException {
+        cache.put("room:1", "a", 10, TimeUnit.MINUTES);
+        cache.expire("room:1", 30, TimeUnit.MILLISECONDS);
+        assertTrue(cache.getTimeToLive("room:1") <= 30);
+        assertEquals(1, cache.getScheduledCount());
+
+        Thread.sleep(50);
+        assertFalse(cache.exists("room:1"));
+        assertEquals(0, cache.getScheduledCount());
+    }
+
+    @Test
+    void testWheelRemovesExpiredEntriesWithoutReads() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            cache.put("quote:" + i, i, 10, TimeUnit.MILLISECONDS);
+        }
+        cache.put("room:1", "kept", 10, TimeUnit.MINUTES);
+
+        Thread.sleep(1_100);
+        cache.expireEntries();
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getScheduledCount());
+        assertEquals(100, cache.getStatsSnapshot().getOverall().getExpirationCount());
+    }
+
+    @Test
+    void testReplaceDeleteAndClearKeepWheelInSync() {
+        cache.put("room:1", "a");
+        cache.put("room:1", "b");
+        cache.put("room:2", "c");
+        assertEquals(2, cache.getScheduledCount());
+
+        cache.delete("room:1");
+        assertEquals(1, cache.getScheduledCount());
+
+        cache.clear();
+        assertEquals(0, cache.getScheduledCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testExpiredEntriesLeaveTagIndex() throws InterruptedException {
+        cache.put("rooms_by_type:single", "a", 10, TimeUnit.MILLISECONDS, "room_type:single");
+        cache.put("rooms_by_type:suite", "b", 10, TimeUnit.MINUTES, "room_type:suite");
+
+        Thread.sleep(1_100);
+        cache.expireEntries();
+
+        assertEquals(1, cache.keysWithPrefix("rooms_by_type:").size());
+        assertEquals(0, cache.invalidateTag("room_type:single"));
+        assertEquals(1, cache.invalidatePrefix("rooms_by_type:"));
+        assertEquals(0, cache.size());
+    }
+}
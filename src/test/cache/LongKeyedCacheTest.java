@@ -0,0 +1,132 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LongKeyedCacheTest {
+
+    @Test
+    void testPutGetAndExpiry() throws InterruptedException {
+        LongKeyedCache<String> cache = new LongKeyedCache<>("room:", 100);
+        cache.put(101, "deluxe", 50, TimeUnit.MILLISECONDS);
+        cache.put(102, "suite", 0, TimeUnit.MILLISECONDS);
+
+        assertEquals("deluxe", cache.get(101));
+        assertNull(cache.get(103));
+        Thread.sleep(80);
+
+        assertNull(cache.get(101));
+        assertEquals("suite", cache.get(102));
+        assertEquals(1, cache.cleanUp());
+        assertEquals(1, cache.size());
+
+        CacheStatsCounter.NamespaceStats stats = cache.getStats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(1, stats.getExpirationCount());
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomPutsAndRemoves() {
+        LongKeyedCache<Long> cache = new LongKeyedCache<>("id:", 100_000);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // A small key range keeps probe runs long and removals frequent
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, cache.remove(key));
+            } else {
+                cache.put(key, (long) i, 1, TimeUnit.HOURS);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), cache.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), cache.peek(key));
+        }
+
+        int sizeBefore = expected.size();
+        int removed = cache.removeIf(value -> value % 2 == 0);
+        expected.values().removeIf(value -> value % 2 == 0);
+        assertEquals(sizeBefore - expected.size(), removed);
+        for (long key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), cache.peek(key));
+        }
+        assertEquals(expected.size(), cache.size());
+    }
+
+    @Test
+    void testEvictsEarliestExpiringWhenFull() {
+        LongKeyedCache<String> cache = new LongKeyedCache<>("room:", 4);
+        cache.put(1, "a", 1, TimeUnit.MINUTES);
+        for (int key = 2; key <= 4; key++) {
+            cache.put(key, "b", 1, TimeUnit.HOURS);
+        }
+
+        cache.put(5, "c", 1, TimeUnit.HOURS);
+
+        assertEquals(4, cache.size());
+        assertFalse(cache.containsKey(1));
+        assertTrue(cache.containsKey(5));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testFullCacheReplacesExpiredEntryBeforeLiveOnes() throws InterruptedException {
+        LongKeyedCache<String> cache = new LongKeyedCache<>("room:", 4);
+        cache.put(1, "short", 20, TimeUnit.MILLISECONDS);
+        for (int key = 2; key <= 4; key++) {
+            cache.put(key, "long", 1, TimeUnit.HOURS);
+        }
+        Thread.sleep(40);
+
+        cache.put(5, "new", 1, TimeUnit.HOURS);
+
+        assertEquals(4, cache.size());
+        for (int key = 2; key <= 5; key++) {
+            assertTrue(cache.containsKey(key));
+        }
+        assertEquals(1, cache.getStats().getExpirationCount());
+        assertEquals(0, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testReadersSeeConsistentValuesDuringWrites() throws InterruptedException {
+        LongKeyedCache<Long> cache = new LongKeyedCache<>("id:", 10_000);
+        for (long key = 0; key < 1_000; key++) {
+            cache.put(key, key, 1, TimeUnit.HOURS);
+        }
+        Thread writer = new Thread(() -> {
+            for (int round = 0; round < 20; round++) {
+                for (long key = 1_000; key < 3_000; key++) {
+                    cache.put(key, key, 1, TimeUnit.HOURS);
+                }
+                for (long key = 1_000; key < 3_000; key++) {
+                    cache.remove(key);
+                }
+            }
+        });
+        writer.start();
+        long mismatches = 0;
+        while (writer.isAlive()) {
+            for (long key = 0; key < 1_000; key++) {
+                Long value = cache.get(key);
+                if (value == null || value != key) {
+                    mismatches++;
+                }
+            }
+        }
+        writer.join();
+
+        assertEquals(0, mismatches);
+        assertEquals(1_000, cache.size());
+    }
+}
@@ -0,0 +1,117 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RefreshAheadCacheTest {
+
+    private BoundedCacheService cache;
+    private RefreshAheadCache refreshAhead;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BoundedCacheService(100);
+        refreshAhead = new RefreshAheadCache(cache, 1, 4);
+        refreshAhead.setPolicy("available_rooms", RefreshAheadCache.RefreshPolicy.atFraction(0.5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshAhead.shutdown();
+    }
+
+    @Test
+    void testHotEntryIsRefreshedInBackground() throws InterruptedException {
+        AtomicInteger version = new AtomicInteger();
+        CountDownLatch reloaded = new CountDownLatch(2);
+        java.util.function.Function<String, Integer> loader = key -> {
+            reloaded.countDown();
+            return version.incrementAndGet();
+        };
+
+        assertEquals(1, refreshAhead.get("available_rooms", loader, 400, TimeUnit.MILLISECONDS));
+        assertEquals(1, refreshAhead.get("available_rooms", loader, 400, TimeUnit.MILLISECONDS));
+
+        Thread.sleep(250);
+        // Past half the TTL: the reader still gets the current value while the reload runs
+        assertEquals(1, refreshAhead.get("available_rooms", loader, 400, TimeUnit.MILLISECONDS));
+        assertTrue(reloaded.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        assertEquals(2, refreshAhead.get("available_rooms", loader, 400, TimeUnit.MILLISECONDS));
+        assertTrue(cache.getTimeToLive("available_rooms") > 300);
+
+        RefreshAheadCache.RefreshStats stats = refreshAhead.getStats("available_rooms");
+        assertEquals(1, stats.getScheduledCount());
+        assertEquals(1, stats.getSucceededCount());
+    }
+
+    @Test
+    void testKeysWithoutPolicyAreNotRefreshed() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        refreshAhead.get("room:1", key -> loads.incrementAndGet(), 100, TimeUnit.MILLISECONDS);
+        Thread.sleep(80);
+        refreshAhead.get("room:1", key -> loads.incrementAndGet(), 100, TimeUnit.MILLISECONDS);
+        Thread.sleep(50);
+
+        assertEquals(1, loads.get());
+        assertTrue(refreshAhead.getStats().get("available_rooms").getScheduledCount() == 0);
+    }
+
+    @Test
+    void testInvalidationDuringRefreshIsNotOverwritten() throws InterruptedException {
+        refreshAhead.setPolicy("rooms_by_type:", RefreshAheadCache.RefreshPolicy.atFraction(0.1));
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        java.util.function.Function<String, String> loader = key -> {
+            if (loads.incrementAndGet() == 2) {
+                refreshStarted.countDown();
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "stale";
+            }
+            return "v" + loads.get();
+        };
+
+        refreshAhead.get("rooms_by_type:suite", loader, 1, TimeUnit.SECONDS);
+        Thread.sleep(150);
+        refreshAhead.get("rooms_by_type:suite", loader, 1, TimeUnit.SECONDS);
+        assertTrue(refreshStarted.await(2, TimeUnit.SECONDS));
+
+        cache.delete("rooms_by_type:suite");
+        release.countDown();
+        Thread.sleep(100);
+
+        assertFalse(cache.exists("rooms_by_type:suite"));
+        assertEquals(1, refreshAhead.getStats("rooms_by_type:").getDiscardedCount());
+    }
+
+    @Test
+    void testFailedRefreshKeepsCurrentValue() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        java.util.function.Function<String, String> loader = key -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new IllegalStateException("repository down");
+            }
+            return "rooms";
+        };
+        refreshAhead.get("available_rooms", loader, 300, TimeUnit.MILLISECONDS);
+        Thread.sleep(200);
+        assertEquals("rooms", refreshAhead.get("available_rooms", loader, 300, TimeUnit.MILLISECONDS));
+        Thread.sleep(50);
+
+        assertEquals(1, refreshAhead.getStats("available_rooms").getFailedCount());
+        assertEquals("rooms", cache.get("available_rooms").orElseThrow());
+    }
+}
@@ -0,0 +1,109 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws InterruptedException {
+        BoundedCacheService cache = new BoundedCacheService(100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> results = new ArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Thread caller = new Thread(() -> {
+                Object value = cache.get("available_rooms", key -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(release);
+                    return List.of(101, 102);
+                }, 5, TimeUnit.MINUTES);
+                synchronized (results) {
+                    results.add(value);
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(16, results.size());
+        assertTrue(results.stream().allMatch(value -> value.equals(List.of(101, 102))));
+        assertEquals(1, cache.getStatsSnapshot().forNamespace("available_rooms").getLoadSuccessCount());
+        assertTrue(cache.exists("available_rooms"));
+    }
+
+    @Test
+    void testFailureReachesEveryWaiterAndIsNotCached() throws InterruptedException {
+        InMemoryCacheService cache = new InMemoryCacheService();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger failures = new AtomicInteger();
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread caller = new Thread(() -> {
+                    try {
+                        cache.get("rooms_by_type:suite", key -> {
+                            awaitQuietly(release);
+                            throw new IllegalStateException("repository down");
+                        });
+                    } catch (IllegalStateException e) {
+                        assertEquals("repository down", e.getMessage());
+                        failures.incrementAndGet();
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Thread caller : callers) {
+                caller.join();
+            }
+
+            assertEquals(4, failures.get());
+            assertFalse(cache.exists("rooms_by_type:suite"));
+            assertEquals("ok", cache.get("rooms_by_type:suite", key -> "ok"));
+            assertTrue(cache.exists("rooms_by_type:suite"));
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void testNullIsReturnedButNotCached() {
+        BoundedCacheService cache = new BoundedCacheService(10);
+        assertNull(cache.get("room:404", key -> null));
+        assertFalse(cache.exists("room:404"));
+        assertEquals(1, cache.getStatsSnapshot().forNamespace("room:").getLoadFailureCount());
+    }
+
+    @Test
+    void testRecursiveLoadFailsFast() {
+        SingleFlight flights = new SingleFlight();
+        assertThrows(IllegalStateException.class,
+                () -> flights.load("room:1", () -> flights.load("room:1", () -> "inner")));
+        assertEquals(0, flights.getInFlightCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    private static class Timer extends TimerWheel.Node {
+        private final long deadline;
+
+        Timer(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public long getExpirationTime() {
+            return deadline;
+        }
+    }
+
+    @Test
+    void testNodesFireOnlyOnceDue() {
+        long start = 1_000_000L;
+        TimerWheel<Timer> wheel = new TimerWheel<>(start);
+        Timer soon = new Timer(start + 1_500);
+        Timer minutes = new Timer(start + 5 * 60_000);
+        Timer hours = new Timer(start + 3 * 3_600_000);
+        Timer days = new Timer(start + 9L * 86_400_000);
+        for (Timer timer : List.of(soon, minutes, hours, days)) {
+            wheel.schedule(timer);
+        }
+        assertEquals(4, wheel.size());
+
+        List<Timer> fired = new ArrayList<>();
+        for (long now = start; now <= start + 10L * 86_400_000; now += 1_000) {
+            final long tickTime = now;
+            wheel.advance(now, timer -> {
+                assertTrue(timer.getExpirationTime() < tickTime);
+                assertTrue(tickTime - timer.getExpirationTime() <= 2_000, "fired late");
+                fired.add(timer);
+            });
+        }
+
+        assertEquals(List.of(soon, minutes, hours, days), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDescheduledNodeNeverFires() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(0);
+        Timer cancelled = new Timer(5_000);
+        Timer kept = new Timer(5_000);
+        wheel.schedule(cancelled);
+        wheel.schedule(kept);
+        wheel.deschedule(cancelled);
+        assertFalse(cancelled.isScheduled());
+
+        List<Timer> fired = new ArrayList<>();
+        wheel.advance(10_000, fired::add);
+        assertEquals(List.of(kept), fired);
+    }
+
+    @Test
+    void testOverdueNodeFiresOnNextTick() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(100_000);
+        Timer overdue = new Timer(50_000);
+        wheel.schedule(overdue);
+
+        List<Timer> fired = new ArrayList<>();
+        wheel.advance(101_100, fired::add);
+        assertEquals(List.of(overdue), fired);
+    }
+
+    @Test
+    void testLargeJumpFiresEverything() {
+        TimerWheel<Timer> wheel = new TimerWheel<>(0);
+        for (int i = 0; i < 1_000; i++) {
+            wheel.schedule(new Timer(i * 7_919L));
+        }
+        wheel.clear();
+        assertEquals(0, wheel.size());
+
+        for (int i = 0; i < 1_000; i++) {
+            wheel.schedule(new Timer(i * 7_919L));
+        }
+        List<Timer> fired = new ArrayList<>();
+        wheel.advance(20_000_000, fired::add);
+        assertEquals(1_000, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,103 @@
+package concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookingLockManagerTest {
+
+    private BookingLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        lockManager = new BookingLockManager(50);
+    }
+
+    @Test
+    void testMetricsCountAcquisitionsPerRoomAndOperation() {
+        assertTrue(lockManager.acquireRoomLock(101, "BOOKING_HOLD"));
+        lockManager.releaseRoomLock(101);
+        assertTrue(lockManager.acquireRoomLock(101, "BOOKING_CANCEL"));
+        lockManager.releaseRoomLock(101);
+        assertTrue(lockManager.acquireRoomLock(102, "BOOKING_HOLD"));
+        lockManager.releaseRoomLock(102);
+
+        LockContentionMetrics.Snapshot snapshot = lockManager.getMetricsSnapshot();
+        assertEquals(3, snapshot.getOverall().getAcquisitions());
+        assertEquals(2, snapshot.getOverall().getByOperation().get("BOOKING_HOLD").getAcquisitions());
+        assertEquals(2, snapshot.getByRoom().get(101).getAcquisitions());
+        assertEquals(2, snapshot.getByRoom().get(101).getHoldTime().getCount());
+        assertEquals(0, snapshot.getOverall().getTimeouts());
+    }
+
+    @Test
+    void testMetricsRecordTimeoutsAndWaitTime() throws InterruptedException {
+        assertTrue(lockManager.acquireRoomLock(101, "BOOKING_HOLD"));
+        Thread contender = new Thread(() -> lockManager.acquireRoomLock(101, "BOOKING_CONFIRM"));
+        contender.start();
+        contender.join();
+        lockManager.releaseRoomLock(101);
+
+        LockContentionMetrics.OperationSnapshot confirm = lockManager.getMetricsSnapshot()
+                .getByRoom().get(101).getByOperation().get("BOOKING_CONFIRM");
+        assertEquals(1, confirm.getTimeouts());
+        assertEquals(0, confirm.getAcquisitions());
+        assertTrue(confirm.getWaitTime().getMaxNanos() >= 40_000_000L);
+        assertEquals(List.of(101), lockManager.getMetricsSnapshot().getHottestRooms(1));
+    }
+
+    @Test
+    void testReentrantAcquireRecordsSingleHold() {
+        assertTrue(lockManager.acquireRoomLock(101, "GROUP_BOOKING_HOLD"));
+        assertTrue(lockManager.acquireRoomLock(101, "BOOKING_HOLD"));
+        lockManager.releaseRoomLock(101);
+        lockManager.releaseRoomLock(101);
+
+        assertEquals(1, lockManager.getMetricsSnapshot().getOverall().getHoldTime().getCount());
+        assertFalse(lockManager.isRoomLocked(101));
+    }
+
+    @Test
+    void testExpiredLeaseIsReapedAndRegrantedWithNewerToken() throws InterruptedException {
+        BookingLockManager leases = new BookingLockManager(1000, 200, 10);
+        long[] staleToken = new long[1];
+        Thread stalledHolder = new Thread(() -> {
+            leases.acquireRoomLock(101, "BOOKING_CONFIRM");
+            staleToken[0] = leases.getFencingToken(101).getAsLong();
+        });
+        stalledHolder.start();
+        stalledHolder.join();
+
+        assertTrue(leases.acquireRoomLock(101, "BOOKING_HOLD"));
+        assertTrue(leases.getFencingToken(101).getAsLong() > staleToken[0]);
+        assertEquals(1, leases.getExpiredLeaseCount());
+        assertEquals(1, leases.getMetricsSnapshot().getOverall().getLeaseExpirations());
+        leases.releaseRoomLock(101);
+        leases.shutdown();
+    }
+
+    @Test
+    void testReaperFreesRoomWithoutWaiters() throws InterruptedException {
+        BookingLockManager leases = new BookingLockManager(1000, 30, 10);
+        Thread stalledHolder = new Thread(() -> leases.acquireRoomLock(101, "BOOKING_CREATE"));
+        stalledHolder.start();
+        stalledHolder.join();
+
+        Thread.sleep(150);
+        assertFalse(leases.isRoomLocked(101));
+        assertEquals(1, leases.getExpiredLeaseCount());
+        leases.shutdown();
+    }
+
+    @Test
+    void testFencingTokenOnlyForCurrentHolder() {
+        assertFalse(lockManager.getFencingToken(101).isPresent());
+        assertTrue(lockManager.acquireRoomLock(101, "BOOKING_HOLD"));
+        assertTrue(lockManager.getFencingToken(101).isPresent());
+        lockManager.releaseRoomLock(101);
+        assertFalse(lockManager.getFencingToken(101).isPresent());
+    }
+}
@@ -0,0 +1,273 @@
+package concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import model.Booking;
+import model.BookingStatus;
+import model.PaymentResult;
+import model.Room;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.*;
+import services.NotificationService;
+import services.PaymentService;
+
+class ConcurrentBookingServiceTest {
+
+    private InMemoryBookingRepository bookingRepository;
+    private InMemoryRoomRepository roomRepository;
+    private StubPaymentService paymentService;
+    private ConcurrentBookingService bookingService;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = new InMemoryBookingRepository();
+        roomRepository = new InMemoryRoomRepository();
+        for (int roomNumber = 1; roomNumber <= 3; roomNumber++) {
+            roomRepository.save(new Room(roomNumber, "Double", 100.0));
+        }
+        paymentService = new StubPaymentService();
+        checkIn = LocalDate.now().plusDays(10);
+        checkOut = checkIn.plusDays(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bookingService != null) {
+            bookingService.shutdown();
+        }
+    }
+
+    private ConcurrentBookingService newService(long holdTtlMs, long sweepIntervalMs) {
+        NotificationService notificationService = new NotificationService(
+            new InMemoryNotificationRepository(), new InMemoryUserRepository());
+        bookingService = new ConcurrentBookingService(bookingRepository, roomRepository, notificationService,
+            paymentService, ExecutionMode.PLATFORM_POOL, holdTtlMs, sweepIntervalMs);
+        return bookingService;
+    }
+
+    @Test
+    void testSweeperReclaimsExpiredHold() {
+        newService(50, 20);
+        Booking held = bookingService.placeOfferHold(1L, 1, checkIn, checkOut, 50).getBooking();
+        assertEquals(BookingStatus.PENDING, held.getBookingStatus());
+
+        assertTrue(waitFor(() -> held.getBookingStatus() == BookingStatus.CANCELLED));
+        assertEquals(0, bookingService.getHoldManager().getActiveHoldCount());
+        assertTrue(bookingService.createBooking(2L, 1, checkIn, checkOut).isSuccessful());
+    }
+
+    @Test
+    void testSweeperRetriesWhileRoomIsLocked() throws InterruptedException {
+        newService(30, 10);
+        Booking held = bookingService.placeOfferHold(1L, 1, checkIn, checkOut, 30).getBooking();
+
+        assertTrue(bookingService.getLockManager().acquireRoomLock(1, "TEST"));
+        Thread.sleep(150);
+        // The sweeper must not wait on the room lock, so the hold is still pending and queued again
+        assertEquals(BookingStatus.PENDING, held.getBookingStatus());
+        assertEquals(1, bookingService.getHoldManager().getActiveHoldCount());
+        bookingService.getLockManager().releaseRoomLock(1);
+
+        assertTrue(waitFor(() -> held.getBookingStatus() == BookingStatus.CANCELLED));
+    }
+
+    @Test
+    void testConfirmAfterHoldExpiryFailsAndRefunds() throws InterruptedException {
+        newService(20, 60_000);
+        Booking held = bookingService.placeOfferHold(1L, 1, checkIn, checkOut, 20).getBooking();
+        Thread.sleep(50);
+
+        ConcurrentBookingService.BookingResult result = bookingService.confirmHeldBooking(held.getId(), 1L);
+
+        assertFalse(result.isSuccessful());
+        assertEquals(BookingStatus.CANCELLED, held.getBookingStatus());
+        assertTrue(waitFor(() -> paymentService.refunds.get() == 1));
+    }
+
+    @Test
+    void testHoldExpiringDuringPaymentIsNotConfirmed() {
+        newService(50, 20);
+        paymentService.delayMs = 200;
+
+        ConcurrentBookingService.BookingResult result = bookingService.createBooking(1L, 1, checkIn, checkOut);
+
+        assertFalse(result.isSuccessful());
+        assertTrue(result.getMessage().contains("expired"));
+        Booking booking = bookingRepository.findByUserId(1L).get(0);
+        assertEquals(BookingStatus.CANCELLED, booking.getBookingStatus());
+        assertTrue(waitFor(() -> paymentService.refunds.get() == 1));
+    }
+
+    @Test
+    void testFailedPaymentCancelsPendingBookingAndReleasesHold() {
+        newService(60_000, 60_000);
+        paymentService.succeed = false;
+
+        assertFalse(bookingService.createBooking(1L, 1, checkIn, checkOut).isSuccessful());
+
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findByUserId(1L).get(0).getBookingStatus());
+        assertEquals(0, bookingService.getHoldManager().getActiveHoldCount());
+        assertFalse(bookingService.getLockManager().isRoomLocked(1));
+    }
+
+    @Test
+    void testConfirmHeldBookingWithinHoldSucceeds() {
+        newService(60_000, 60_000);
+        Booking held = bookingService.placeOfferHold(1L, 1, checkIn, checkOut, 60_000).getBooking();
+
+        assertTrue(bookingService.confirmHeldBooking(held.getId(), 1L).isSuccessful());
+        assertEquals(BookingStatus.CONFIRMED, held.getBookingStatus());
+        assertEquals(0, bookingService.getHoldManager().getActiveHoldCount());
+    }
+
+    @Test
+    void testBookingSucceedsOnEveryExecutionMode() throws Exception {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            NotificationService notificationService = new NotificationService(
+                new InMemoryNotificationRepository(), new InMemoryUserRepository());
+            ConcurrentBookingService service = new ConcurrentBookingService(bookingRepository, roomRepository,
+                notificationService, paymentService, mode);
+            try {
+                int roomNumber = mode.ordinal() + 1;
+                assertTrue(service.createBookingAsync(1L, roomNumber, checkIn, checkOut)
+                    .get(5, TimeUnit.SECONDS).isSuccessful());
+            } finally {
+                service.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testDeclinedRefundIsCounted() throws InterruptedException {
+        newService(20, 60_000);
+        paymentService.refundSucceeds = false;
+        Booking held = bookingService.placeOfferHold(1L, 1, checkIn, checkOut, 20).getBooking();
+        Thread.sleep(50);
+
+        assertFalse(bookingService.confirmHeldBooking(held.getId(), 1L).isSuccessful());
+
+        assertTrue(waitFor(() -> bookingService.getFailedRefundCount() == 1));
+    }
+
+    @Test
+    void testGroupBookingConfirmsEveryRoom() {
+        newService(60_000, 60_000);
+
+        ConcurrentBookingService.GroupBookingResult result = bookingService.createGroupBooking(1L, groupStays(1, 2, 3));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(3, result.getBookings().size());
+        result.getBookings().forEach(b -> assertEquals(BookingStatus.CONFIRMED, b.getBookingStatus()));
+        assertEquals(1, paymentService.payments.get());
+    }
+
+    @Test
+    void testGroupConflictOnLastRoomLeavesEarlierRoomsFree() {
+        newService(60_000, 60_000);
+        assertTrue(bookingService.createBooking(2L, 3, checkIn, checkOut).isSuccessful());
+
+        ConcurrentBookingService.GroupBookingResult result = bookingService.createGroupBooking(1L, groupStays(1, 2, 3));
+
+        assertFalse(result.isSuccessful());
+        assertTrue(result.getMessage().contains("Room 3"));
+        assertTrue(bookingRepository.findByUserId(1L).isEmpty());
+        assertEquals(0, bookingService.getHoldManager().getActiveHoldCount());
+        assertEquals(1, paymentService.payments.get());
+    }
+
+    @Test
+    void testGroupPaymentFailureCancelsEveryRoom() {
+        newService(60_000, 60_000);
+        paymentService.succeed = false;
+
+        assertFalse(bookingService.createGroupBooking(1L, groupStays(1, 2, 3)).isSuccessful());
+
+        assertEquals(3, bookingRepository.findByUserId(1L).size());
+        bookingRepository.findByUserId(1L).forEach(b -> assertEquals(BookingStatus.CANCELLED, b.getBookingStatus()));
+        assertEquals(0, bookingService.getHoldManager().getActiveHoldCount());
+
+        paymentService.succeed = true;
+        assertTrue(bookingService.createGroupBooking(2L, groupStays(1, 2)).isSuccessful());
+    }
+
+    @Test
+    void testGroupHoldExpiringDuringPaymentRollsBackAndRefunds() {
+        newService(50, 20);
+        paymentService.delayMs = 200;
+
+        ConcurrentBookingService.GroupBookingResult result = bookingService.createGroupBooking(1L, groupStays(1, 2, 3));
+
+        assertFalse(result.isSuccessful());
+        assertTrue(result.getMessage().contains("expired"));
+        bookingRepository.findByUserId(1L).forEach(b -> assertEquals(BookingStatus.CANCELLED, b.getBookingStatus()));
+        assertTrue(waitFor(() -> paymentService.refunds.get() == 1));
+    }
+
+    private List<ConcurrentBookingService.RoomStayRequest> groupStays(int... roomNumbers) {
+        List<ConcurrentBookingService.RoomStayRequest> stays = new ArrayList<>();
+        for (int roomNumber : roomNumbers) {
+            stays.add(new ConcurrentBookingService.RoomStayRequest(roomNumber, checkIn, checkOut));
+        }
+        return stays;
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return condition.getAsBoolean();
+    }
+
+    // Payment gateway stand-in with a configurable delay and outcome that counts refunds
+    static class StubPaymentService extends PaymentService {
+        volatile long delayMs;
+        volatile boolean succeed = true;
+        volatile boolean refundSucceeds = true;
+        final AtomicInteger payments = new AtomicInteger();
+        final AtomicInteger refunds = new AtomicInteger();
+
+        StubPaymentService() {
+            super(new InMemoryPaymentRepository());
+        }
+
+        @Override
+        public PaymentResult processPayment(Long userId, double amount, String description) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new PaymentResult(false, null, "Interrupted");
+            }
+            int paymentNumber = payments.incrementAndGet();
+            return succeed ? new PaymentResult(true, "PAY-" + paymentNumber, "Payment processed successfully")
+                           : new PaymentResult(false, null, "Card declined");
+        }
+
+        @Override
+        public PaymentResult processRefund(String originalPaymentId, double amount) {
+            refunds.incrementAndGet();
+            return refundSucceeds ? new PaymentResult(true, "REF-" + originalPaymentId, "Refund processed successfully")
+                                  : new PaymentResult(false, null, "Refund failed");
+        }
+    }
+}
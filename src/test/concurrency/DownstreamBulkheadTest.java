@@ -0,0 +1,121 @@
+package concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DownstreamBulkheadTest {
+
+    private ExecutorService executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        executor = BookingExecutors.newDownstreamExecutor(ExecutionMode.PLATFORM_POOL);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testCallerIsRejectedAfterAcquireTimeout() {
+        DownstreamBulkhead bulkhead = new DownstreamBulkhead("payment", 1, 50);
+        bulkhead.submit(executor, this::awaitRelease);
+
+        long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.submit(executor, this::awaitRelease));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(1, bulkhead.getInFlight());
+    }
+
+    @Test
+    void testInFlightCallsAreCappedAndPermitsReturned() throws Exception {
+        DownstreamBulkhead bulkhead = new DownstreamBulkhead("notification", 2, 20);
+        Future<?> first = bulkhead.submit(executor, this::awaitRelease);
+        Future<?> second = bulkhead.submit(executor, this::awaitRelease);
+
+        assertEquals(2, bulkhead.getInFlight());
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.submit(executor, this::awaitRelease));
+
+        release.countDown();
+        first.get(1, TimeUnit.SECONDS);
+        second.get(1, TimeUnit.SECONDS);
+        assertEquals(0, bulkhead.getInFlight());
+        assertEquals(2, bulkhead.getCompletedCount());
+        assertEquals("done", bulkhead.submit(executor, () -> "done").get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPermitIsReturnedWhenExecutorRejectsTask() {
+        DownstreamBulkhead bulkhead = new DownstreamBulkhead("refund", 1, 20);
+        executor.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.submit(executor, () -> "refund"));
+
+        assertEquals(0, bulkhead.getInFlight());
+        assertEquals(1, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    void testCancellingQueuedTaskReturnsItsPermit() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            DownstreamBulkhead bulkhead = new DownstreamBulkhead("payment", 2, 20);
+            Future<?> running = bulkhead.submit(single, this::awaitRelease);
+            Future<?> queued = bulkhead.submit(single, () -> "never runs");
+            assertEquals(0, bulkhead.getAvailablePermits());
+
+            assertTrue(queued.cancel(true));
+
+            assertEquals(1, bulkhead.getAvailablePermits());
+            release.countDown();
+            running.get(1, TimeUnit.SECONDS);
+            assertEquals(2, bulkhead.getAvailablePermits());
+            assertEquals(1, bulkhead.getCompletedCount());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPlatformDownstreamExecutorIsBounded() {
+        ThreadPoolExecutor pool = assertInstanceOf(ThreadPoolExecutor.class, executor);
+        assertTrue(pool.getMaximumPoolSize() < Integer.MAX_VALUE);
+        assertTrue(pool.getQueue().remainingCapacity() < Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testBulkheadRunsOnEveryExecutionMode() throws Exception {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            ExecutorService downstream = BookingExecutors.newDownstreamExecutor(mode);
+            try {
+                DownstreamBulkhead bulkhead = new DownstreamBulkhead(mode.name(), 1, 1000);
+                assertEquals(mode.name(), bulkhead.submit(downstream, () -> mode.name()).get(1, TimeUnit.SECONDS));
+                assertEquals(0, bulkhead.getInFlight());
+            } finally {
+                downstream.shutdownNow();
+            }
+        }
+    }
+
+    private Object awaitRelease() throws InterruptedException {
+        release.await();
+        return null;
+    }
+}
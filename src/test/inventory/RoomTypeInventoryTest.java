@@ -0,0 +1,161 @@
+package inventory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import model.Booking;
+import model.BookingStatus;
+import model.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.InMemoryRoomRepository;
+
+class RoomTypeInventoryTest {
+
+    private RoomTypeInventory inventory;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.of(2025, 3, 1);
+        inventory = new RoomTypeInventory(30, clockAt(today));
+        inventory.rebuild(List.of(new Room(1, "Single", 100.0), new Room(2, "Single", 100.0),
+                new Room(3, "Suite", 300.0)), List.of());
+    }
+
+    @Test
+    void testGridCountsBookedNights() {
+        inventory.sync(booking(1L, 1, today.plusDays(1), today.plusDays(3), BookingStatus.CONFIRMED));
+
+        InventoryGrid grid = inventory.getAvailabilityGrid(today, 5);
+        assertEquals(List.of("Single", "Suite"), grid.getRoomTypes());
+        assertEquals(2, grid.getAvailable("Single", today));
+        assertEquals(1, grid.getAvailable("single", today.plusDays(1)));
+        assertEquals(1, grid.getAvailable("Single", today.plusDays(2)));
+        assertEquals(2, grid.getAvailable("Single", today.plusDays(3)));
+        assertEquals(1, grid.getAvailable("Suite", today.plusDays(1)));
+    }
+
+    @Test
+    void testCancellationReleasesNights() {
+        Booking booking = booking(1L, 3, today, today.plusDays(2), BookingStatus.CONFIRMED);
+        inventory.sync(booking);
+        assertEquals(0, inventory.getAvailableCount("Suite", today));
+
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        inventory.onBookingUpdate(booking, "BOOKING_CANCELLED");
+        inventory.onBookingUpdate(booking, "BOOKING_CANCELLED");
+        assertEquals(1, inventory.getAvailableCount("Suite", today));
+    }
+
+    @Test
+    void testWindowRollsForwardAndPicksUpFutureStays() {
+        MutableClock clock = new MutableClock(today);
+        inventory = new RoomTypeInventory(10, clock);
+        inventory.rebuild(List.of(new Room(1, "Single", 100.0)),
+                List.of(booking(1L, 1, today.plusDays(12), today.plusDays(14), BookingStatus.CONFIRMED)));
+        assertThrows(IllegalArgumentException.class, () -> inventory.getAvailableCount("Single", today.plusDays(12)));
+
+        clock.today = today.plusDays(5);
+        assertEquals(0, inventory.getAvailableCount("Single", today.plusDays(12)));
+        assertEquals(0, inventory.getAvailableCount("Single", today.plusDays(13)));
+        assertEquals(1, inventory.getAvailableCount("Single", today.plusDays(14)));
+    }
+
+    @Test
+    void testRoomRepositoryChangesUpdateTotals() {
+        InMemoryRoomRepository roomRepository = new InMemoryRoomRepository();
+        roomRepository.addChangeListener(inventory.roomChangeListener());
+
+        Room added = roomRepository.save(new Room(4, "Suite", 300.0));
+        assertEquals(2, inventory.getAvailableCount("Suite", today));
+
+        added.setAvailable(false);
+        roomRepository.save(added);
+        assertEquals(2, inventory.getAvailableCount("Suite", today));
+
+        roomRepository.delete(added);
+        assertEquals(1, inventory.getAvailableCount("Suite", today));
+    }
+
+    @Test
+    void testGridRejectsDaysOutsideHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> inventory.getAvailabilityGrid(today.minusDays(1), 2));
+        assertThrows(IllegalArgumentException.class, () -> inventory.getAvailabilityGrid(today.plusDays(25), 10));
+        assertThrows(IllegalArgumentException.class, () -> inventory.getAvailableCount("Single", today.plusDays(30)));
+        assertEquals(30, inventory.getAvailabilityGrid(today, 30).getDays());
+    }
+
+    @Test
+    void testRetypedRoomMovesItsBookedNights() {
+        InMemoryRoomRepository roomRepository = new InMemoryRoomRepository();
+        roomRepository.save(new Room(1, "Single", 100.0));
+        roomRepository.addChangeListener(inventory.roomChangeListener());
+        inventory.sync(booking(1L, 1, today, today.plusDays(2), BookingStatus.CONFIRMED));
+        assertEquals(1, inventory.getAvailableCount("Single", today));
+
+        roomRepository.save(new Room(1, "Suite", 300.0));
+
+        assertEquals(1, inventory.getAvailableCount("Single", today));
+        assertEquals(1, inventory.getAvailableCount("Suite", today));
+        assertEquals(1, inventory.getAvailableCount("Single", today.plusDays(1)));
+        assertEquals(1, inventory.getAvailableCount("Suite", today.plusDays(1)));
+    }
+
+    @Test
+    void testConcurrentRoomRegistrationCountsEveryRoom() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int firstRoom = 100 + t * 250;
+            threads[t] = new Thread(() -> {
+                for (int roomNumber = firstRoom; roomNumber < firstRoom + 250; roomNumber++) {
+                    inventory.registerRoom(new Room(roomNumber, "Double", 150.0));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, inventory.getAvailableCount("Double", today));
+    }
+
+    private Booking booking(Long id, int roomNumber, LocalDate checkIn, LocalDate checkOut, BookingStatus status) {
+        Booking booking = new Booking(1L, roomNumber, checkIn, checkOut, 100.0);
+        booking.setId(id);
+        booking.setBookingStatus(status);
+        return booking;
+    }
+
+    private static Clock clockAt(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private static class MutableClock extends Clock {
+        private LocalDate today;
+
+        MutableClock(LocalDate today) {
+            this.today = today;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public java.time.Instant instant() {
+            return today.atStartOfDay().toInstant(ZoneOffset.UTC);
+        }
+    }
+}
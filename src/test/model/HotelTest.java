@@ -301,6 +301,61 @@ public class HotelTest {
         assertFalse(removed);
     }
 
+    @Test
+    void testIndexesFollowBookingsAndRemovals() {
+        hotel.bookRoom(1);
+        hotel.bookRoom(2);
+        assertEquals(98, hotel.countAvailableRooms());
+        assertEquals(33, hotel.findAvailableRoomsByType("single").size());
+
+        hotel.removeRoom(4);
+        assertEquals(97, hotel.countAvailableRooms());
+        assertEquals(7, hotel.findAvailableRoom("Single").getRoomNumber());
+        assertEquals(33, hotel.getRoomsByType("Single").size());
+
+        hotel.removeRoom(1);
+        assertEquals(97, hotel.countAvailableRooms());
+        hotel.cancelReservation(2);
+        assertEquals(98, hotel.countAvailableRooms());
+        assertEquals(2, hotel.findAvailableRoom("Double").getRoomNumber());
+
+        Room added = hotel.addRoom("Penthouse", 900.0);
+        assertEquals(101, added.getRoomNumber());
+        assertEquals(99, hotel.countAvailableRooms());
+        assertEquals(added, hotel.findAvailableRoom("penthouse"));
+    }
+
+    @Test
+    void testConcurrentBookingsBookEachRoomOnce() throws InterruptedException {
+        int threads = 8;
+        int[] successes = new int[threads];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            Thread worker = new Thread(() -> {
+                for (int roomNumber = 1; roomNumber <= 100; roomNumber++) {
+                    if (hotel.bookRoom(roomNumber)) {
+                        successes[index]++;
+                    }
+                    hotel.countAvailableRooms();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int total = 0;
+        for (int count : successes) {
+            total += count;
+        }
+        assertEquals(100, total);
+        assertEquals(0, hotel.countAvailableRooms());
+        assertNull(hotel.findAvailableRoom("Suite"));
+    }
+
     @Test
     void testLogRoomBooking() {
         hotel.bookRoom(1);
@@ -0,0 +1,114 @@
+package patterns.command;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import model.Booking;
+import model.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.InMemoryBookingRepository;
+
+class CommandInvokerTest {
+
+    private InMemoryBookingRepository repository;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryBookingRepository();
+        today = LocalDate.of(2025, 3, 1);
+    }
+
+    @Test
+    void testHistoryKeepsNewestCommandsWhenFull() {
+        CommandInvoker invoker = new CommandInvoker(3);
+        Booking[] bookings = new Booking[5];
+        for (int i = 0; i < 5; i++) {
+            bookings[i] = repository.save(new Booking(1L, 100 + i, today, today.plusDays(1), 100.0));
+            invoker.executeCommand(confirm(bookings[i]));
+        }
+
+        assertEquals(3, invoker.getHistorySize());
+        assertEquals(3, invoker.undoLastCommands(10));
+        assertEquals(BookingStatus.PENDING, bookings[2].getBookingStatus());
+        assertEquals(BookingStatus.CONFIRMED, bookings[1].getBookingStatus());
+        assertFalse(invoker.canUndo());
+    }
+
+    @Test
+    void testRedoReappliesUndoneCommands() {
+        CommandInvoker invoker = new CommandInvoker(10);
+        Booking first = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        Booking second = repository.save(new Booking(1L, 102, today, today.plusDays(1), 100.0));
+        invoker.executeCommand(confirm(first));
+        invoker.executeCommand(confirm(second));
+
+        assertEquals(2, invoker.undoLastCommands(2));
+        assertTrue(invoker.redoLastCommand());
+        assertEquals(BookingStatus.CONFIRMED, first.getBookingStatus());
+        assertEquals(BookingStatus.PENDING, second.getBookingStatus());
+
+        // A new command discards what was left to redo
+        invoker.executeCommand(confirm(repository.save(new Booking(1L, 103, today, today.plusDays(1), 100.0))));
+        assertFalse(invoker.canRedo());
+        assertEquals(2, invoker.getHistorySize());
+    }
+
+    @Test
+    void testJournalRestoresHistoryAfterRestart() throws IOException {
+        Path journal = Files.createTempFile("commandJournal", ".log");
+        Files.delete(journal);
+        try {
+            Booking first = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+            Booking second = repository.save(new Booking(2L, 102, today, today.plusDays(2), 100.0));
+            CommandInvoker before = new CommandInvoker(10);
+            before.enableJournal(journal, entry -> BookingCommand.fromJournalEntry(entry, repository).orElse(null));
+            before.executeCommand(confirm(first));
+            before.executeCommand(confirm(second));
+            before.undoLastCommand();
+            before.close();
+
+            CommandInvoker after = new CommandInvoker(10);
+            after.enableJournal(journal, entry -> BookingCommand.fromJournalEntry(entry, repository).orElse(null));
+            assertEquals(1, after.getHistorySize());
+            assertTrue(after.canRedo());
+
+            assertTrue(after.undoLastCommand());
+            assertEquals(BookingStatus.PENDING, first.getBookingStatus());
+            after.close();
+        } finally {
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    @Test
+    void testJournalIsCompactedWhenHistoryWraps() throws IOException {
+        Path journal = Files.createTempFile("commandJournal", ".log");
+        Files.delete(journal);
+        try {
+            CommandInvoker before = new CommandInvoker(3);
+            before.enableJournal(journal, entry -> BookingCommand.fromJournalEntry(entry, repository).orElse(null));
+            for (int i = 0; i < 20; i++) {
+                before.executeCommand(confirm(repository.save(new Booking(1L, 100 + i, today, today.plusDays(1), 100.0))));
+                assertTrue(Files.readAllLines(journal).size() < 2 * 3);
+            }
+            before.close();
+
+            CommandInvoker after = new CommandInvoker(3);
+            after.enableJournal(journal, entry -> BookingCommand.fromJournalEntry(entry, repository).orElse(null));
+            assertEquals(3, after.getHistorySize());
+            after.close();
+        } finally {
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    private Command confirm(Booking booking) {
+        return new BookingCommand(booking, b -> b.setBookingStatus(BookingStatus.CONFIRMED));
+    }
+}
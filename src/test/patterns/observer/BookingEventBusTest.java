@@ -0,0 +1,185 @@
+package patterns.observer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import model.Booking;
+import model.BookingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookingEventBusTest {
+
+    private BookingEventBus eventBus;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        eventBus = new BookingEventBus(16, 10);
+        booking = new Booking(1L, 101, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2), 100.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventBus.shutdown();
+    }
+
+    @Test
+    void testSubscriberSeesEventsInPublishOrder() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribe((b, eventType) -> received.add(eventType));
+
+        for (int i = 0; i < 100; i++) {
+            eventBus.publish(booking, "EVENT_" + i);
+        }
+
+        assertTrue(eventBus.flush(2000));
+        assertEquals(100, received.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("EVENT_" + i, received.get(i));
+        }
+        assertEquals(0, eventBus.getStats().get(0).getLagEvents());
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotBlockPublisher() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> fast = new CopyOnWriteArrayList<>();
+        eventBus.subscribe((b, eventType) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4, BookingEventBus.BackpressurePolicy.DROP_OLDEST);
+        eventBus.subscribe((b, eventType) -> fast.add(eventType));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            eventBus.publish(booking, "EVENT_" + i);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+        BookingEventBus.SubscriberStats slow = eventBus.getStats().get(0);
+        assertTrue(slow.getDropped() > 0);
+        assertTrue(slow.getQueued() <= 4);
+
+        release.countDown();
+        assertTrue(eventBus.flush(2000));
+        assertEquals(50, fast.size());
+    }
+
+    @Test
+    void testFailingObserverIsCountedAndKeepsConsuming() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribe((b, eventType) -> {
+            if ("BAD".equals(eventType)) {
+                throw new IllegalStateException("boom");
+            }
+            received.add(eventType);
+        });
+
+        eventBus.publish(booking, "BAD");
+        eventBus.publish(booking, "GOOD");
+
+        assertTrue(eventBus.flush(2000));
+        assertEquals(List.of("GOOD"), received);
+        assertEquals(1, eventBus.getStats().get(0).getFailed());
+    }
+
+    @Test
+    void testUnboundedSubscriptionNeverDrops() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribeUnbounded((b, eventType) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(eventType);
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5000; i++) {
+            eventBus.publish(booking, "EVENT_" + i);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+        release.countDown();
+        assertTrue(eventBus.flush(5000));
+        assertEquals(5000, received.size());
+        assertEquals(0, eventBus.getStats().get(0).getDropped());
+        assertEquals(BookingEventBus.BackpressurePolicy.UNBOUNDED, eventBus.getStats().get(0).getPolicy());
+    }
+
+    @Test
+    void testDefaultSubscriptionIsBoundedAndBlocks() {
+        eventBus.subscribe((b, eventType) -> { });
+
+        BookingEventBus.SubscriberStats stats = eventBus.getStats().get(0);
+        assertEquals(BookingEventBus.BackpressurePolicy.BLOCK, stats.getPolicy());
+        assertTrue(stats.getRemainingCapacity() < Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testObserversSeeImmutableSnapshotAtPublishTime() throws InterruptedException {
+        List<Booking> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribe((b, eventType) -> received.add(b));
+
+        booking.setId(7L);
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        eventBus.publish(booking, "BOOKING_CREATED");
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+
+        assertTrue(eventBus.flush(2000));
+        Booking seen = received.get(0);
+        assertNotSame(booking, seen);
+        assertEquals(7L, seen.getId());
+        assertEquals(BookingStatus.CONFIRMED, seen.getBookingStatus());
+        assertThrows(UnsupportedOperationException.class, () -> seen.setBookingStatus(BookingStatus.CANCELLED));
+    }
+
+    @Test
+    void testBlockPolicyCountsEventsDroppedAfterTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        eventBus.subscribe((b, eventType) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1, BookingEventBus.BackpressurePolicy.BLOCK);
+
+        for (int i = 0; i < 4; i++) {
+            eventBus.publish(booking, "EVENT_" + i);
+        }
+
+        assertTrue(eventBus.getStats().get(0).getDropped() >= 2);
+        release.countDown();
+    }
+
+    @Test
+    void testErrorInObserverDoesNotStopConsumer() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        eventBus.subscribe((b, eventType) -> {
+            if ("FATAL".equals(eventType)) {
+                throw new AssertionError("boom");
+            }
+            received.add(eventType);
+        });
+
+        eventBus.publish(booking, "FATAL");
+        eventBus.publish(booking, "GOOD");
+
+        assertTrue(eventBus.flush(2000));
+        assertEquals(List.of("GOOD"), received);
+        assertEquals(1, eventBus.getStats().get(0).getFailed());
+    }
+}
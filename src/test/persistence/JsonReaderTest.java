@@ -1,12 +1,19 @@
 package persistence;
 
+import model.Event;
+import model.EventLog;
 import model.Hotel;
+import model.Room;
 //import model.Room;
 
 //import org.json.JSONObject;
 //import model.Room;
 import org.junit.jupiter.api.Test;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 //import java.nio.file.Files;
 //import java.nio.file.Paths;
 //import java.util.List;
@@ -54,6 +61,43 @@ class JsonReaderTest extends JsonTest {
         }
     }
 
-   
+    @Test
+    void testReaderRestoresLargeHotelInBulk() throws IOException {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Room room = new Room(1000 + i * 2, i % 2 == 0 ? "Single" : "Suite", 100.0 + i);
+            room.setAvailable(i % 5 != 0);
+            rooms.add(room);
+        }
+        rooms.get(1).restoreAmenities(List.of("WiFi", "TV"));
+        Path file = Files.createTempFile("bulkHotel", ".json");
+        try {
+            JsonWriter writer = new JsonWriter(file.toString());
+            writer.open();
+            writer.write(Hotel.restore("Big Hotel", "Test City", rooms));
+            writer.close();
+
+            EventLog.getInstance().clear();
+            Hotel loadedHotel = new JsonReader(file.toString()).read();
+
+            assertEquals(5000, loadedHotel.getAllRooms().size());
+            assertEquals(1000, loadedHotel.getAllRooms().get(0).getRoomNumber());
+            assertEquals(10998, loadedHotel.getAllRooms().get(4999).getRoomNumber());
+            assertNull(loadedHotel.getRoom(1));
+            assertEquals(4000, loadedHotel.countAvailableRooms());
+            assertEquals(1004, loadedHotel.findAvailableRoom("Single").getRoomNumber());
+            assertEquals(List.of("WiFi", "TV"), loadedHotel.getRoom(1002).getAmenities());
+            assertEquals(10999, loadedHotel.addRoom("Double", 150.0).getRoomNumber());
+
+            List<Event> events = new ArrayList<>();
+            for (Event event : EventLog.getInstance()) {
+                events.add(event);
+            }
+            assertEquals(3, events.size());
+            assertEquals("Hotel Big Hotel restored with 5000 rooms.", events.get(1).getDescription());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 
 }
@@ -0,0 +1,269 @@
+package repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import model.Booking;
+import model.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.InMemoryBookingRepository;
+
+class InMemoryBookingRepositoryTest {
+
+    private InMemoryBookingRepository repository;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryBookingRepository();
+        today = LocalDate.of(2025, 3, 1);
+    }
+
+    @Test
+    void testConflictingBookingsOverlap() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+
+        List<Booking> conflicts = repository.findConflictingBookings(101, today.plusDays(2), today.plusDays(5));
+        assertEquals(1, conflicts.size());
+        assertEquals(booking.getId(), conflicts.get(0).getId());
+
+        assertTrue(repository.findConflictingBookings(102, today, today.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void testBackToBackStaysDoNotConflict() {
+        repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+
+        assertTrue(repository.findConflictingBookings(101, today.plusDays(3), today.plusDays(4)).isEmpty());
+        assertTrue(repository.findConflictingBookings(101, today.minusDays(2), today).isEmpty());
+    }
+
+    @Test
+    void testStatusTransitionReleasesNights() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        repository.save(booking);
+        assertTrue(repository.findConflictingBookings(101, today, today.plusDays(3)).isEmpty());
+
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        repository.save(booking);
+        assertEquals(1, repository.findConflictingBookings(101, today, today.plusDays(3)).size());
+    }
+
+    @Test
+    void testRescheduledBookingMovesNights() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+
+        booking.setRoomNumber(102);
+        booking.setCheckInDate(today.plusDays(70));
+        booking.setCheckOutDate(today.plusDays(72));
+        repository.save(booking);
+
+        assertTrue(repository.findConflictingBookings(101, today, today.plusDays(3)).isEmpty());
+        assertEquals(1, repository.findConflictingBookings(102, today.plusDays(71), today.plusDays(90)).size());
+    }
+
+    @Test
+    void testDeleteReleasesNights() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+
+        assertTrue(repository.deleteById(booking.getId()));
+        assertTrue(repository.findConflictingBookings(101, today, today.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void testSecondaryIndexLookups() {
+        repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        repository.save(new Booking(1L, 102, today, today.plusDays(1), 100.0));
+        repository.save(new Booking(2L, 101, today.plusDays(2), today.plusDays(3), 100.0));
+
+        assertEquals(2, repository.findByUserId(1L).size());
+        assertEquals(1, repository.findByUserId(2L).size());
+        assertTrue(repository.findByUserId(3L).isEmpty());
+        assertEquals(2, repository.findByRoomNumber(101).size());
+        assertEquals(3, repository.findByStatus(BookingStatus.PENDING).size());
+    }
+
+    @Test
+    void testSecondaryIndexFollowsStatusChanges() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        repository.save(booking);
+        assertTrue(repository.findByStatus(BookingStatus.PENDING).isEmpty());
+        assertEquals(1, repository.findByStatus(BookingStatus.CONFIRMED).size());
+
+        repository.delete(booking);
+        assertTrue(repository.findByStatus(BookingStatus.CONFIRMED).isEmpty());
+        assertTrue(repository.findByUserId(1L).isEmpty());
+        assertTrue(repository.findByRoomNumber(101).isEmpty());
+    }
+
+    @Test
+    void testSaveBumpsVersion() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        assertEquals(1, booking.getVersion());
+
+        repository.save(booking);
+        assertEquals(2, booking.getVersion());
+    }
+
+    @Test
+    void testCompareAndSaveRejectsStaleVersion() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        long readVersion = booking.getVersion();
+
+        repository.compareAndSave(booking.getId(), readVersion, b -> b.setBookingStatus(BookingStatus.CONFIRMED));
+        assertEquals(readVersion + 1, booking.getVersion());
+
+        assertThrows(OptimisticLockException.class, () -> repository.compareAndSave(booking.getId(), readVersion,
+                b -> b.setBookingStatus(BookingStatus.CANCELLED)));
+        assertEquals(BookingStatus.CONFIRMED, booking.getBookingStatus());
+    }
+
+    @Test
+    void testOptimisticRetryRereadsAfterConflict() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        int[] attempts = {0};
+
+        Booking result = OptimisticRetry.withRetry(() -> {
+            long version = repository.findById(booking.getId()).get().getVersion();
+            if (attempts[0]++ == 0) {
+                repository.save(booking); // Concurrent writer wins the first round
+            }
+            return repository.compareAndSave(booking.getId(), version,
+                    b -> b.setBookingStatus(BookingStatus.CHECKED_IN));
+        });
+
+        assertEquals(2, attempts[0]);
+        assertEquals(BookingStatus.CHECKED_IN, result.getBookingStatus());
+    }
+
+    @Test
+    void testFencedSaveRejectsStaleToken() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+
+        repository.saveFenced(booking, 7, b -> b.setBookingStatus(BookingStatus.CONFIRMED));
+        assertThrows(StaleFencingTokenException.class,
+                () -> repository.saveFenced(booking, 6, b -> b.setBookingStatus(BookingStatus.CANCELLED)));
+        assertEquals(BookingStatus.CONFIRMED, booking.getBookingStatus());
+
+        repository.saveFenced(booking, 7, b -> b.setPaymentId("pay-1"));
+        assertEquals("pay-1", booking.getPaymentId());
+    }
+
+    @Test
+    void testConcurrentFencedSavesKeepHighestToken() throws InterruptedException {
+        Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            long token = t + 1;
+            writers[t] = new Thread(() -> {
+                Booking booking = new Booking(token, 101, today.plusDays(token), today.plusDays(token + 1), 100.0);
+                try {
+                    repository.saveFenced(booking, token, b -> b.setBookingStatus(BookingStatus.PENDING));
+                } catch (StaleFencingTokenException e) {
+                    // An older writer that lost the race is rejected, which is the point
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Booking late = new Booking(9L, 101, today.plusDays(20), today.plusDays(21), 100.0);
+        assertThrows(StaleFencingTokenException.class, () -> repository.saveFenced(late, 7, b -> { }));
+        repository.saveFenced(late, 8, b -> { });
+        assertTrue(repository.findById(late.getId()).isPresent());
+    }
+
+    @Test
+    void testWriterPausedAfterAdmissionIsNotOverwrittenByOlderLease() throws InterruptedException {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Thread older = new Thread(() -> repository.saveFenced(booking, 1, b -> {
+            admitted.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            b.setBookingStatus(BookingStatus.CANCELLED);
+        }));
+        older.start();
+        assertTrue(admitted.await(1, TimeUnit.SECONDS));
+
+        Thread newer = new Thread(() -> repository.saveFenced(booking, 2,
+                b -> b.setBookingStatus(BookingStatus.CHECKED_IN)));
+        newer.start();
+        // The newer holder waits for the admitted write instead of landing before it
+        newer.join(100);
+        assertTrue(newer.isAlive());
+
+        resume.countDown();
+        older.join();
+        newer.join();
+        assertEquals(BookingStatus.CHECKED_IN, booking.getBookingStatus());
+        assertThrows(StaleFencingTokenException.class, () -> repository.saveFenced(booking, 1, b -> { }));
+    }
+
+    @Test
+    void testChangeListenerSeesEveryWrite() {
+        List<String> events = new ArrayList<>();
+        repository.addChangeListener(new EntityChangeListener<Booking, Long>() {
+            @Override
+            public void onSaved(Long id, Booking booking, boolean created) {
+                events.add((created ? "created:" : "updated:") + id);
+            }
+
+            @Override
+            public void onDeleted(Long id, Booking booking) {
+                events.add("deleted:" + id);
+            }
+        });
+
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(1), 100.0));
+        repository.compareAndSave(booking.getId(), booking.getVersion(),
+                b -> b.setBookingStatus(BookingStatus.CONFIRMED));
+        repository.saveFenced(booking, 1, b -> b.setPaymentId("pay-1"));
+        repository.delete(booking);
+        assertFalse(repository.deleteById(booking.getId()));
+
+        assertEquals(List.of("created:1", "updated:1", "updated:1", "deleted:1"), events);
+    }
+
+    @Test
+    void testFencedSaveNotifiesListenersAfterTheGuard() {
+        Booking other = repository.save(new Booking(2L, 101, today.plusDays(5), today.plusDays(6), 100.0));
+        List<String> events = new ArrayList<>();
+        repository.addChangeListener(new EntityChangeListener<Booking, Long>() {
+            @Override
+            public void onSaved(Long id, Booking booking, boolean created) {
+                events.add("saved:" + id);
+                if (id == 100L) {
+                    // Would fail with a recursive update if listeners ran inside the guard
+                    repository.saveFenced(other, 3, b -> b.setPaymentId("pay-2"));
+                }
+            }
+
+            @Override
+            public void onDeleted(Long id, Booking booking) {
+            }
+        });
+
+        Booking booking = new Booking(1L, 101, today, today.plusDays(1), 100.0);
+        booking.setId(100L);
+        repository.saveFenced(booking, 3, b -> b.setBookingStatus(BookingStatus.PENDING));
+
+        assertEquals(List.of("saved:100", "saved:" + other.getId()), events);
+        assertEquals("pay-2", other.getPaymentId());
+    }
+}
@@ -0,0 +1,91 @@
+package repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import model.Booking;
+import model.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.InMemoryBookingRepository;
+import repository.impl.IntervalTreeBookingRepository;
+
+class IntervalTreeBookingRepositoryTest {
+
+    private IntervalTreeBookingRepository repository;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        repository = new IntervalTreeBookingRepository();
+        today = LocalDate.of(2025, 3, 1);
+    }
+
+    @Test
+    void testConflictingBookings() {
+        repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+        repository.save(new Booking(2L, 101, today.plusDays(3), today.plusDays(5), 200.0));
+
+        assertEquals(1, repository.findConflictingBookings(101, today.plusDays(1), today.plusDays(2)).size());
+        assertEquals(2, repository.findConflictingBookings(101, today.plusDays(2), today.plusDays(4)).size());
+        assertTrue(repository.findConflictingBookings(101, today.plusDays(5), today.plusDays(6)).isEmpty());
+        assertTrue(repository.findConflictingBookings(102, today, today.plusDays(6)).isEmpty());
+    }
+
+    @Test
+    void testCancelledBookingsDoNotConflictButStayInDateRange() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        repository.save(booking);
+
+        assertTrue(repository.findConflictingBookings(101, today, today.plusDays(3)).isEmpty());
+        assertEquals(1, repository.findByDateRange(today.plusDays(1), today.plusDays(2)).size());
+    }
+
+    @Test
+    void testDeleteRemovesFromTrees() {
+        Booking booking = repository.save(new Booking(1L, 101, today, today.plusDays(3), 300.0));
+
+        repository.delete(booking);
+        assertTrue(repository.findByDateRange(today, today.plusDays(3)).isEmpty());
+        assertTrue(repository.findConflictingBookings(101, today, today.plusDays(3)).isEmpty());
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void testMatchesMapRepository() {
+        InMemoryBookingRepository reference = new InMemoryBookingRepository();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDate checkIn = today.plusDays(random.nextInt(365));
+            Booking booking = new Booking((long) i, random.nextInt(20) + 1, checkIn,
+                    checkIn.plusDays(random.nextInt(10) + 1), 100.0);
+            if (random.nextInt(4) == 0) {
+                booking.setBookingStatus(BookingStatus.CANCELLED);
+            }
+            reference.save(booking);
+            repository.save(booking);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int roomNumber = random.nextInt(20) + 1;
+            LocalDate start = today.plusDays(random.nextInt(365));
+            LocalDate end = start.plusDays(random.nextInt(14) + 1);
+
+            assertEquals(ids(reference.findConflictingBookings(roomNumber, start, end)),
+                    ids(repository.findConflictingBookings(roomNumber, start, end)));
+            assertEquals(ids(reference.findByDateRange(start, end)),
+                    ids(repository.findByDateRange(start, end)));
+        }
+    }
+
+    private Set<Long> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toSet());
+    }
+}
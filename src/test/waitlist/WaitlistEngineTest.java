@@ -0,0 +1,138 @@
+package waitlist;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import concurrency.ConcurrentBookingService;
+import model.Booking;
+import model.BookingStatus;
+import model.Room;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.impl.*;
+import services.NotificationService;
+import services.PaymentService;
+
+class WaitlistEngineTest {
+
+    private InMemoryBookingRepository bookingRepository;
+    private ConcurrentBookingService bookingService;
+    private WaitlistEngine engine;
+    private LocalDate start;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = new InMemoryBookingRepository();
+        InMemoryRoomRepository roomRepository = new InMemoryRoomRepository();
+        roomRepository.save(new Room(1, "Single", 100.0));
+        roomRepository.save(new Room(2, "Suite", 300.0));
+        NotificationService notificationService = new NotificationService(
+            new InMemoryNotificationRepository(), new InMemoryUserRepository());
+        bookingService = new ConcurrentBookingService(bookingRepository, roomRepository, notificationService,
+            new PaymentService(new InMemoryPaymentRepository()));
+        engine = new WaitlistEngine(bookingService, roomRepository, notificationService);
+        start = LocalDate.now().plusDays(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingService.shutdown();
+    }
+
+    @Test
+    void testCandidatesIndexedByTypeAndDates() {
+        WaitlistRequest overlapping = register(2L, "Single", start, start.plusDays(2), 150.0);
+        register(3L, "Single", start.plusDays(5), start.plusDays(6), 150.0);
+        register(4L, "Suite", start, start.plusDays(2), 500.0);
+
+        assertEquals(1, engine.findCandidates("single", start.plusDays(1), start.plusDays(3)).size());
+        assertEquals(overlapping.getId(), engine.findCandidates("Single", start, start.plusDays(1)).get(0).getId());
+        assertTrue(engine.findCandidates("Single", start.plusDays(2), start.plusDays(5)).isEmpty());
+        assertEquals(3, engine.getWaitingCount());
+
+        assertTrue(engine.cancel(overlapping.getId(), 2L));
+        assertTrue(engine.findCandidates("Single", start, start.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testCancellationOffersRoomToFirstMatchingRequest() {
+        Booking existing = confirmedBooking(1, start, start.plusDays(3));
+        WaitlistRequest first = register(2L, "Single", start, start.plusDays(2), 150.0);
+        WaitlistRequest second = register(3L, "Single", start.plusDays(1), start.plusDays(3), 150.0);
+        WaitlistRequest tooCheap = register(4L, "Single", start.plusDays(2), start.plusDays(3), 50.0);
+
+        cancel(existing, "BOOKING_CANCELLED");
+
+        assertEquals(WaitlistRequest.Status.OFFERED, first.getStatus());
+        Booking held = bookingRepository.findById(first.getBookingId()).get();
+        assertEquals(BookingStatus.PENDING, held.getBookingStatus());
+        assertTrue(bookingService.getHoldManager().isHeld(held.getId()));
+        // Overlaps the nights now held for the first request
+        assertEquals(WaitlistRequest.Status.WAITING, second.getStatus());
+        assertEquals(WaitlistRequest.Status.WAITING, tooCheap.getStatus());
+    }
+
+    @Test
+    void testLapsedOfferMovesToNextRequest() {
+        Booking existing = confirmedBooking(1, start, start.plusDays(3));
+        WaitlistRequest first = register(2L, "Single", start, start.plusDays(2), 150.0);
+        WaitlistRequest second = register(3L, "Single", start.plusDays(1), start.plusDays(3), 150.0);
+        cancel(existing, "BOOKING_CANCELLED");
+
+        Booking offered = bookingRepository.findById(first.getBookingId()).get();
+        bookingService.getHoldManager().releaseHold(offered.getId());
+        cancel(offered, "BOOKING_EXPIRED");
+
+        assertEquals(WaitlistRequest.Status.EXPIRED, first.getStatus());
+        assertEquals(WaitlistRequest.Status.OFFERED, second.getStatus());
+        assertFalse(engine.acceptOffer(first.getId(), 2L).isSuccessful());
+        assertTrue(engine.getRequest(first.getId()).isEmpty());
+        assertTrue(engine.getRequest(second.getId()).isPresent());
+    }
+
+    @Test
+    void testFinishedRequestsAreDropped() {
+        WaitlistRequest cancelled = register(2L, "Single", start, start.plusDays(2), 150.0);
+        WaitlistRequest booked = register(3L, "Single", start, start.plusDays(2), 150.0);
+        assertTrue(engine.cancel(cancelled.getId(), 2L));
+        assertTrue(engine.getRequest(cancelled.getId()).isEmpty());
+
+        cancel(confirmedBooking(1, start, start.plusDays(2)), "BOOKING_CANCELLED");
+        assertEquals(WaitlistRequest.Status.OFFERED, booked.getStatus());
+        engine.onBookingUpdate(bookingRepository.findById(booked.getBookingId()).get(), "BOOKING_CREATED");
+
+        assertEquals(WaitlistRequest.Status.BOOKED, booked.getStatus());
+        assertTrue(engine.getRequestsForUser(3L).isEmpty());
+    }
+
+    @Test
+    void testPriceLimitUsesDiscountedNightlyRate() {
+        // Seven nights at 100 get the long-stay discount, so that guest is charged 90 a night
+        Booking existing = confirmedBooking(1, start, start.plusDays(7));
+        WaitlistRequest shortStay = register(2L, "Single", start, start.plusDays(2), 95.0);
+        WaitlistRequest longStay = register(3L, "Single", start, start.plusDays(7), 95.0);
+
+        cancel(existing, "BOOKING_CANCELLED");
+
+        assertEquals(WaitlistRequest.Status.WAITING, shortStay.getStatus());
+        assertEquals(WaitlistRequest.Status.OFFERED, longStay.getStatus());
+    }
+
+    private WaitlistRequest register(Long userId, String roomType, LocalDate checkIn, LocalDate checkOut, double maxPrice) {
+        return engine.register(userId, roomType, checkIn, checkOut, maxPrice, WaitlistRequest.Mode.AUTO_OFFER).get();
+    }
+
+    private Booking confirmedBooking(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        Booking booking = new Booking(1L, roomNumber, checkIn, checkOut, 300.0);
+        booking.setBookingStatus(BookingStatus.CONFIRMED);
+        return bookingRepository.save(booking);
+    }
+
+    private void cancel(Booking booking, String eventType) {
+        booking.setBookingStatus(BookingStatus.CANCELLED);
+        bookingRepository.save(booking);
+        engine.onBookingUpdate(booking, eventType);
+    }
+}